@@ -0,0 +1,96 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmarks;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures binarization of each image in a black box directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinarizerBenchmark {
+
+  @Param({"qrcode-2", "datamatrix-2", "pdf417-2"})
+  public String images;
+
+  private List<LuminanceSource> sources;
+
+  @Setup
+  public void setUp() throws IOException {
+    sources = BlackBoxImages.loadSources(images);
+  }
+
+  @Benchmark
+  public void hybrid(Blackhole blackhole) throws NotFoundException {
+    for (LuminanceSource source : sources) {
+      blackhole.consume(new HybridBinarizer(source).getBlackMatrix());
+    }
+  }
+
+  @Benchmark
+  public void globalHistogram(Blackhole blackhole) {
+    for (LuminanceSource source : sources) {
+      try {
+        blackhole.consume(new GlobalHistogramBinarizer(source).getBlackMatrix());
+      } catch (NotFoundException nfe) {
+        // too little contrast; still measured
+      }
+    }
+  }
+
+  @Benchmark
+  public void globalHistogramRows(Blackhole blackhole) {
+    BitArray row = null;
+    for (LuminanceSource source : sources) {
+      GlobalHistogramBinarizer binarizer = new GlobalHistogramBinarizer(source);
+      for (int y = 0; y < source.getHeight(); y++) {
+        try {
+          row = binarizer.getBlackRow(y, row);
+          blackhole.consume(row);
+        } catch (NotFoundException nfe) {
+          // too little contrast; still measured
+        }
+      }
+    }
+  }
+
+}
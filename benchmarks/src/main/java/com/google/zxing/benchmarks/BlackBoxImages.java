@@ -0,0 +1,115 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmarks;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads benchmark inputs from the black box test images under {@code core/src/test/resources/blackbox}.
+ * Set system property {@code zxing.blackbox.dir} to read them from elsewhere.
+ */
+final class BlackBoxImages {
+
+  private static final String BLACKBOX_DIR_PROPERTY = "zxing.blackbox.dir";
+  private static final String DEFAULT_BLACKBOX_DIR = "core/src/test/resources/blackbox";
+
+  private BlackBoxImages() {
+  }
+
+  /**
+   * @param name name of a directory of black box images, like "qrcode-1"
+   * @return all images in that directory, in file name order
+   * @throws IOException if the directory or an image can't be read
+   */
+  static List<BufferedImage> loadImages(String name) throws IOException {
+    Path dir = getBaseDir().resolve(name);
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.{jpg,jpeg,gif,png,JPG,JPEG,GIF,PNG}")) {
+      for (Path file : stream) {
+        files.add(file);
+      }
+    }
+    if (files.isEmpty()) {
+      throw new IOException("No images in " + dir);
+    }
+    Collections.sort(files);
+    List<BufferedImage> images = new ArrayList<>(files.size());
+    for (Path file : files) {
+      BufferedImage image = ImageIO.read(file.toFile());
+      if (image == null) {
+        throw new IOException("Can't read " + file);
+      }
+      images.add(image);
+    }
+    return images;
+  }
+
+  /**
+   * @param name name of a directory of black box images
+   * @return luminance of each image in that directory
+   * @throws IOException if the directory or an image can't be read
+   */
+  static List<LuminanceSource> loadSources(String name) throws IOException {
+    List<LuminanceSource> sources = new ArrayList<>();
+    for (BufferedImage image : loadImages(name)) {
+      sources.add(new BufferedImageLuminanceSource(image));
+    }
+    return sources;
+  }
+
+  /**
+   * @param sources luminance sources
+   * @return a new {@link BinaryBitmap} using a {@link HybridBinarizer} for each source, with nothing
+   *  computed yet
+   */
+  static BinaryBitmap[] newBitmaps(List<LuminanceSource> sources) {
+    BinaryBitmap[] bitmaps = new BinaryBitmap[sources.size()];
+    for (int i = 0; i < bitmaps.length; i++) {
+      bitmaps[i] = new BinaryBitmap(new HybridBinarizer(sources.get(i)));
+    }
+    return bitmaps;
+  }
+
+  private static Path getBaseDir() throws IOException {
+    String configured = System.getProperty(BLACKBOX_DIR_PROPERTY);
+    if (configured != null) {
+      return Paths.get(configured);
+    }
+    // Allow running from the top level directory or from this module's directory
+    for (Path candidate : new Path[] {Paths.get(DEFAULT_BLACKBOX_DIR), Paths.get("..", DEFAULT_BLACKBOX_DIR)}) {
+      if (Files.isDirectory(candidate)) {
+        return candidate;
+      }
+    }
+    throw new IOException("Can't find " + DEFAULT_BLACKBOX_DIR + "; set -D" + BLACKBOX_DIR_PROPERTY);
+  }
+
+}
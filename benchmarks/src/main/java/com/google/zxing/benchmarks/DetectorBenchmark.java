@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmarks;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.ReaderException;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures only the detection step of each 2D format, on every image in a black box directory of
+ * that format, binarized before measurement starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DetectorBenchmark {
+
+  private static final String QR_CODE_IMAGES = "qrcode-2";
+  private static final String DATA_MATRIX_IMAGES = "datamatrix-1";
+  private static final String AZTEC_IMAGES = "aztec-1";
+  private static final String PDF417_IMAGES = "pdf417-2";
+
+  private List<BitMatrix> qrCodeMatrices;
+  private List<BitMatrix> dataMatrixMatrices;
+  private List<BitMatrix> aztecMatrices;
+  private BinaryBitmap[] pdf417Bitmaps;
+
+  @Setup
+  public void setUp() throws IOException {
+    qrCodeMatrices = binarize(QR_CODE_IMAGES);
+    dataMatrixMatrices = binarize(DATA_MATRIX_IMAGES);
+    aztecMatrices = binarize(AZTEC_IMAGES);
+    pdf417Bitmaps = BlackBoxImages.newBitmaps(BlackBoxImages.loadSources(PDF417_IMAGES));
+    for (BinaryBitmap bitmap : pdf417Bitmaps) {
+      try {
+        bitmap.getBlackMatrix();
+      } catch (ReaderException re) {
+        // leave it to fail again in the detector
+      }
+    }
+  }
+
+  @Benchmark
+  public void qrCode(Blackhole blackhole) {
+    for (BitMatrix matrix : qrCodeMatrices) {
+      try {
+        blackhole.consume(new com.google.zxing.qrcode.detector.Detector(matrix).detect());
+      } catch (ReaderException re) {
+        // failures are part of what's measured
+      }
+    }
+  }
+
+  @Benchmark
+  public void dataMatrix(Blackhole blackhole) {
+    for (BitMatrix matrix : dataMatrixMatrices) {
+      try {
+        blackhole.consume(new com.google.zxing.datamatrix.detector.Detector(matrix).detect());
+      } catch (ReaderException re) {
+        // failures are part of what's measured
+      }
+    }
+  }
+
+  @Benchmark
+  public void aztec(Blackhole blackhole) {
+    for (BitMatrix matrix : aztecMatrices) {
+      try {
+        blackhole.consume(new com.google.zxing.aztec.detector.Detector(matrix).detect());
+      } catch (ReaderException re) {
+        // failures are part of what's measured
+      }
+    }
+  }
+
+  @Benchmark
+  public void pdf417(Blackhole blackhole) {
+    for (BinaryBitmap bitmap : pdf417Bitmaps) {
+      try {
+        blackhole.consume(com.google.zxing.pdf417.detector.Detector.detect(bitmap, null, false));
+      } catch (ReaderException re) {
+        // failures are part of what's measured
+      }
+    }
+  }
+
+  private static List<BitMatrix> binarize(String images) throws IOException {
+    List<BitMatrix> matrices = new ArrayList<>();
+    for (BinaryBitmap bitmap : BlackBoxImages.newBitmaps(BlackBoxImages.loadSources(images))) {
+      try {
+        matrices.add(bitmap.getBlackMatrix());
+      } catch (ReaderException re) {
+        // skip images which can't be binarized at all
+      }
+    }
+    return matrices;
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmarks;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures conversion of images to luminance, for each image in a black box directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LuminanceSourceBenchmark {
+
+  @Param({"qrcode-2", "ean13-1", "pdf417-2"})
+  public String images;
+
+  private List<BufferedImage> bufferedImages;
+  private int[][] pixels;
+
+  @Setup
+  public void setUp() throws IOException {
+    bufferedImages = BlackBoxImages.loadImages(images);
+    pixels = new int[bufferedImages.size()][];
+    for (int i = 0; i < pixels.length; i++) {
+      BufferedImage image = bufferedImages.get(i);
+      int width = image.getWidth();
+      int height = image.getHeight();
+      pixels[i] = image.getRGB(0, 0, width, height, null, 0, width);
+    }
+  }
+
+  @Benchmark
+  public void bufferedImage(Blackhole blackhole) {
+    for (BufferedImage image : bufferedImages) {
+      LuminanceSource source = new BufferedImageLuminanceSource(image);
+      blackhole.consume(source.getMatrix());
+    }
+  }
+
+  @Benchmark
+  public void rgb(Blackhole blackhole) {
+    for (int i = 0; i < pixels.length; i++) {
+      BufferedImage image = bufferedImages.get(i);
+      LuminanceSource source = new RGBLuminanceSource(image.getWidth(), image.getHeight(), pixels[i]);
+      blackhole.consume(source.getMatrix());
+    }
+  }
+
+}
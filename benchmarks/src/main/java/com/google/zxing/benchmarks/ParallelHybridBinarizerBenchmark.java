@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmarks;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link HybridBinarizer} scales with the number of threads in its pool, on a large
+ * frame made by tiling a black box image. {@code parallelism} 0 means no pool at all.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelHybridBinarizerBenchmark {
+
+  @Param({"qrcode-2"})
+  public String images;
+
+  @Param({"6000"})
+  public int size;
+
+  @Param({"0", "1", "2", "4", "8"})
+  public int parallelism;
+
+  private LuminanceSource source;
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setUp() throws IOException {
+    List<BufferedImage> tiles = BlackBoxImages.loadImages(images);
+    byte[] luminances = new byte[size * size];
+    BufferedImage tile = tiles.get(0);
+    int tileWidth = tile.getWidth();
+    int tileHeight = tile.getHeight();
+    int[] tilePixels = tile.getRGB(0, 0, tileWidth, tileHeight, null, 0, tileWidth);
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        int pixel = tilePixels[(y % tileHeight) * tileWidth + (x % tileWidth)];
+        // Green is a good enough approximation of luminance here
+        luminances[y * size + x] = (byte) (pixel >> 8);
+      }
+    }
+    source = new PlanarYUVLuminanceSource(luminances, size, size, 0, 0, size, size, false);
+    pool = parallelism == 0 ? null : new ForkJoinPool(parallelism);
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Benchmark
+  public void hybrid(Blackhole blackhole) throws NotFoundException {
+    blackhole.consume(new HybridBinarizer(source, pool).getBlackMatrix());
+  }
+
+}
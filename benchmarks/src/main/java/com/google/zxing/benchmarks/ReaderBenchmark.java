@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmarks;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.aztec.AztecReader;
+import com.google.zxing.datamatrix.DataMatrixReader;
+import com.google.zxing.maxicode.MaxiCodeReader;
+import com.google.zxing.oned.MultiFormatOneDReader;
+import com.google.zxing.pdf417.PDF417Reader;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures detecting and decoding every image in a black box directory with the {@link Reader} for
+ * that format, and with {@link MultiFormatReader}. Images are binarized before measurement starts,
+ * so for 2D formats only detection and decoding are measured. 1D readers binarize row by row as they
+ * scan, so that is included for them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReaderBenchmark {
+
+  @Param({"qrcode-2", "datamatrix-1", "aztec-1", "pdf417-2", "maxicode-1",
+          "ean13-1", "upca-1", "code128-1", "code39-1", "itf-1", "rss14-1", "rssexpanded-1"})
+  public String images;
+
+  @Param({"false", "true"})
+  public boolean tryHarder;
+
+  private BinaryBitmap[] bitmaps;
+  private Map<DecodeHintType,Object> hints;
+  private Reader reader;
+  private MultiFormatReader multiFormatReader;
+
+  @Setup
+  public void setUp() throws IOException {
+    bitmaps = BlackBoxImages.newBitmaps(BlackBoxImages.loadSources(images));
+    for (BinaryBitmap bitmap : bitmaps) {
+      try {
+        bitmap.getBlackMatrix();
+      } catch (NotFoundException nfe) {
+        // leave it to fail again in the reader
+      }
+    }
+    hints = new EnumMap<>(DecodeHintType.class);
+    if (tryHarder) {
+      hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    }
+    reader = createReader(images, hints);
+    multiFormatReader = new MultiFormatReader();
+    multiFormatReader.setHints(hints);
+  }
+
+  @Benchmark
+  public int reader(Blackhole blackhole) {
+    int decoded = 0;
+    for (BinaryBitmap bitmap : bitmaps) {
+      try {
+        blackhole.consume(reader.decode(bitmap, hints));
+        decoded++;
+      } catch (ReaderException re) {
+        // failures are part of what's measured
+      }
+    }
+    return decoded;
+  }
+
+  @Benchmark
+  public int multiFormatReader(Blackhole blackhole) {
+    int decoded = 0;
+    for (BinaryBitmap bitmap : bitmaps) {
+      try {
+        blackhole.consume(multiFormatReader.decodeWithState(bitmap));
+        decoded++;
+      } catch (ReaderException re) {
+        // failures are part of what's measured
+      }
+    }
+    return decoded;
+  }
+
+  private static Reader createReader(String images, Map<DecodeHintType,?> hints) {
+    if (images.startsWith("qrcode")) {
+      return new QRCodeReader();
+    }
+    if (images.startsWith("datamatrix")) {
+      return new DataMatrixReader();
+    }
+    if (images.startsWith("aztec")) {
+      return new AztecReader();
+    }
+    if (images.startsWith("pdf417")) {
+      return new PDF417Reader();
+    }
+    if (images.startsWith("maxicode")) {
+      return new MaxiCodeReader();
+    }
+    return new MultiFormatOneDReader(hints);
+  }
+
+}
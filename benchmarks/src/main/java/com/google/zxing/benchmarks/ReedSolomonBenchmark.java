@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmarks;
+
+import com.google.zxing.common.reedsolomon.GenericGF;
+import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonEncoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ReedSolomonDecoder} on code words with no errors, with as many errors as can be
+ * corrected, and with too many errors to correct, for the fields used by each format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReedSolomonBenchmark {
+
+  private static final int NUM_CODEWORDS = 64;
+
+  @Param({"QR_CODE_FIELD_256", "DATA_MATRIX_FIELD_256", "AZTEC_DATA_12", "AZTEC_DATA_10",
+          "AZTEC_DATA_6", "AZTEC_PARAM"})
+  public String field;
+
+  @Param({"0", "half", "over"})
+  public String errors;
+
+  @Param({"32"})
+  public int ecBytes;
+
+  private ReedSolomonDecoder decoder;
+  private int ecCount;
+  private int[] received;
+  private int[] work;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    GenericGF gf = (GenericGF) GenericGF.class.getField(field).get(null);
+    ecCount = Math.min(ecBytes, gf.getSize() / 2);
+    int length = Math.min(NUM_CODEWORDS + ecCount, gf.getSize() - 1);
+    Random random = new Random(0xBEEF);
+    received = new int[length];
+    for (int i = 0; i < length - ecCount; i++) {
+      received[i] = random.nextInt(gf.getSize());
+    }
+    new ReedSolomonEncoder(gf).encode(received, ecCount);
+    int numErrors;
+    switch (errors) {
+      case "half":
+        numErrors = ecCount / 2;
+        break;
+      case "over":
+        numErrors = ecCount / 2 + 1;
+        break;
+      default:
+        numErrors = 0;
+        break;
+    }
+    for (int i = 0; i < numErrors; i++) {
+      // distinct positions, so that exactly numErrors symbols are wrong
+      received[i * (length / numErrors)] ^= 1 + random.nextInt(gf.getSize() - 1);
+    }
+    work = new int[length];
+    decoder = new ReedSolomonDecoder(gf);
+  }
+
+  @Benchmark
+  public int[] decode() {
+    System.arraycopy(received, 0, work, 0, received.length);
+    try {
+      decoder.decode(work, ecCount);
+    } catch (ReedSolomonException rse) {
+      // uncorrectable; failures are part of what's measured
+    }
+    return work;
+  }
+
+}
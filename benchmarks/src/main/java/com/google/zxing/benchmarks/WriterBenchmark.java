@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.benchmarks;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.Writer;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Writer#encode(String, BarcodeFormat, int, int)} for each writable format.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WriterBenchmark {
+
+  private static final String TEXT = "https://github.com/zxing/zxing/wiki/Getting-Started-Developing";
+
+  @Param({"QR_CODE", "DATA_MATRIX", "AZTEC", "PDF_417", "CODE_128", "CODE_39", "CODE_93", "CODABAR",
+          "ITF", "EAN_13", "EAN_8", "UPC_A", "UPC_E"})
+  public BarcodeFormat format;
+
+  @Param({"300"})
+  public int size;
+
+  private final Writer writer = new MultiFormatWriter();
+  private String contents;
+
+  @Setup
+  public void setUp() {
+    switch (format) {
+      case CODE_39:
+      case CODE_93:
+        contents = "ZXING-123";
+        break;
+      case CODABAR:
+        contents = "A123456B";
+        break;
+      case ITF:
+        contents = "00123456789012";
+        break;
+      case EAN_13:
+        contents = "5901234123457";
+        break;
+      case EAN_8:
+        contents = "96385074";
+        break;
+      case UPC_A:
+        contents = "036000291452";
+        break;
+      case UPC_E:
+        contents = "01234565";
+        break;
+      default:
+        contents = TEXT;
+        break;
+    }
+  }
+
+  @Benchmark
+  public BitMatrix encode() throws WriterException {
+    return writer.encode(contents, format, size, size);
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.web;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures request threads checking {@link DoSTracker} at once, as {@link DoSFilter} does for
+ * every request, against a single {@link LRUMap} behind one lock as it was tracked before.
+ * {@code addresses} is how many distinct clients the requests come from; more than the 10,000
+ * entries kept means constant eviction. Vary the threads with {@code -t}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class DoSTrackerBenchmark {
+
+  private static final int MAX_ENTRIES = 10_000;
+
+  @Param({"100", "100000"})
+  public int addresses;
+
+  private String[] events;
+  private DoSTracker tracker;
+  private Map<String,AtomicLong> lockedMap;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(addresses);
+    events = new String[addresses];
+    for (int i = 0; i < addresses; i++) {
+      events[i] = random.nextInt(256) + "." + random.nextInt(256) + '.' + random.nextInt(256) + '.' + random.nextInt(256);
+    }
+    // Limits high enough that nothing is banned, so both only count
+    tracker = new DoSTracker(Integer.MAX_VALUE, TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES), MAX_ENTRIES);
+    lockedMap = new LRUMap<>(MAX_ENTRIES);
+  }
+
+  /**
+   * Gives each thread its own sequence of addresses.
+   */
+  @State(Scope.Thread)
+  public static class Requests {
+
+    private final Random random = new Random();
+
+    String next(String[] events) {
+      return events[random.nextInt(events.length)];
+    }
+
+  }
+
+  @Benchmark
+  public boolean striped(Requests requests) {
+    return tracker.isBanned(requests.next(events));
+  }
+
+  @Benchmark
+  public boolean globalLock(Requests requests) {
+    String event = requests.next(events);
+    AtomicLong count;
+    synchronized (lockedMap) {
+      count = lockedMap.get(event);
+      if (count == null) {
+        count = new AtomicLong();
+        lockedMap.put(event, count);
+      }
+    }
+    return count.incrementAndGet() > Integer.MAX_VALUE;
+  }
+
+}
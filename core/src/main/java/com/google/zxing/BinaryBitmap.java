@@ -23,18 +23,50 @@ import com.google.zxing.common.BitMatrix;
  * This class is the core bitmap class used by ZXing to represent 1 bit data. Reader objects
  * accept a BinaryBitmap and attempt to decode it.
  *
+ * By default each crop is binarized anew. In crop view mode, crops are instead cut from the
+ * binarized rows and matrix of the bitmap they were cropped from, so that readers which crop the
+ * same image many times, like {@link com.google.zxing.multi.GenericMultipleBarcodeReader} and
+ * {@link com.google.zxing.multi.ByQuadrantReader}, binarize it only once.
+ *
  * @author dswitkin@google.com (Daniel Switkin)
  */
 public final class BinaryBitmap {
 
   private final Binarizer binarizer;
+  private final boolean cropViews;
+  // For a crop view, the bitmap it was cut from, and where
+  private final BinaryBitmap parent;
+  private final int left;
+  private final int top;
   private BitMatrix matrix;
 
   public BinaryBitmap(Binarizer binarizer) {
+    this(binarizer, false);
+  }
+
+  /**
+   * @param binarizer binarizer of the whole image
+   * @param cropViews if true, {@link #crop(int, int, int, int)} returns views of this bitmap's
+   *  binarized data instead of binarizing the cropped image again. Each crop then sees the black
+   *  points of the whole image rather than only those within it.
+   */
+  public BinaryBitmap(Binarizer binarizer, boolean cropViews) {
     if (binarizer == null) {
       throw new IllegalArgumentException("Binarizer must be non-null.");
     }
     this.binarizer = binarizer;
+    this.cropViews = cropViews;
+    this.parent = null;
+    this.left = 0;
+    this.top = 0;
+  }
+
+  private BinaryBitmap(Binarizer binarizer, BinaryBitmap parent, int left, int top) {
+    this.binarizer = binarizer;
+    this.cropViews = true;
+    this.parent = parent;
+    this.left = left;
+    this.top = top;
   }
 
   /**
@@ -63,7 +95,24 @@ public final class BinaryBitmap {
    * @throws NotFoundException if row can't be binarized
    */
   public BitArray getBlackRow(int y, BitArray row) throws NotFoundException {
-    return binarizer.getBlackRow(y, row);
+    if (parent == null) {
+      return binarizer.getBlackRow(y, row);
+    }
+    BitArray parentRow = parent.getBlackRow(top + y, null);
+    int width = getWidth();
+    if (row == null || row.getSize() < width) {
+      row = new BitArray(width);
+    } else {
+      row.clear();
+    }
+    for (int x32 = 0; x32 < width; x32 += 32) {
+      int bits = parentRow.getBulk(left + x32);
+      if (width - x32 < 32) {
+        bits &= (1 << (width - x32)) - 1;
+      }
+      row.setBulk(x32, bits);
+    }
+    return row;
   }
 
   /**
@@ -82,7 +131,9 @@ public final class BinaryBitmap {
     //    1D Reader finds a barcode before the 2D Readers run.
     // 2. This work will only be done once even if the caller installs multiple 2D Readers.
     if (matrix == null) {
-      matrix = binarizer.getBlackMatrix();
+      matrix = parent == null ?
+          binarizer.getBlackMatrix() :
+          parent.getBlackMatrix().crop(left, top, getWidth(), getHeight());
     }
     return matrix;
   }
@@ -106,7 +157,16 @@ public final class BinaryBitmap {
    */
   public BinaryBitmap crop(int left, int top, int width, int height) {
     LuminanceSource newSource = binarizer.getLuminanceSource().crop(left, top, width, height);
-    return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    if (!cropViews) {
+      return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    }
+    // Crops of a view are cut straight from the original bitmap. The binarizer is only used for
+    // the crop's size and source, and to rotate it, which binarizes the rotated image anew.
+    Binarizer newBinarizer = binarizer.createBinarizer(newSource);
+    if (parent == null) {
+      return new BinaryBitmap(newBinarizer, this, left, top);
+    }
+    return new BinaryBitmap(newBinarizer, parent, this.left + left, this.top + top);
   }
 
   /**
@@ -124,7 +184,7 @@ public final class BinaryBitmap {
    */
   public BinaryBitmap rotateCounterClockwise() {
     LuminanceSource newSource = binarizer.getLuminanceSource().rotateCounterClockwise();
-    return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    return new BinaryBitmap(binarizer.createBinarizer(newSource), cropViews);
   }
 
   /**
@@ -135,7 +195,7 @@ public final class BinaryBitmap {
    */
   public BinaryBitmap rotateCounterClockwise45() {
     LuminanceSource newSource = binarizer.getLuminanceSource().rotateCounterClockwise45();
-    return new BinaryBitmap(binarizer.createBinarizer(newSource));
+    return new BinaryBitmap(binarizer.createBinarizer(newSource), cropViews);
   }
 
   @Override
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * This object extends LuminanceSource around 8-bit luminance values held in a {@link ByteBuffer},
+ * such as a {@link java.nio.MappedByteBuffer} over a raw camera frame on disk, so that the frame
+ * need not be copied into a {@code byte[]} first. Only the requested rows are read from the buffer,
+ * and {@link com.google.zxing.common.HybridBinarizer} reads a buffer without an array a few rows at
+ * a time rather than copying the whole image.
+ *
+ * It works for Y800 (plain greyscale) data and for any YUV format where the Y channel is planar
+ * and appears first, like NV21, since the chroma planes that follow are simply never read.
+ * Rows may be padded: each starts {@code rowStride} bytes after the previous one.
+ *
+ * The buffer's position and limit are not used or changed, so one buffer may back several
+ * sources, and a source may be read from several threads at once.
+ */
+public final class ByteBufferLuminanceSource extends LuminanceSource {
+
+  private final ByteBuffer data;
+  private final int offset;
+  private final int rowStride;
+
+  /**
+   * @param data luminance values, one byte per pixel
+   * @param offset index in {@code data} of the top left pixel
+   * @param rowStride number of bytes from the start of one row to the start of the next
+   * @param width width of the image, in pixels
+   * @param height height of the image, in pixels
+   */
+  public ByteBufferLuminanceSource(ByteBuffer data, int offset, int rowStride, int width, int height) {
+    super(width, height);
+    if (offset < 0 || rowStride < width) {
+      throw new IllegalArgumentException("Bad offset or row stride");
+    }
+    if (height > 0 && (long) offset + (long) (height - 1) * rowStride + width > data.capacity()) {
+      throw new IllegalArgumentException("Image does not fit within buffer.");
+    }
+    this.data = data;
+    this.offset = offset;
+    this.rowStride = rowStride;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    copy(offset + y * rowStride, row, 0, width);
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    int width = getWidth();
+    int height = getHeight();
+
+    // If the buffer wraps an array holding exactly this image, give out the array itself.
+    if (rowStride == width && offset == 0 && data.hasArray() && data.arrayOffset() == 0) {
+      return data.array();
+    }
+
+    int area = width * height;
+    byte[] matrix = new byte[area];
+
+    // If rows are not padded, perform a single copy.
+    if (rowStride == width) {
+      copy(offset, matrix, 0, area);
+      return matrix;
+    }
+
+    // Otherwise copy one row at a time.
+    for (int y = 0, inputOffset = offset; y < height; y++, inputOffset += rowStride) {
+      copy(inputOffset, matrix, y * width, width);
+    }
+    return matrix;
+  }
+
+  @Override
+  public LuminanceMatrix getMatrixView() {
+    if (data.hasArray()) {
+      return new LuminanceMatrix(data.array(), data.arrayOffset() + offset, rowStride);
+    }
+    return super.getMatrixView();
+  }
+
+  @Override
+  public boolean isRowAccessPreferred() {
+    // Such as a mapped file
+    return !data.hasArray();
+  }
+
+  @Override
+  public boolean isCropSupported() {
+    return true;
+  }
+
+  @Override
+  public LuminanceSource crop(int left, int top, int width, int height) {
+    if (left < 0 || top < 0 || left + width > getWidth() || top + height > getHeight()) {
+      throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
+    }
+    return new ByteBufferLuminanceSource(data, offset + top * rowStride + left, rowStride, width, height);
+  }
+
+  private void copy(int from, byte[] to, int toOffset, int length) {
+    if (data.hasArray()) {
+      System.arraycopy(data.array(), data.arrayOffset() + from, to, toOffset, length);
+    } else {
+      // A duplicate has its own position and limit, so concurrent reads don't interfere.
+      // Calls go through Buffer, whose methods return Buffer on every Java version.
+      ByteBuffer view = data.duplicate();
+      ((Buffer) view).clear();
+      ((Buffer) view).position(from);
+      view.get(to, toOffset, length);
+    }
+  }
+
+}
@@ -16,7 +16,12 @@
 
 package com.google.zxing;
 
+import com.google.zxing.common.Deadline;
+import com.google.zxing.common.DecodeContext;
+
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Encapsulates a type of hint that a caller may pass to a barcode reader to help it
@@ -98,6 +103,36 @@ public enum DecodeHintType {
    */
   ALLOWED_EAN_EXTENSIONS(int[].class),
 
+  /**
+   * Working buffers to reuse across decodes instead of allocating new ones.
+   * Maps to a {@link DecodeContext}, which must not be shared between threads.
+   */
+  DECODE_CONTEXT(DecodeContext.class),
+
+  /**
+   * Run the configured readers concurrently instead of one after another. Maps to the
+   * {@link ExecutorService} to run them on. The result is still that of the first reader,
+   * in the usual order, which succeeds. A {@link ResultPointCallback} given under
+   * {@link #NEED_RESULT_POINT_CALLBACK} may then be called from several threads at once.
+   * Readers the executor has not started by the time they are needed run on the decoding thread,
+   * so it may be a bounded pool which the decode itself runs on.
+   */
+  READER_EXECUTOR(ExecutorService.class),
+
+  /**
+   * Give up once a time limit has passed, or when cancelled from another thread.
+   * Maps to a {@link Deadline}, which should be new for each decode.
+   */
+  DEADLINE(Deadline.class),
+
+  /**
+   * When looking for several QR Codes, as {@link com.google.zxing.multi.qrcode.QRCodeMultiReader}
+   * does, search for their finder patterns by scanning bands of rows in parallel. Maps to the
+   * {@link ForkJoinPool} to scan them on. Only worthwhile for large images; the patterns found
+   * do not depend on the pool or its parallelism.
+   */
+  FINDER_PATTERN_POOL(ForkJoinPool.class),
+
   // End of enumeration values.
   ;
 
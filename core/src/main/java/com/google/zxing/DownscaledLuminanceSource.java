@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * A wrapper implementation of {@link LuminanceSource} which shrinks another by a whole factor in
+ * each dimension. Each value is the mean of a square block of factor x factor values of the
+ * delegate (a box filter), and partial blocks at the right and bottom edges are dropped. Values
+ * are computed as they are requested, reading the delegate in place where it allows, or a row at
+ * a time where it prefers that.
+ *
+ * A point (x,y) of this source lies at (x * factor, y * factor) in the delegate.
+ */
+public final class DownscaledLuminanceSource extends LuminanceSource {
+
+  private final LuminanceSource delegate;
+  private final int factor;
+  private LuminanceMatrix view;
+
+  /**
+   * @param delegate source to shrink
+   * @param factor how many of the delegate's pixels, in each dimension, become one pixel
+   */
+  public DownscaledLuminanceSource(LuminanceSource delegate, int factor) {
+    super(delegate.getWidth() / Math.max(1, factor), delegate.getHeight() / Math.max(1, factor));
+    if (factor < 1 || getWidth() < 1 || getHeight() < 1) {
+      throw new IllegalArgumentException("Factor must be positive and at most the image size");
+    }
+    this.delegate = delegate;
+    this.factor = factor;
+  }
+
+  /**
+   * @return how many of the delegate's pixels, in each dimension, became one pixel
+   */
+  public int getFactor() {
+    return factor;
+  }
+
+  @Override
+  public byte[] getRow(int y, byte[] row) {
+    if (y < 0 || y >= getHeight()) {
+      throw new IllegalArgumentException("Requested row is outside the image: " + y);
+    }
+    int width = getWidth();
+    if (row == null || row.length < width) {
+      row = new byte[width];
+    }
+    downscaleRow(y, new int[width * factor], null, row, 0);
+    return row;
+  }
+
+  @Override
+  public byte[] getMatrix() {
+    int width = getWidth();
+    int height = getHeight();
+    int[] sums = new int[width * factor];
+    byte[] delegateRow = null;
+    byte[] matrix = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      delegateRow = downscaleRow(y, sums, delegateRow, matrix, y * width);
+    }
+    return matrix;
+  }
+
+  private LuminanceMatrix getDelegateView() {
+    // Kept, as sources without a view of their own copy all their values to make one
+    if (view == null) {
+      view = delegate.getMatrixView();
+    }
+    return view;
+  }
+
+  /**
+   * Sums each column of the factor rows of the delegate behind row y, then each run of factor
+   * column sums, so that every value of the delegate is read once. Delegates which prefer it are
+   * read a row at a time, into delegateRow if it is large enough.
+   *
+   * @return the array delegate rows were read into, to pass in again
+   */
+  private byte[] downscaleRow(int y, int[] sums, byte[] delegateRow, byte[] out, int outOffset) {
+    int columns = sums.length;
+    for (int j = 0; j < factor; j++) {
+      byte[] luminances;
+      int inputOffset;
+      if (delegate.isRowAccessPreferred()) {
+        delegateRow = delegate.getRow(y * factor + j, delegateRow);
+        luminances = delegateRow;
+        inputOffset = 0;
+      } else {
+        LuminanceMatrix view = getDelegateView();
+        luminances = view.getData();
+        inputOffset = view.getOffset() + (y * factor + j) * view.getRowStride();
+      }
+      if (j == 0) {
+        for (int x = 0; x < columns; x++) {
+          sums[x] = luminances[inputOffset + x] & 0xff;
+        }
+      } else {
+        for (int x = 0; x < columns; x++) {
+          sums[x] += luminances[inputOffset + x] & 0xff;
+        }
+      }
+    }
+    int area = factor * factor;
+    int half = area / 2;
+    for (int x = 0, i = 0; i < columns; x++) {
+      int sum = half;
+      for (int end = i + factor; i < end; i++) {
+        sum += sums[i];
+      }
+      out[outOffset + x] = (byte) (sum / area);
+    }
+    return delegateRow;
+  }
+
+  @Override
+  public boolean isCropSupported() {
+    return delegate.isCropSupported();
+  }
+
+  @Override
+  public LuminanceSource crop(int left, int top, int width, int height) {
+    return new DownscaledLuminanceSource(
+        delegate.crop(left * factor, top * factor, width * factor, height * factor), factor);
+  }
+
+}
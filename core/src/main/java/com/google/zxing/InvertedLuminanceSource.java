@@ -52,6 +52,11 @@ public final class InvertedLuminanceSource extends LuminanceSource {
     return invertedMatrix;
   }
 
+  @Override
+  public boolean isRowAccessPreferred() {
+    return delegate.isRowAccessPreferred();
+  }
+
   @Override
   public boolean isCropSupported() {
     return delegate.isCropSupported();
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+/**
+ * Locates the luminance values of a {@link LuminanceSource} within an array, which is usually the
+ * source's own data rather than a copy. The value at (x,y) is read using:
+ * {@code int luminance = data[offset + y * rowStride + x] & 0xff}
+ *
+ * @see LuminanceSource#getMatrixView()
+ */
+public final class LuminanceMatrix {
+
+  private final byte[] data;
+  private final int offset;
+  private final int rowStride;
+
+  /**
+   * @param data array holding the luminance values. Do not modify its contents.
+   * @param offset index in {@code data} of the top left pixel
+   * @param rowStride number of bytes from the start of one row to the start of the next
+   */
+  public LuminanceMatrix(byte[] data, int offset, int rowStride) {
+    this.data = data;
+    this.offset = offset;
+    this.rowStride = rowStride;
+  }
+
+  /**
+   * @return array holding the luminance values, which may hold other data too. Do not modify it.
+   */
+  public byte[] getData() {
+    return data;
+  }
+
+  /**
+   * @return index in {@link #getData()} of the top left pixel
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return number of bytes from the start of one row to the start of the next
+   */
+  public int getRowStride() {
+    return rowStride;
+  }
+
+}
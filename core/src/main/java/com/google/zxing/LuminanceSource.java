@@ -59,6 +59,29 @@ public abstract class LuminanceSource {
    */
   public abstract byte[] getMatrix();
 
+  /**
+   * Locates luminance data for the underlying bitmap without copying it, where possible. This is
+   * how binarizers read the whole image, so that full frames and crops of one image alike are
+   * read in place. Values should be fetched using:
+   * {@code int luminance = data[offset + y * rowStride + x] & 0xff}
+   *
+   * Subclasses which keep their data in one array should override this. By default it returns
+   * the result of {@link #getMatrix()}.
+   *
+   * @return where to find luminance values. Do not modify the contents of its array.
+   */
+  public LuminanceMatrix getMatrixView() {
+    return new LuminanceMatrix(getMatrix(), 0, width);
+  }
+
+  /**
+   * @return Whether this subclass reads rows straight from its data, but would copy the whole
+   *  image to make a {@link #getMatrixView()}, so that it is better read a few rows at a time.
+   */
+  public boolean isRowAccessPreferred() {
+    return false;
+  }
+
   /**
    * @return The width of the bitmap.
    */
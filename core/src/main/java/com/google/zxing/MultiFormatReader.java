@@ -20,17 +20,28 @@ import com.google.zxing.aztec.AztecReader;
 import com.google.zxing.datamatrix.DataMatrixReader;
 import com.google.zxing.maxicode.MaxiCodeReader;
 import com.google.zxing.oned.MultiFormatOneDReader;
+import com.google.zxing.oned.OneDReader;
 import com.google.zxing.pdf417.PDF417Reader;
 import com.google.zxing.qrcode.QRCodeReader;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * MultiFormatReader is a convenience class and the main entry point into the library for most uses.
  * By default it attempts to decode all barcode formats that the library supports. Optionally, you
  * can provide a hints object to request different behavior, for example only decoding QR codes.
+ * With {@link DecodeHintType#READER_EXECUTOR} it runs the readers for each format concurrently.
  *
  * @author Sean Owen
  * @author dswitkin@google.com (Daniel Switkin)
@@ -39,6 +50,8 @@ public final class MultiFormatReader implements Reader {
 
   private Map<DecodeHintType,?> hints;
   private Reader[] readers;
+  private ExecutorService executor;
+  private CountDownLatch runningReaders;
 
   /**
    * This version of decode honors the intent of Reader.decode(BinaryBitmap) in that it
@@ -71,7 +84,10 @@ public final class MultiFormatReader implements Reader {
 
   /**
    * Decode an image using the state set up by calling setHints() previously. Continuous scan
-   * clients will get a <b>large</b> speed increase by using this instead of decode().
+   * clients will get a <b>large</b> speed increase by using this instead of decode(). Including a
+   * {@link com.google.zxing.common.DecodeContext} under {@link DecodeHintType#DECODE_CONTEXT} in
+   * those hints, and binarizing each frame with the same context, further lets repeated
+   * same-size frames reuse their working buffers.
    *
    * @param image The pixel data to decode
    * @return The contents of the image
@@ -85,6 +101,21 @@ public final class MultiFormatReader implements Reader {
     return decodeInternal(image);
   }
 
+  /**
+   * Like {@link #decodeWithState(BinaryBitmap)}, but returns null rather than throwing
+   * {@link NotFoundException} when no barcode is found. One-dimensional readers then skip the rows
+   * without a barcode without throwing either, which matters when most images hold none.
+   *
+   * @param image The pixel data to decode
+   * @return The contents of the image, or null if no barcode was found
+   */
+  public Result tryDecodeWithState(BinaryBitmap image) {
+    if (readers == null) {
+      setHints(null);
+    }
+    return tryDecodeInternal(image);
+  }
+
   /**
    * This method adds state to the MultiFormatReader. By setting the hints once, subsequent calls
    * to decodeWithState(image) can reuse the same set of readers without reallocating memory. This
@@ -94,6 +125,15 @@ public final class MultiFormatReader implements Reader {
    */
   public void setHints(Map<DecodeHintType,?> hints) {
     this.hints = hints;
+    executor = hints == null ? null : (ExecutorService) hints.get(DecodeHintType.READER_EXECUTOR);
+    if (executor != null && hints.containsKey(DecodeHintType.DECODE_CONTEXT)) {
+      // A context may only serve one decode at a time, so readers running together can't share it.
+      // It is still useful to the binarizer of each image.
+      Map<DecodeHintType,Object> readerHints = new EnumMap<>(DecodeHintType.class);
+      readerHints.putAll(hints);
+      readerHints.remove(DecodeHintType.DECODE_CONTEXT);
+      this.hints = readerHints;
+    }
 
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
     @SuppressWarnings("unchecked")
@@ -157,6 +197,7 @@ public final class MultiFormatReader implements Reader {
 
   @Override
   public void reset() {
+    awaitRunningReaders();
     if (readers != null) {
       for (Reader reader : readers) {
         reader.reset();
@@ -165,16 +206,196 @@ public final class MultiFormatReader implements Reader {
   }
 
   private Result decodeInternal(BinaryBitmap image) throws NotFoundException {
+    Result result = tryDecodeInternal(image);
+    if (result == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return result;
+  }
+
+  private Result tryDecodeInternal(BinaryBitmap image) {
+    awaitRunningReaders();
     if (readers != null) {
+      if (executor != null && readers.length > 1 && isBinarized(image)) {
+        return decodeConcurrently(image);
+      }
       for (Reader reader : readers) {
+        Result result = tryDecode(reader, image, hints);
+        if (result != null) {
+          return result;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the barcode the reader found, or null if it found none
+   */
+  private static Result tryDecode(Reader reader, BinaryBitmap image, Map<DecodeHintType,?> hints) {
+    if (reader instanceof OneDReader) {
+      return ((OneDReader) reader).tryDecode(image, hints);
+    }
+    try {
+      return reader.decode(image, hints);
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
+  /**
+   * Binarizes the image up front, so that concurrent readers only ever read the shared matrix.
+   *
+   * @return false if that failed, in which case the readers should run one at a time as usual
+   */
+  private static boolean isBinarized(BinaryBitmap image) {
+    try {
+      image.getBlackMatrix();
+      return true;
+    } catch (NotFoundException nfe) {
+      return false;
+    }
+  }
+
+  /**
+   * Runs the first reader on this thread and the others on the executor, then takes results in
+   * reader order, so that the result is the same as decoding one reader at a time. A reader whose
+   * task has not started by the time its result is needed runs on this thread instead, so that
+   * decoding never waits on an executor which is busy, perhaps with this very decode. Once one
+   * succeeds, readers which have not yet started are skipped. Readers which have started can't be
+   * interrupted and are left to finish; the next decode waits for them before reusing them.
+   *
+   * @return the barcode, or null if no reader found one
+   */
+  private Result decodeConcurrently(BinaryBitmap image) {
+    Map<DecodeHintType,?> hints = this.hints;
+    AtomicBoolean done = new AtomicBoolean();
+    CountDownLatch finished = new CountDownLatch(readers.length - 1);
+    List<ReaderTask> tasks = new ArrayList<>(readers.length - 1);
+    for (int i = 1; i < readers.length; i++) {
+      ReaderTask task = new ReaderTask(readers[i], image, hints, done, finished);
+      try {
+        task.future = executor.submit(task);
+      } catch (RejectedExecutionException ree) {
+        // Run it on this thread instead, in turn
+      }
+      tasks.add(task);
+    }
+    runningReaders = finished;
+
+    try {
+      Result result = tryDecode(readers[0], image, hints);
+      if (result != null) {
+        return result;
+      }
+      for (ReaderTask task : tasks) {
         try {
-          return reader.decode(image, hints);
-        } catch (ReaderException re) {
-          // continue
+          result = task.claim() ? tryDecode(task.reader, image, hints) : task.future.get();
+          if (result != null) {
+            return result;
+          }
+        } catch (ExecutionException ee) {
+          // The task throws no checked exceptions
+          Throwable cause = ee.getCause();
+          if (cause instanceof Error) {
+            throw (Error) cause;
+          }
+          throw (RuntimeException) cause;
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          break;
         }
       }
+    } finally {
+      done.set(true);
+      // Tasks which have not started would find nothing to do; don't leave the next decode waiting on them
+      for (ReaderTask task : tasks) {
+        task.claim();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Waits for readers left running by the previous concurrent decode, since readers are not
+   * thread-safe and must not be used by two decodes at once.
+   */
+  private void awaitRunningReaders() {
+    CountDownLatch running = runningReaders;
+    if (running == null) {
+      return;
+    }
+    boolean interrupted = false;
+    while (true) {
+      try {
+        running.await();
+        break;
+      } catch (InterruptedException ie) {
+        interrupted = true;
+      }
     }
-    throw NotFoundException.getNotFoundInstance();
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    runningReaders = null;
+  }
+
+  /**
+   * Runs one reader on the executor, unless the decoding thread claims it first.
+   */
+  private static final class ReaderTask implements Callable<Result> {
+
+    private final Reader reader;
+    private final BinaryBitmap image;
+    private final Map<DecodeHintType,?> hints;
+    private final AtomicBoolean done;
+    private final CountDownLatch finished;
+    private final AtomicBoolean started = new AtomicBoolean();
+    // Null if the executor rejected the task; only used by the decoding thread
+    private Future<Result> future;
+
+    ReaderTask(Reader reader,
+               BinaryBitmap image,
+               Map<DecodeHintType,?> hints,
+               AtomicBoolean done,
+               CountDownLatch finished) {
+      this.reader = reader;
+      this.image = image;
+      this.hints = hints;
+      this.done = done;
+      this.finished = finished;
+    }
+
+    @Override
+    public Result call() {
+      if (!started.compareAndSet(false, true)) {
+        // Claimed by the decoding thread
+        return null;
+      }
+      try {
+        return done.get() ? null : tryDecode(reader, image, hints);
+      } finally {
+        finished.countDown();
+      }
+    }
+
+    /**
+     * Stops the task from running on the executor if it has not started, and counts it as finished,
+     * since the decoding thread now owns the reader.
+     *
+     * @return true if the task had not started, and so the caller may use the reader
+     */
+    boolean claim() {
+      if (!started.compareAndSet(false, true)) {
+        return false;
+      }
+      if (future != null) {
+        future.cancel(false);
+      }
+      finished.countDown();
+      return true;
+    }
+
   }
 
 }
@@ -104,6 +104,11 @@ public final class PlanarYUVLuminanceSource extends LuminanceSource {
     return matrix;
   }
 
+  @Override
+  public LuminanceMatrix getMatrixView() {
+    return new LuminanceMatrix(yuvData, top * dataWidth + left, dataWidth);
+  }
+
   @Override
   public boolean isCropSupported() {
     return true;
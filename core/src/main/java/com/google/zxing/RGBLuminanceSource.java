@@ -117,6 +117,11 @@ public final class RGBLuminanceSource extends LuminanceSource {
     return matrix;
   }
 
+  @Override
+  public LuminanceMatrix getMatrixView() {
+    return new LuminanceMatrix(luminances, top * dataWidth + left, dataWidth);
+  }
+
   @Override
   public boolean isCropSupported() {
     return true;
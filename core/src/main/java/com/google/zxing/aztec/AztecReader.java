@@ -28,6 +28,7 @@ import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.aztec.decoder.Decoder;
 import com.google.zxing.aztec.detector.Detector;
+import com.google.zxing.common.Deadline;
 import com.google.zxing.common.DecoderResult;
 
 import java.util.List;
@@ -55,6 +56,9 @@ public final class AztecReader implements Reader {
   @Override
   public Result decode(BinaryBitmap image, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException {
+    if (Deadline.isExpired(hints)) {
+      throw NotFoundException.getNotFoundInstance();
+    }
 
     NotFoundException notFoundException = null;
     FormatException formatException = null;
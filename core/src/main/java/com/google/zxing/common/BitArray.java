@@ -133,6 +133,23 @@ public final class BitArray implements Cloneable {
     return result > size ? size : result;
   }
 
+  /**
+   * Gets a block of 32 bits, starting at bit i, which need not be a multiple of 32.
+   *
+   * @param i first bit to get
+   * @return the next 32 bits, where the least-significant bit corresponds to bit i. Bits past
+   *  the end of the array are unset.
+   */
+  public int getBulk(int i) {
+    int offset = i / 32;
+    int shift = i & 0x1F;
+    int result = offset < bits.length ? bits[offset] >>> shift : 0;
+    if (shift != 0 && offset + 1 < bits.length) {
+      result |= bits[offset + 1] << (32 - shift);
+    }
+    return result;
+  }
+
   /**
    * Sets a block of 32 bits, starting at bit i.
    *
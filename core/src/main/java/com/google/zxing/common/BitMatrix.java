@@ -173,6 +173,19 @@ public final class BitMatrix implements Cloneable {
     bits[offset] |= 1 << (x & 0x1f);
   }
 
+  /**
+   * <p>Sets, in one write, those of the 32 bits of a row starting at x which are set in newBits.
+   * Bits which are already set are left set.</p>
+   *
+   * @param x The horizontal component of the first bit, which must be a multiple of 32
+   * @param y The vertical component (i.e. which row)
+   * @param newBits the bits to set. The least-significant bit corresponds to x, the next to x+1,
+   *  and so on. Bits at or beyond the width of the matrix must not be set.
+   */
+  void setBulk(int x, int y, int newBits) {
+    bits[y * rowSize + (x / 32)] |= newBits;
+  }
+
   public void unset(int x, int y) {
     int offset = y * rowSize + (x / 32);
     bits[offset] &= ~(1 << (x & 0x1f));
@@ -248,6 +261,43 @@ public final class BitMatrix implements Cloneable {
     }
   }
 
+  /**
+   * Copies a region of this matrix, 32 bits at a time.
+   *
+   * @param left The horizontal position to begin at (inclusive)
+   * @param top The vertical position to begin at (inclusive)
+   * @param width The width of the region
+   * @param height The height of the region
+   * @return a new {@link BitMatrix} of the given size, holding the region's bits
+   */
+  public BitMatrix crop(int left, int top, int width, int height) {
+    if (top < 0 || left < 0) {
+      throw new IllegalArgumentException("Left and top must be nonnegative");
+    }
+    if (top + height > this.height || left + width > this.width) {
+      throw new IllegalArgumentException("The region must fit inside the matrix");
+    }
+    BitMatrix cropped = new BitMatrix(width, height);
+    int shift = left & 0x1F;
+    // Clears bits past the right edge of the region, in its last word
+    int lastMask = (width & 0x1F) == 0 ? -1 : (1 << (width & 0x1F)) - 1;
+    for (int y = 0; y < height; y++) {
+      int inputOffset = (top + y) * rowSize;
+      int outputOffset = y * cropped.rowSize;
+      for (int x = 0; x < cropped.rowSize; x++) {
+        // Each word of the region straddles up to two words of this matrix
+        int word = (left / 32) + x;
+        int value = bits[inputOffset + word] >>> shift;
+        if (shift != 0 && word + 1 < rowSize) {
+          value |= bits[inputOffset + word + 1] << (32 - shift);
+        }
+        cropped.bits[outputOffset + x] = value;
+      }
+      cropped.bits[outputOffset + cropped.rowSize - 1] &= lastMask;
+    }
+    return cropped;
+  }
+
   /**
    * A fast method to retrieve one row of data from the matrix as a BitArray.
    *
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.DecodeHintType;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Bounds how long a decode may take. Pass one under {@link DecodeHintType#DEADLINE}; readers
+ * and detectors check it between rows, candidates and attempts, and give up once it has passed or
+ * it has been {@link #cancel()}ed. A reader which gives up throws
+ * {@link com.google.zxing.NotFoundException}, while readers of multiple barcodes return those
+ * found so far.</p>
+ *
+ * <p>Checks are cooperative, so a decode may overrun by about as long as one row or candidate
+ * takes. A deadline may be shared by several threads, for example by readers run concurrently.</p>
+ */
+public final class Deadline {
+
+  private final long expiryNanos;
+  private final boolean timed;
+  private volatile boolean cancelled;
+
+  private Deadline(long expiryNanos, boolean timed) {
+    this.expiryNanos = expiryNanos;
+    this.timed = timed;
+  }
+
+  /**
+   * @param timeout time from now until the deadline
+   * @param unit unit of timeout
+   * @return a deadline which passes after the given time, or when cancelled
+   */
+  public static Deadline after(long timeout, TimeUnit unit) {
+    return new Deadline(System.nanoTime() + unit.toNanos(timeout), true);
+  }
+
+  /**
+   * @return a deadline which only passes when cancelled
+   */
+  public static Deadline untilCancelled() {
+    return new Deadline(0L, false);
+  }
+
+  /**
+   * Makes the deadline pass now. May be called from any thread.
+   */
+  public void cancel() {
+    cancelled = true;
+  }
+
+  /**
+   * @return true if the deadline has passed or been cancelled
+   */
+  public boolean isExpired() {
+    return cancelled || (timed && System.nanoTime() - expiryNanos >= 0);
+  }
+
+  /**
+   * @param hints decode hints, or null
+   * @return the deadline given under {@link DecodeHintType#DEADLINE}, or null if none
+   */
+  public static Deadline fromHints(Map<DecodeHintType,?> hints) {
+    return hints == null ? null : (Deadline) hints.get(DecodeHintType.DEADLINE);
+  }
+
+  /**
+   * @param hints decode hints, or null
+   * @return true if the hints give a deadline and it has passed
+   */
+  public static boolean isExpired(Map<DecodeHintType,?> hints) {
+    Deadline deadline = fromHints(hints);
+    return deadline != null && deadline.isExpired();
+  }
+
+}
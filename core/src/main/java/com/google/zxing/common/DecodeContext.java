@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+/**
+ * <p>Holds working buffers which can be reused from one decode to the next, so that repeatedly
+ * decoding frames of the same size allocates very little. Pass one to a {@link HybridBinarizer}
+ * or {@link GlobalHistogramBinarizer}, and to readers under
+ * {@link com.google.zxing.DecodeHintType#DECODE_CONTEXT}, typically via
+ * {@link com.google.zxing.MultiFormatReader#setHints(java.util.Map)} followed by repeated calls to
+ * {@link com.google.zxing.MultiFormatReader#decodeWithState(com.google.zxing.BinaryBitmap)}.</p>
+ *
+ * <p>Each buffer is overwritten the next time it is requested, so a context must only be used
+ * for one decode at a time, and by one thread. In particular, the {@link BitMatrix} returned by a
+ * binarizer using a context is only valid until the next frame is binarized with it.</p>
+ */
+public final class DecodeContext {
+
+  private BitMatrix blackMatrix;
+  private int[][] blackPoints;
+  private int[] thresholds;
+  private byte[] luminanceRow;
+  private byte[] luminanceBand;
+  private BitArray blackRow;
+  private float[] samplePoints;
+
+  /**
+   * @param width width of the matrix
+   * @param height height of the matrix
+   * @return a cleared {@link BitMatrix} of the given size
+   */
+  BitMatrix getBlackMatrix(int width, int height) {
+    if (blackMatrix == null || blackMatrix.getWidth() != width || blackMatrix.getHeight() != height) {
+      blackMatrix = new BitMatrix(width, height);
+    } else {
+      blackMatrix.clear();
+    }
+    return blackMatrix;
+  }
+
+  /**
+   * @param subWidth number of blocks across
+   * @param subHeight number of blocks down
+   * @return a grid of exactly the given size, with unspecified contents
+   */
+  int[][] getBlackPoints(int subWidth, int subHeight) {
+    if (blackPoints == null || blackPoints.length != subHeight || blackPoints[0].length != subWidth) {
+      blackPoints = new int[subHeight][subWidth];
+    }
+    return blackPoints;
+  }
+
+  /**
+   * @param width minimum length
+   * @return an array of at least the given length, with unspecified contents
+   */
+  int[] getThresholds(int width) {
+    if (thresholds == null || thresholds.length < width) {
+      thresholds = new int[width];
+    }
+    return thresholds;
+  }
+
+  /**
+   * @param width minimum length
+   * @return an array of at least the given length, with unspecified contents
+   */
+  byte[] getLuminanceRow(int width) {
+    if (luminanceRow == null || luminanceRow.length < width) {
+      luminanceRow = new byte[width];
+    }
+    return luminanceRow;
+  }
+
+  /**
+   * @param length minimum length
+   * @return an array of at least the given length, with unspecified contents
+   */
+  byte[] getLuminanceBand(int length) {
+    if (luminanceBand == null || luminanceBand.length < length) {
+      luminanceBand = new byte[length];
+    }
+    return luminanceBand;
+  }
+
+  /**
+   * @param width size of the row
+   * @return a {@link BitArray} of exactly the given size, suitable for passing to
+   *  {@link com.google.zxing.BinaryBitmap#getBlackRow(int, BitArray)}
+   */
+  public BitArray getBlackRow(int width) {
+    if (blackRow == null || blackRow.getSize() != width) {
+      blackRow = new BitArray(width);
+    }
+    return blackRow;
+  }
+
+  /**
+   * @param length length of the array
+   * @return an array of exactly the given length, with unspecified contents
+   */
+  float[] getSamplePoints(int length) {
+    if (samplePoints == null || samplePoints.length != length) {
+      samplePoints = new float[length];
+    }
+    return samplePoints;
+  }
+
+}
@@ -48,13 +48,22 @@ public final class DefaultGridSampler extends GridSampler {
                               int dimensionX,
                               int dimensionY,
                               PerspectiveTransform transform) throws NotFoundException {
+    return sampleGrid(image, dimensionX, dimensionY, transform, null);
+  }
+
+  @Override
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform,
+                              DecodeContext context) throws NotFoundException {
     if (dimensionX <= 0 || dimensionY <= 0) {
       throw NotFoundException.getNotFoundInstance();
     }
     BitMatrix bits = new BitMatrix(dimensionX, dimensionY);
-    float[] points = new float[2 * dimensionX];
+    int max = 2 * dimensionX;
+    float[] points = context == null ? new float[max] : context.getSamplePoints(max);
     for (int y = 0; y < dimensionY; y++) {
-      int max = points.length;
       float iValue = y + 0.5f;
       for (int x = 0; x < max; x += 2) {
         points[x] = (float) (x / 2) + 0.5f;
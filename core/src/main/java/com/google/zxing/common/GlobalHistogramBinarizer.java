@@ -17,6 +17,7 @@
 package com.google.zxing.common;
 
 import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceMatrix;
 import com.google.zxing.LuminanceSource;
 import com.google.zxing.NotFoundException;
 
@@ -38,15 +39,30 @@ public class GlobalHistogramBinarizer extends Binarizer {
   private static final int LUMINANCE_BUCKETS = 1 << LUMINANCE_BITS;
   private static final byte[] EMPTY = new byte[0];
 
+  private final DecodeContext context;
   private byte[] luminances;
   private final int[] buckets;
 
   public GlobalHistogramBinarizer(LuminanceSource source) {
+    this(source, null);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param context buffers to reuse, or null to allocate new ones. Binarizers created by
+   *  {@link #createBinarizer(LuminanceSource)}, as for crops and rotations, do not use it.
+   */
+  public GlobalHistogramBinarizer(LuminanceSource source, DecodeContext context) {
     super(source);
+    this.context = context;
     luminances = EMPTY;
     buckets = new int[LUMINANCE_BUCKETS];
   }
 
+  final DecodeContext getDecodeContext() {
+    return context;
+  }
+
   // Applies simple sharpening to the row data to improve performance of the 1D Readers.
   @Override
   public BitArray getBlackRow(int y, BitArray row) throws NotFoundException {
@@ -95,7 +111,7 @@ public class GlobalHistogramBinarizer extends Binarizer {
     LuminanceSource source = getLuminanceSource();
     int width = source.getWidth();
     int height = source.getHeight();
-    BitMatrix matrix = new BitMatrix(width, height);
+    BitMatrix matrix = context == null ? new BitMatrix(width, height) : context.getBlackMatrix(width, height);
 
     // Quickly calculates the histogram by sampling four rows from the image. This proved to be
     // more robust on the blackbox tests than sampling a diagonal as we used to do.
@@ -115,13 +131,20 @@ public class GlobalHistogramBinarizer extends Binarizer {
     // We delay reading the entire image luminance until the black point estimation succeeds.
     // Although we end up reading four rows twice, it is consistent with our motto of
     // "fail quickly" which is necessary for continuous scanning.
-    byte[] localLuminances = source.getMatrix();
+    LuminanceMatrix view = source.getMatrixView();
+    byte[] localLuminances = view.getData();
     for (int y = 0; y < height; y++) {
-      int offset = y * width;
-      for (int x = 0; x < width; x++) {
-        int pixel = localLuminances[offset + x] & 0xff;
-        if (pixel < blackPoint) {
-          matrix.set(x, y);
+      int offset = view.getOffset() + y * view.getRowStride();
+      for (int x32 = 0; x32 < width; x32 += 32) {
+        int end = Math.min(x32 + 32, width);
+        int bits = 0;
+        for (int x = x32; x < end; x++) {
+          // pixel - blackPoint is negative exactly when the pixel is black
+          int pixel = localLuminances[offset + x] & 0xff;
+          bits |= ((pixel - blackPoint) >>> 31) << (x - x32);
+        }
+        if (bits != 0) {
+          matrix.setBulk(x32, y, bits);
         }
       }
     }
@@ -136,7 +159,7 @@ public class GlobalHistogramBinarizer extends Binarizer {
 
   private void initArrays(int luminanceSize) {
     if (luminances.length < luminanceSize) {
-      luminances = new byte[luminanceSize];
+      luminances = context == null ? new byte[luminanceSize] : context.getLuminanceRow(luminanceSize);
     }
     for (int x = 0; x < LUMINANCE_BUCKETS; x++) {
       buckets[x] = 0;
@@ -101,6 +101,27 @@ public abstract class GridSampler {
                                        int dimensionY,
                                        PerspectiveTransform transform) throws NotFoundException;
 
+  /**
+   * Like {@link #sampleGrid(BitMatrix, int, int, PerspectiveTransform)}, but may use scratch space
+   * from a {@link DecodeContext}. The returned {@link BitMatrix} is always newly allocated, since
+   * callers may sample several grids before decoding any of them. By default the context is ignored.
+   *
+   * @param image image to sample
+   * @param dimensionX width of {@link BitMatrix} to sample from image
+   * @param dimensionY height of {@link BitMatrix} to sample from image
+   * @param transform transform from sampled grid coordinates to image coordinates
+   * @param context buffers to reuse, or null
+   * @return {@link BitMatrix} representing a grid of points sampled from the image
+   * @throws NotFoundException if image can't be sampled
+   */
+  public BitMatrix sampleGrid(BitMatrix image,
+                              int dimensionX,
+                              int dimensionY,
+                              PerspectiveTransform transform,
+                              DecodeContext context) throws NotFoundException {
+    return sampleGrid(image, dimensionX, dimensionY, transform);
+  }
+
   /**
    * <p>Checks a set of points that have been transformed to sample points on an image against
    * the image's dimensions to see if the point are even within the image.</p>
@@ -17,9 +17,13 @@
 package com.google.zxing.common;
 
 import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceMatrix;
 import com.google.zxing.LuminanceSource;
 import com.google.zxing.NotFoundException;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * This class implements a local thresholding algorithm, which while slower than the
  * GlobalHistogramBinarizer, is fairly efficient for what it does. It is designed for
@@ -35,6 +39,13 @@ import com.google.zxing.NotFoundException;
  *
  * This Binarizer is the default for the unit tests and the recommended class for library users.
  *
+ * Sources which prefer it, such as memory-mapped frames, are read a few rows at a time rather than
+ * copied as a whole, unless a pool is used.
+ *
+ * For very large images, a {@link ForkJoinPool} may be supplied. The black point and threshold
+ * passes are then split into horizontal bands of blocks and run on the pool, producing exactly the
+ * same {@link BitMatrix} as the single-threaded path.
+ *
  * @author dswitkin@google.com (Daniel Switkin)
  */
 public final class HybridBinarizer extends GlobalHistogramBinarizer {
@@ -46,11 +57,43 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
   private static final int BLOCK_SIZE_MASK = BLOCK_SIZE - 1;   // ...0011...11
   private static final int MINIMUM_DIMENSION = BLOCK_SIZE * 5;
   private static final int MIN_DYNAMIC_RANGE = 24;
+  // Bands of fewer block rows than this are not worth handing to another thread.
+  private static final int MIN_BAND_BLOCK_ROWS = 16;
 
+  private final ForkJoinPool pool;
   private BitMatrix matrix;
 
   public HybridBinarizer(LuminanceSource source) {
-    super(source);
+    this(source, null, null);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param pool pool on which to binarize bands of the image in parallel, or null to binarize
+   *  on the calling thread
+   */
+  public HybridBinarizer(LuminanceSource source, ForkJoinPool pool) {
+    this(source, pool, null);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param context buffers to reuse, or null to allocate new ones. Binarizers created by
+   *  {@link #createBinarizer(LuminanceSource)}, as for crops and rotations, do not use it.
+   */
+  public HybridBinarizer(LuminanceSource source, DecodeContext context) {
+    this(source, null, context);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param pool pool on which to binarize bands of the image in parallel, or null to binarize
+   *  on the calling thread
+   * @param context buffers to reuse, or null to allocate new ones
+   */
+  public HybridBinarizer(LuminanceSource source, ForkJoinPool pool, DecodeContext context) {
+    super(source, context);
+    this.pool = pool;
   }
 
   /**
@@ -67,7 +110,6 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
     int width = source.getWidth();
     int height = source.getHeight();
     if (width >= MINIMUM_DIMENSION && height >= MINIMUM_DIMENSION) {
-      byte[] luminances = source.getMatrix();
       int subWidth = width >> BLOCK_SIZE_POWER;
       if ((width & BLOCK_SIZE_MASK) != 0) {
         subWidth++;
@@ -76,10 +118,53 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
       if ((height & BLOCK_SIZE_MASK) != 0) {
         subHeight++;
       }
-      int[][] blackPoints = calculateBlackPoints(luminances, subWidth, subHeight, width, height);
-
-      BitMatrix newMatrix = new BitMatrix(width, height);
-      calculateThresholdForBlock(luminances, subWidth, subHeight, width, height, blackPoints, newMatrix);
+      DecodeContext context = getDecodeContext();
+      int[][] blackPoints;
+      BitMatrix newMatrix;
+      if (context == null) {
+        blackPoints = new int[subHeight][subWidth];
+        newMatrix = new BitMatrix(width, height);
+      } else {
+        blackPoints = context.getBlackPoints(subWidth, subHeight);
+        newMatrix = context.getBlackMatrix(width, height);
+      }
+      if (pool != null && subHeight >= 2 * MIN_BAND_BLOCK_ROWS) {
+        LuminanceMatrix view = source.getMatrixView();
+        byte[] luminances = view.getData();
+        int offset = view.getOffset();
+        int stride = view.getRowStride();
+        pool.invoke(new BlackPointsTask(luminances, offset, stride, subWidth, width, height, blackPoints,
+                                        0, subHeight));
+        resolveLowContrastBlocks(subWidth, subHeight, blackPoints);
+        pool.invoke(new ThresholdTask(luminances, offset, stride, subWidth, subHeight, width, height, blackPoints,
+                                      newMatrix, 0, subHeight));
+      } else if (source.isRowAccessPreferred()) {
+        // Rather than have the source copy the whole image, read one block row of pixels at a time.
+        // Offsets into the band are negative so that pixel (x,y) is still at offset + y * stride + x.
+        byte[] band = context == null ? new byte[BLOCK_SIZE * width] : context.getLuminanceBand(BLOCK_SIZE * width);
+        byte[] row = context == null ? null : context.getLuminanceRow(width);
+        for (int y = 0; y < subHeight; y++) {
+          int yoffset = readBlockRow(source, y, band, row);
+          calculateBlackPoints(band, -yoffset * width, width, subWidth, width, height, blackPoints, y, y + 1);
+        }
+        resolveLowContrastBlocks(subWidth, subHeight, blackPoints);
+        int[] thresholds = context == null ? new int[width] : context.getThresholds(width);
+        for (int y = 0; y < subHeight; y++) {
+          int yoffset = readBlockRow(source, y, band, row);
+          calculateThresholdForBlock(band, -yoffset * width, width, subWidth, subHeight, width, height, blackPoints,
+                                     thresholds, newMatrix, y, y + 1);
+        }
+      } else {
+        LuminanceMatrix view = source.getMatrixView();
+        byte[] luminances = view.getData();
+        int offset = view.getOffset();
+        int stride = view.getRowStride();
+        calculateBlackPoints(luminances, offset, stride, subWidth, width, height, blackPoints, 0, subHeight);
+        resolveLowContrastBlocks(subWidth, subHeight, blackPoints);
+        int[] thresholds = context == null ? new int[width] : context.getThresholds(width);
+        calculateThresholdForBlock(luminances, offset, stride, subWidth, subHeight, width, height, blackPoints,
+                                   thresholds, newMatrix, 0, subHeight);
+      }
       matrix = newMatrix;
     } else {
       // If the image is too small, fall back to the global histogram approach.
@@ -90,34 +175,39 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
 
   @Override
   public Binarizer createBinarizer(LuminanceSource source) {
-    return new HybridBinarizer(source);
+    return new HybridBinarizer(source, pool);
   }
 
   /**
    * For each block in the image, calculate the average black point using a 5x5 grid
    * of the blocks around it. Also handles the corner cases (fractional blocks are computed based
    * on the last pixels in the row/column which are also used in the previous block).
+   * Only block rows in [startY, endY) are thresholded. thresholds is scratch space of at least width.
+   * Pixel (x,y) is at luminances[offset + y * stride + x].
    */
   private static void calculateThresholdForBlock(byte[] luminances,
+                                                 int offset,
+                                                 int stride,
                                                  int subWidth,
                                                  int subHeight,
                                                  int width,
                                                  int height,
                                                  int[][] blackPoints,
-                                                 BitMatrix matrix) {
+                                                 int[] thresholds,
+                                                 BitMatrix matrix,
+                                                 int startY,
+                                                 int endY) {
     int maxYOffset = height - BLOCK_SIZE;
     int maxXOffset = width - BLOCK_SIZE;
-    for (int y = 0; y < subHeight; y++) {
+    for (int y = startY; y < endY; y++) {
       int yoffset = y << BLOCK_SIZE_POWER;
       if (yoffset > maxYOffset) {
         yoffset = maxYOffset;
       }
       int top = cap(y, 2, subHeight - 3);
       for (int x = 0; x < subWidth; x++) {
-        int xoffset = x << BLOCK_SIZE_POWER;
-        if (xoffset > maxXOffset) {
-          xoffset = maxXOffset;
-        }
+        int blockStart = x << BLOCK_SIZE_POWER;
+        int xoffset = blockStart > maxXOffset ? maxXOffset : blockStart;
         int left = cap(x, 2, subWidth - 3);
         int sum = 0;
         for (int z = -2; z <= 2; z++) {
@@ -125,9 +215,32 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
           sum += blackRow[left - 2] + blackRow[left - 1] + blackRow[left] + blackRow[left + 1] + blackRow[left + 2];
         }
         int average = sum / 25;
-        thresholdBlock(luminances, xoffset, yoffset, average, width, matrix);
+        for (int xx = xoffset; xx < xoffset + BLOCK_SIZE; xx++) {
+          // A pixel also covered by the previous block is black if it is black under either threshold
+          if (xx >= blockStart || average > thresholds[xx]) {
+            thresholds[xx] = average;
+          }
+        }
       }
+      thresholdRows(luminances, offset + yoffset * stride, stride, yoffset, thresholds, width, matrix);
+    }
+  }
+
+  /**
+   * Copies the BLOCK_SIZE rows of pixels behind block row y, which are shifted up for the last block
+   * row as in the passes above, into band, one after another.
+   *
+   * @param row buffer for {@link LuminanceSource#getRow(int, byte[])}, or null
+   * @return first row of pixels copied
+   */
+  private static int readBlockRow(LuminanceSource source, int y, byte[] band, byte[] row) {
+    int width = source.getWidth();
+    int yoffset = Math.min(y << BLOCK_SIZE_POWER, source.getHeight() - BLOCK_SIZE);
+    for (int yy = 0; yy < BLOCK_SIZE; yy++) {
+      row = source.getRow(yoffset + yy, row);
+      System.arraycopy(row, 0, band, yy * width, width);
     }
+    return yoffset;
   }
 
   private static int cap(int value, int min, int max) {
@@ -135,19 +248,27 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
   }
 
   /**
-   * Applies a single threshold to a block of pixels.
+   * Applies a per-column threshold to one block row of pixels, 32 pixels at a time. The block row
+   * starts at matrix row yoffset and at luminances[offset].
    */
-  private static void thresholdBlock(byte[] luminances,
-                                     int xoffset,
-                                     int yoffset,
-                                     int threshold,
-                                     int stride,
-                                     BitMatrix matrix) {
-    for (int y = 0, offset = yoffset * stride + xoffset; y < BLOCK_SIZE; y++, offset += stride) {
-      for (int x = 0; x < BLOCK_SIZE; x++) {
-        // Comparison needs to be <= so that black == 0 pixels are black even if the threshold is 0.
-        if ((luminances[offset + x] & 0xFF) <= threshold) {
-          matrix.set(xoffset + x, yoffset + y);
+  private static void thresholdRows(byte[] luminances,
+                                    int offset,
+                                    int stride,
+                                    int yoffset,
+                                    int[] thresholds,
+                                    int width,
+                                    BitMatrix matrix) {
+    for (int y = yoffset; y < yoffset + BLOCK_SIZE; y++, offset += stride) {
+      for (int x32 = 0; x32 < width; x32 += 32) {
+        int end = Math.min(x32 + 32, width);
+        int bits = 0;
+        for (int x = x32; x < end; x++) {
+          // Comparison needs to be <= so that black == 0 pixels are black even if the threshold is 0.
+          // threshold - pixel is negative exactly when the pixel is above the threshold.
+          bits |= (~(thresholds[x] - (luminances[offset + x] & 0xFF)) >>> 31) << (x - x32);
+        }
+        if (bits != 0) {
+          matrix.setBulk(x32, y, bits);
         }
       }
     }
@@ -157,16 +278,25 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
    * Calculates a single black point for each block of pixels and saves it away.
    * See the following thread for a discussion of this algorithm:
    *  http://groups.google.com/group/zxing/browse_thread/thread/d06efa2c35a7ddc0
+   *
+   * Only block rows in [startY, endY) are computed, and each block is computed independently of
+   * its neighbors so that bands can be processed in any order. Low contrast blocks are stored as
+   * the bitwise complement of their minimum, and must then be finished by
+   * {@link #resolveLowContrastBlocks(int, int, int[][])}. Pixel (x,y) is at
+   * luminances[offset + y * stride + x].
    */
-  private static int[][] calculateBlackPoints(byte[] luminances,
-                                              int subWidth,
-                                              int subHeight,
-                                              int width,
-                                              int height) {
+  private static void calculateBlackPoints(byte[] luminances,
+                                           int offset,
+                                           int stride,
+                                           int subWidth,
+                                           int width,
+                                           int height,
+                                           int[][] blackPoints,
+                                           int startY,
+                                           int endY) {
     int maxYOffset = height - BLOCK_SIZE;
     int maxXOffset = width - BLOCK_SIZE;
-    int[][] blackPoints = new int[subHeight][subWidth];
-    for (int y = 0; y < subHeight; y++) {
+    for (int y = startY; y < endY; y++) {
       int yoffset = y << BLOCK_SIZE_POWER;
       if (yoffset > maxYOffset) {
         yoffset = maxYOffset;
@@ -179,9 +309,10 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
         int sum = 0;
         int min = 0xFF;
         int max = 0;
-        for (int yy = 0, offset = yoffset * width + xoffset; yy < BLOCK_SIZE; yy++, offset += width) {
+        int blockOffset = offset + yoffset * stride + xoffset;
+        for (int yy = 0; yy < BLOCK_SIZE; yy++, blockOffset += stride) {
           for (int xx = 0; xx < BLOCK_SIZE; xx++) {
-            int pixel = luminances[offset + xx] & 0xFF;
+            int pixel = luminances[blockOffset + xx] & 0xFF;
             sum += pixel;
             // still looking for good contrast
             if (pixel < min) {
@@ -194,9 +325,9 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
           // short-circuit min/max tests once dynamic range is met
           if (max - min > MIN_DYNAMIC_RANGE) {
             // finish the rest of the rows quickly
-            for (yy++, offset += width; yy < BLOCK_SIZE; yy++, offset += width) {
+            for (yy++, blockOffset += stride; yy < BLOCK_SIZE; yy++, blockOffset += stride) {
               for (int xx = 0; xx < BLOCK_SIZE; xx++) {
-                sum += luminances[offset + xx] & 0xFF;
+                sum += luminances[blockOffset + xx] & 0xFF;
               }
             }
           }
@@ -205,33 +336,169 @@ public final class HybridBinarizer extends GlobalHistogramBinarizer {
         // The default estimate is the average of the values in the block.
         int average = sum >> (BLOCK_SIZE_POWER * 2);
         if (max - min <= MIN_DYNAMIC_RANGE) {
-          // If variation within the block is low, assume this is a block with only light or only
-          // dark pixels. In that case we do not want to use the average, as it would divide this
-          // low contrast area into black and white pixels, essentially creating data out of noise.
-          //
-          // The default assumption is that the block is light/background. Since no estimate for
-          // the level of dark pixels exists locally, use half the min for the block.
-          average = min / 2;
-
-          if (y > 0 && x > 0) {
-            // Correct the "white background" assumption for blocks that have neighbors by comparing
-            // the pixels in this block to the previously calculated black points. This is based on
-            // the fact that dark barcode symbology is always surrounded by some amount of light
-            // background for which reasonable black point estimates were made. The bp estimated at
-            // the boundaries is used for the interior.
-
-            // The (min < bp) is arbitrary but works better than other heuristics that were tried.
-            int averageNeighborBlackPoint =
-                (blackPoints[y - 1][x] + (2 * blackPoints[y][x - 1]) + blackPoints[y - 1][x - 1]) / 4;
-            if (min < averageNeighborBlackPoint) {
-              average = averageNeighborBlackPoint;
-            }
-          }
+          // Low contrast block; its black point depends on its neighbors. Mark it with the
+          // (always negative) complement of its min and finish it in a second, sequential pass.
+          average = ~min;
         }
         blackPoints[y][x] = average;
       }
     }
-    return blackPoints;
+  }
+
+  /**
+   * Finishes the black points of low contrast blocks left by
+   * {@link #calculateBlackPoints(byte[], int, int, int, int, int, int[][], int, int)}. This must visit
+   * blocks in order, since each one may take its value from those above and to the left of it.
+   */
+  private static void resolveLowContrastBlocks(int subWidth, int subHeight, int[][] blackPoints) {
+    for (int y = 0; y < subHeight; y++) {
+      int[] blackRow = blackPoints[y];
+      for (int x = 0; x < subWidth; x++) {
+        int value = blackRow[x];
+        if (value >= 0) {
+          continue;
+        }
+        int min = ~value;
+        // If variation within the block is low, assume this is a block with only light or only
+        // dark pixels. In that case we do not want to use the average, as it would divide this
+        // low contrast area into black and white pixels, essentially creating data out of noise.
+        //
+        // The default assumption is that the block is light/background. Since no estimate for
+        // the level of dark pixels exists locally, use half the min for the block.
+        int average = min / 2;
+
+        if (y > 0 && x > 0) {
+          // Correct the "white background" assumption for blocks that have neighbors by comparing
+          // the pixels in this block to the previously calculated black points. This is based on
+          // the fact that dark barcode symbology is always surrounded by some amount of light
+          // background for which reasonable black point estimates were made. The bp estimated at
+          // the boundaries is used for the interior.
+
+          // The (min < bp) is arbitrary but works better than other heuristics that were tried.
+          int averageNeighborBlackPoint =
+              (blackPoints[y - 1][x] + (2 * blackRow[x - 1]) + blackPoints[y - 1][x - 1]) / 4;
+          if (min < averageNeighborBlackPoint) {
+            average = averageNeighborBlackPoint;
+          }
+        }
+        blackRow[x] = average;
+      }
+    }
+  }
+
+  /**
+   * Splits a range of block rows in half until it is small enough to process directly.
+   */
+  private abstract static class BandTask extends RecursiveAction {
+
+    final int startY;
+    final int endY;
+
+    BandTask(int startY, int endY) {
+      this.startY = startY;
+      this.endY = endY;
+    }
+
+    @Override
+    protected final void compute() {
+      if (endY - startY < 2 * MIN_BAND_BLOCK_ROWS) {
+        computeBand();
+        return;
+      }
+      int middle = splitPoint();
+      invokeAll(subtask(startY, middle), subtask(middle, endY));
+    }
+
+    int splitPoint() {
+      return (startY + endY) >>> 1;
+    }
+
+    abstract BandTask subtask(int startY, int endY);
+
+    abstract void computeBand();
+
+  }
+
+  private static final class BlackPointsTask extends BandTask {
+
+    private final byte[] luminances;
+    private final int offset;
+    private final int stride;
+    private final int subWidth;
+    private final int width;
+    private final int height;
+    private final int[][] blackPoints;
+
+    BlackPointsTask(byte[] luminances, int offset, int stride, int subWidth, int width, int height,
+                    int[][] blackPoints, int startY, int endY) {
+      super(startY, endY);
+      this.luminances = luminances;
+      this.offset = offset;
+      this.stride = stride;
+      this.subWidth = subWidth;
+      this.width = width;
+      this.height = height;
+      this.blackPoints = blackPoints;
+    }
+
+    @Override
+    BandTask subtask(int startY, int endY) {
+      return new BlackPointsTask(luminances, offset, stride, subWidth, width, height, blackPoints, startY, endY);
+    }
+
+    @Override
+    void computeBand() {
+      calculateBlackPoints(luminances, offset, stride, subWidth, width, height, blackPoints, startY, endY);
+    }
+
+  }
+
+  private static final class ThresholdTask extends BandTask {
+
+    private final byte[] luminances;
+    private final int offset;
+    private final int stride;
+    private final int subWidth;
+    private final int subHeight;
+    private final int width;
+    private final int height;
+    private final int[][] blackPoints;
+    private final BitMatrix matrix;
+
+    ThresholdTask(byte[] luminances, int offset, int stride, int subWidth, int subHeight, int width, int height,
+                  int[][] blackPoints, BitMatrix matrix, int startY, int endY) {
+      super(startY, endY);
+      this.luminances = luminances;
+      this.offset = offset;
+      this.stride = stride;
+      this.subWidth = subWidth;
+      this.subHeight = subHeight;
+      this.width = width;
+      this.height = height;
+      this.blackPoints = blackPoints;
+      this.matrix = matrix;
+    }
+
+    @Override
+    int splitPoint() {
+      // The last block row is shifted up to end at the bottom of the image, so it can share pixel
+      // rows (and therefore BitMatrix words) with the row before it. Keep the two in one band.
+      int middle = super.splitPoint();
+      return middle == subHeight - 1 ? middle - 1 : middle;
+    }
+
+    @Override
+    BandTask subtask(int startY, int endY) {
+      return new ThresholdTask(luminances, offset, stride, subWidth, subHeight, width, height, blackPoints,
+                               matrix, startY, endY);
+    }
+
+    @Override
+    void computeBand() {
+      calculateThresholdForBlock(luminances, offset, stride, subWidth, subHeight, width, height, blackPoints,
+                                 new int[width], matrix, startY, endY);
+    }
+
   }
 
 }
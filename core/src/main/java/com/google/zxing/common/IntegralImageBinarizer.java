@@ -0,0 +1,212 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.LuminanceMatrix;
+import com.google.zxing.LuminanceSource;
+
+/**
+ * This Binarizer implements Bradley's adaptive thresholding: a pixel is black when it is some
+ * percentage darker than the mean of the square window centered on it. Window means come from a
+ * summed-area table (integral image), so the cost is linear in the number of pixels whatever the
+ * window size, and the window can be tuned to the module size of the barcodes expected without
+ * losing throughput. Near the edges of the image, windows are clipped to the image.
+ *
+ * Unlike {@link HybridBinarizer}, rows from {@link #getBlackRow(int, BitArray)} are exactly the
+ * rows of {@link #getBlackMatrix()}, but are computed without building the matrix. Both build the
+ * summed-area table once and keep it, which costs four bytes per pixel.
+ */
+public final class IntegralImageBinarizer extends Binarizer {
+
+  private static final int MIN_WINDOW_SIZE = 15;
+  // Largest window whose sum of luminances, at most 255 per pixel, fits in an int
+  private static final int MAX_WINDOW_SIZE = 2901;
+  private static final int DEFAULT_PERCENT = 15;
+
+  private final int windowSize;
+  private final int percent;
+  private int[] integral;
+  private BitMatrix matrix;
+
+  /**
+   * Uses a window an eighth of the smaller dimension of the image, and a threshold 15% below the
+   * window mean.
+   */
+  public IntegralImageBinarizer(LuminanceSource source) {
+    this(source, 0, DEFAULT_PERCENT);
+  }
+
+  /**
+   * @param source luminance data to binarize
+   * @param windowSize width and height in pixels of the window around each pixel, which should
+   *  span a few modules of the barcodes expected. Even sizes are rounded up to the next odd one,
+   *  and sizes over 2901 are reduced to 2901. If 0, an eighth of the smaller dimension of the image
+   *  is used.
+   * @param percent how much darker than the window mean, in percent, a pixel must be to be black
+   */
+  public IntegralImageBinarizer(LuminanceSource source, int windowSize, int percent) {
+    super(source);
+    if (windowSize < 0 || percent < 0 || percent >= 100) {
+      throw new IllegalArgumentException("Window size must be non-negative and percent in [0,100)");
+    }
+    this.windowSize = windowSize;
+    this.percent = percent;
+  }
+
+  @Override
+  public BitArray getBlackRow(int y, BitArray row) {
+    int width = getWidth();
+    if (row == null || row.getSize() < width) {
+      row = new BitArray(width);
+    } else {
+      row.clear();
+    }
+    if (matrix != null) {
+      return matrix.getRow(y, row);
+    }
+    LuminanceMatrix view = getLuminanceSource().getMatrixView();
+    int[] flags = new int[width];
+    thresholdRow(view, getIntegral(view), y, flags);
+    int[] bits = row.getBitArray();
+    for (int x32 = 0; x32 < width; x32 += 32) {
+      bits[x32 >> 5] = pack(flags, x32, Math.min(x32 + 32, width));
+    }
+    return row;
+  }
+
+  @Override
+  public BitMatrix getBlackMatrix() {
+    if (matrix != null) {
+      return matrix;
+    }
+    LuminanceMatrix view = getLuminanceSource().getMatrixView();
+    int[] table = getIntegral(view);
+    int width = getWidth();
+    int height = getHeight();
+    BitMatrix newMatrix = new BitMatrix(width, height);
+    int[] flags = new int[width];
+    for (int y = 0; y < height; y++) {
+      thresholdRow(view, table, y, flags);
+      for (int x32 = 0; x32 < width; x32 += 32) {
+        int bits = pack(flags, x32, Math.min(x32 + 32, width));
+        if (bits != 0) {
+          newMatrix.setBulk(x32, y, bits);
+        }
+      }
+    }
+    matrix = newMatrix;
+    return matrix;
+  }
+
+  @Override
+  public Binarizer createBinarizer(LuminanceSource source) {
+    return new IntegralImageBinarizer(source, windowSize, percent);
+  }
+
+  private int getRadius() {
+    int size = windowSize;
+    if (size == 0) {
+      size = Math.max(MIN_WINDOW_SIZE, Math.min(getWidth(), getHeight()) / 8);
+    }
+    return Math.min(size, MAX_WINDOW_SIZE) / 2;
+  }
+
+  /**
+   * Builds the summed-area table, whose entry at (x+1, y+1) in rows of width+1 entries is the
+   * sum of all luminances above and to the left of (x, y), inclusive. Sums over large images
+   * overflow, but wrap around. Differences of entries are still exact for any sum which fits in an
+   * int, which is why the window size is limited to {@link #MAX_WINDOW_SIZE}.
+   */
+  private int[] getIntegral(LuminanceMatrix view) {
+    if (integral != null) {
+      return integral;
+    }
+    int width = getWidth();
+    int height = getHeight();
+    int tableWidth = width + 1;
+    byte[] luminances = view.getData();
+    int[] table = new int[tableWidth * (height + 1)];
+    for (int y = 0; y < height; y++) {
+      int offset = view.getOffset() + y * view.getRowStride();
+      int above = y * tableWidth + 1;
+      int here = above + tableWidth;
+      int rowSum = 0;
+      for (int x = 0; x < width; x++) {
+        rowSum += luminances[offset + x] & 0xff;
+        table[here + x] = table[above + x] + rowSum;
+      }
+    }
+    integral = table;
+    return table;
+  }
+
+  /**
+   * Sets flags[x] to 1 where pixel (x, y) is black and 0 where it is white. Pixels whose window
+   * lies within the image horizontally are handled in a loop of fixed offsets, without branches.
+   */
+  private void thresholdRow(LuminanceMatrix view, int[] table, int y, int[] flags) {
+    int width = getWidth();
+    int height = getHeight();
+    int radius = getRadius();
+    int tableWidth = width + 1;
+    byte[] luminances = view.getData();
+    int offset = view.getOffset() + y * view.getRowStride();
+    int top = Math.max(0, y - radius) * tableWidth;
+    int bottom = Math.min(height, y + radius + 1) * tableWidth;
+    int rows = (bottom - top) / tableWidth;
+    long factor = 100 - percent;
+
+    int interiorStart = Math.min(radius, width);
+    int interiorEnd = Math.max(interiorStart, width - radius);
+    for (int x = 0; x < interiorStart; x++) {
+      flags[x] = thresholdClipped(luminances[offset + x] & 0xff, table, top, bottom, rows, x, radius, width);
+    }
+    // Here every window spans all 2 * radius + 1 columns from x - radius
+    long scale = 100L * rows * (2 * radius + 1);
+    int left = top - radius;
+    int right = top + radius + 1;
+    int bottomLeft = bottom - radius;
+    int bottomRight = bottom + radius + 1;
+    for (int x = interiorStart; x < interiorEnd; x++) {
+      // Exact despite wrapping in the table, as the window is at most MAX_WINDOW_SIZE square
+      int sum = table[bottomRight + x] - table[bottomLeft + x] - table[right + x] + table[left + x];
+      // The difference is negative, and its sign bit set, exactly when the pixel is black
+      flags[x] = (int) (((luminances[offset + x] & 0xff) * scale - sum * factor) >>> 63);
+    }
+    for (int x = interiorEnd; x < width; x++) {
+      flags[x] = thresholdClipped(luminances[offset + x] & 0xff, table, top, bottom, rows, x, radius, width);
+    }
+  }
+
+  private int thresholdClipped(int pixel, int[] table, int top, int bottom, int rows, int x, int radius, int width) {
+    int left = Math.max(0, x - radius);
+    int right = Math.min(width, x + radius + 1);
+    int sum = table[bottom + right] - table[bottom + left] - table[top + right] + table[top + left];
+    long scale = 100L * rows * (right - left);
+    return (int) ((pixel * scale - sum * (long) (100 - percent)) >>> 63);
+  }
+
+  private static int pack(int[] flags, int from, int to) {
+    int bits = 0;
+    for (int x = from; x < to; x++) {
+      bits |= flags[x] << (x - from);
+    }
+    return bits;
+  }
+
+}
@@ -34,6 +34,11 @@ package com.google.zxing.common.reedsolomon;
  * <p>Much credit is due to William Rucklidge since portions of this code are an indirect
  * port of his C++ Reed-Solomon implementation.</p>
  *
+ * <p>Polynomials are worked on as plain {@code int[]} coefficient arrays, lowest degree first,
+ * held in scratch buffers which are grown as needed and then reused by later calls. Decoding
+ * therefore allocates nothing once the buffers are large enough, but an instance must not be
+ * used by more than one thread at a time.</p>
+ *
  * @author Sean Owen
  * @author William Rucklidge
  * @author sanfordsquires
@@ -41,6 +46,14 @@ package com.google.zxing.common.reedsolomon;
 public final class ReedSolomonDecoder {
 
   private final GenericGF field;
+  // Polynomials below are coefficient arrays, lowest degree first
+  private int[] syndrome;
+  private int[] rLast;
+  private int[] r;
+  private int[] tLast;
+  private int[] t;
+  private int[] quotient;
+  private int[] errorLocations;
 
   public ReedSolomonDecoder(GenericGF field) {
     this.field = field;
@@ -56,135 +69,250 @@ public final class ReedSolomonDecoder {
    * @throws ReedSolomonException if decoding fails for any reason
    */
   public void decode(int[] received, int twoS) throws ReedSolomonException {
-    GenericGFPoly poly = new GenericGFPoly(field, received);
-    int[] syndromeCoefficients = new int[twoS];
-    boolean noError = true;
-    for (int i = 0; i < twoS; i++) {
-      int eval = poly.evaluateAt(field.exp(i + field.getGeneratorBase()));
-      syndromeCoefficients[syndromeCoefficients.length - 1 - i] = eval;
-      if (eval != 0) {
-        noError = false;
-      }
-    }
-    if (noError) {
+    ensureCapacity(twoS);
+    if (!calculateSyndromes(received, twoS)) {
       return;
     }
-    GenericGFPoly syndrome = new GenericGFPoly(field, syndromeCoefficients);
-    GenericGFPoly[] sigmaOmega =
-        runEuclideanAlgorithm(field.buildMonomial(twoS, 1), syndrome, twoS);
-    GenericGFPoly sigma = sigmaOmega[0];
-    GenericGFPoly omega = sigmaOmega[1];
-    int[] errorLocations = findErrorLocations(sigma);
-    int[] errorMagnitudes = findErrorMagnitudes(omega, errorLocations);
-    for (int i = 0; i < errorLocations.length; i++) {
-      int position = received.length - 1 - field.log(errorLocations[i]);
-      if (position < 0) {
-        throw new ReedSolomonException("Bad error location");
-      }
-      received[position] = GenericGF.addOrSubtract(received[position], errorMagnitudes[i]);
+    runEuclideanAlgorithm(twoS);
+    // Now t holds sigma and r holds omega
+    int numErrors = degree(t, twoS);
+    findErrorLocations(received.length, numErrors);
+    correctErrors(received, numErrors, degree(r, twoS));
+  }
+
+  private void ensureCapacity(int twoS) {
+    if (syndrome == null || syndrome.length <= twoS) {
+      syndrome = new int[twoS + 1];
+      rLast = new int[twoS + 1];
+      r = new int[twoS + 1];
+      tLast = new int[twoS + 1];
+      t = new int[twoS + 1];
+      quotient = new int[twoS + 1];
+      errorLocations = new int[twoS + 1];
     }
   }
 
-  private GenericGFPoly[] runEuclideanAlgorithm(GenericGFPoly a, GenericGFPoly b, int R)
-      throws ReedSolomonException {
-    // Assume a's degree is >= b's
-    if (a.getDegree() < b.getDegree()) {
-      GenericGFPoly temp = a;
-      a = b;
-      b = temp;
+  /**
+   * Evaluates the received polynomial at each root of the generator, by Horner's rule in
+   * the log domain, into {@link #syndrome}.
+   *
+   * @return true if any syndrome is nonzero, that is, if there are errors to correct
+   */
+  private boolean calculateSyndromes(int[] received, int twoS) {
+    int order = field.getSize() - 1;
+    boolean hasError = false;
+    for (int i = 0; i < twoS; i++) {
+      int logRoot = (i + field.getGeneratorBase()) % order;
+      int eval = 0;
+      for (int coefficient : received) {
+        if (eval != 0) {
+          int logProduct = field.log(eval) + logRoot;
+          if (logProduct >= order) {
+            logProduct -= order;
+          }
+          eval = field.exp(logProduct) ^ coefficient;
+        } else {
+          eval = coefficient;
+        }
+      }
+      syndrome[i] = eval;
+      if (eval != 0) {
+        hasError = true;
+      }
     }
+    return hasError;
+  }
 
-    GenericGFPoly rLast = a;
-    GenericGFPoly r = b;
-    GenericGFPoly tLast = field.getZero();
-    GenericGFPoly t = field.getOne();
+  /**
+   * Runs the Euclidean algorithm on x^twoS and the syndrome polynomial. Each new remainder and
+   * t are computed in place over the buffers of the ones two steps back, so nothing is allocated. Leaves sigma in {@link #t} and omega in {@link #r},
+   * both scaled so that sigma(0) = 1.
+   */
+  private void runEuclideanAlgorithm(int twoS) throws ReedSolomonException {
+    clear(rLast, twoS);
+    rLast[twoS] = 1;
+    System.arraycopy(syndrome, 0, r, 0, twoS);
+    r[twoS] = 0;
+    clear(tLast, twoS);
+    clear(t, twoS);
+    t[0] = 1;
+    int rLastDegree = twoS;
+    int rDegree = degree(r, twoS - 1);
+    int tLastDegree = 0;
+    int tDegree = 0;
 
     // Run Euclidean algorithm until r's degree is less than R/2
-    while (r.getDegree() >= R / 2) {
-      GenericGFPoly rLastLast = rLast;
-      GenericGFPoly tLastLast = tLast;
+    while (rDegree >= twoS / 2) {
+      int[] rLastLast = rLast;
+      int[] tLastLast = tLast;
+      int rLastLastDegree = rLastDegree;
+      int tLastLastDegree = tLastDegree;
       rLast = r;
+      rLastDegree = rDegree;
       tLast = t;
+      tLastDegree = tDegree;
 
       // Divide rLastLast by rLast, with quotient in q and remainder in r
-      if (rLast.isZero()) {
+      if (isZero(rLast, rLastDegree)) {
         // Oops, Euclidean algorithm already terminated?
         throw new ReedSolomonException("r_{i-1} was zero");
       }
       r = rLastLast;
-      GenericGFPoly q = field.getZero();
-      int denominatorLeadingTerm = rLast.getCoefficient(rLast.getDegree());
-      int dltInverse = field.inverse(denominatorLeadingTerm);
-      while (r.getDegree() >= rLast.getDegree() && !r.isZero()) {
-        int degreeDiff = r.getDegree() - rLast.getDegree();
-        int scale = field.multiply(r.getCoefficient(r.getDegree()), dltInverse);
-        q = q.addOrSubtract(field.buildMonomial(degreeDiff, scale));
-        r = r.addOrSubtract(rLast.multiplyByMonomial(degreeDiff, scale));
+      rDegree = rLastLastDegree;
+      int[] q = quotient;
+      clear(q, twoS);
+      int qDegree = 0;
+      int dltInverse = field.inverse(rLast[rLastDegree]);
+      while (rDegree >= rLastDegree && !isZero(r, rDegree)) {
+        int degreeDiff = rDegree - rLastDegree;
+        int scale = field.multiply(r[rDegree], dltInverse);
+        q[degreeDiff] ^= scale;
+        qDegree = Math.max(qDegree, degreeDiff);
+        for (int i = 0; i <= rLastDegree; i++) {
+          r[i + degreeDiff] ^= field.multiply(rLast[i], scale);
+        }
+        rDegree = degree(r, rDegree);
       }
 
-      t = q.multiply(tLast).addOrSubtract(tLastLast);
+      // t = q * tLast + tLastLast, accumulated in place over tLastLast
+      int newTDegree = Math.max(tLastLastDegree, qDegree + tLastDegree);
+      for (int i = tLastLastDegree + 1; i <= newTDegree; i++) {
+        tLastLast[i] = 0;
+      }
+      for (int i = 0; i <= qDegree; i++) {
+        int qi = q[i];
+        if (qi != 0) {
+          for (int j = 0; j <= tLastDegree; j++) {
+            tLastLast[i + j] ^= field.multiply(qi, tLast[j]);
+          }
+        }
+      }
+      t = tLastLast;
+      tDegree = degree(t, newTDegree);
 
-      if (r.getDegree() >= rLast.getDegree()) {
-        throw new IllegalStateException("Division algorithm failed to reduce polynomial?");
+      if (rDegree >= rLastDegree) {
+        throw new ReedSolomonException("Division algorithm failed to reduce polynomial");
       }
     }
-
-    int sigmaTildeAtZero = t.getCoefficient(0);
+    int sigmaTildeAtZero = t[0];
     if (sigmaTildeAtZero == 0) {
       throw new ReedSolomonException("sigmaTilde(0) was zero");
     }
 
     int inverse = field.inverse(sigmaTildeAtZero);
-    GenericGFPoly sigma = t.multiply(inverse);
-    GenericGFPoly omega = r.multiply(inverse);
-    return new GenericGFPoly[]{sigma, omega};
+    for (int i = 0; i <= tDegree; i++) {
+      t[i] = field.multiply(t[i], inverse);
+    }
+    for (int i = 0; i <= rDegree; i++) {
+      r[i] = field.multiply(r[i], inverse);
+    }
   }
 
-  private int[] findErrorLocations(GenericGFPoly errorLocator) throws ReedSolomonException {
-    // This is a direct application of Chien's search
-    int numErrors = errorLocator.getDegree();
+  /**
+   * Chien's search, restricted to the positions that exist in the received word. Leaves the
+   * log of each error location in {@link #errorLocations}.
+   */
+  private void findErrorLocations(int length, int numErrors) throws ReedSolomonException {
+    int[] sigma = t;
     if (numErrors == 1) { // shortcut
-      return new int[] { errorLocator.getCoefficient(1) };
+      int location = field.log(sigma[1]);
+      if (location >= length) {
+        throw new ReedSolomonException("Bad error location");
+      }
+      errorLocations[0] = location;
+      return;
+    }
+    int order = field.getSize() - 1;
+    // For candidate location X, terms[j] holds log(sigma_j * X^-j), or -1 if sigma_j is 0
+    int[] terms = quotient;
+    for (int j = 1; j <= numErrors; j++) {
+      terms[j] = sigma[j] == 0 ? -1 : field.log(sigma[j]);
     }
-    int[] result = new int[numErrors];
     int e = 0;
-    for (int i = 1; i < field.getSize() && e < numErrors; i++) {
-      if (errorLocator.evaluateAt(i) == 0) {
-        result[e] = field.inverse(i);
+    int maxLocation = Math.min(length, order);
+    for (int location = 0; location < maxLocation && e < numErrors; location++) {
+      int value = sigma[0];
+      for (int j = 1; j <= numErrors; j++) {
+        int term = terms[j];
+        if (term >= 0) {
+          value ^= field.exp(term);
+          term -= j % order;
+          if (term < 0) {
+            term += order;
+          }
+          terms[j] = term;
+        }
+      }
+      if (value == 0) {
+        errorLocations[e] = location;
         e++;
       }
     }
     if (e != numErrors) {
+      // Either sigma has roots outside the received word, or too few roots
       throw new ReedSolomonException("Error locator degree does not match number of roots");
     }
-    return result;
   }
 
-  private int[] findErrorMagnitudes(GenericGFPoly errorEvaluator, int[] errorLocations) {
-    // This is directly applying Forney's Formula
-    int s = errorLocations.length;
-    int[] result = new int[s];
-    for (int i = 0; i < s; i++) {
-      int xiInverse = field.inverse(errorLocations[i]);
+  /**
+   * Applies Forney's Formula at each error location, and corrects the received word.
+   */
+  private void correctErrors(int[] received, int numErrors, int omegaDegree) {
+    int[] omega = r;
+    int order = field.getSize() - 1;
+    for (int i = 0; i < numErrors; i++) {
+      int location = errorLocations[i];
+      int logXiInverse = location == 0 ? 0 : order - location;
       int denominator = 1;
-      for (int j = 0; j < s; j++) {
+      for (int j = 0; j < numErrors; j++) {
         if (i != j) {
-          //denominator = field.multiply(denominator,
-          //    GenericGF.addOrSubtract(1, field.multiply(errorLocations[j], xiInverse)));
-          // Above should work but fails on some Apple and Linux JDKs due to a Hotspot bug.
-          // Below is a funny-looking workaround from Steven Parkes
-          int term = field.multiply(errorLocations[j], xiInverse);
-          int termPlus1 = (term & 0x1) == 0 ? term | 1 : term & ~1;
-          denominator = field.multiply(denominator, termPlus1);
+          int logTerm = errorLocations[j] + logXiInverse;
+          if (logTerm >= order) {
+            logTerm -= order;
+          }
+          denominator = field.multiply(denominator, GenericGF.addOrSubtract(1, field.exp(logTerm)));
         }
       }
-      result[i] = field.multiply(errorEvaluator.evaluateAt(xiInverse),
-          field.inverse(denominator));
+      int numerator = 0;
+      for (int k = omegaDegree; k >= 0; k--) {
+        if (numerator != 0) {
+          int logProduct = field.log(numerator) + logXiInverse;
+          if (logProduct >= order) {
+            logProduct -= order;
+          }
+          numerator = field.exp(logProduct);
+        }
+        numerator ^= omega[k];
+      }
+      int magnitude = field.multiply(numerator, field.inverse(denominator));
       if (field.getGeneratorBase() != 0) {
-        result[i] = field.multiply(result[i], xiInverse);
+        magnitude = field.multiply(magnitude, field.exp(logXiInverse));
       }
+      int position = received.length - 1 - location;
+      received[position] = GenericGF.addOrSubtract(received[position], magnitude);
+    }
+  }
+
+  /**
+   * @return degree of the polynomial, whose coefficients above maxDegree are known to be 0;
+   *  the zero polynomial is taken to have degree 0, as in {@link GenericGFPoly}
+   */
+  private static int degree(int[] coefficients, int maxDegree) {
+    int degree = maxDegree;
+    while (degree > 0 && coefficients[degree] == 0) {
+      degree--;
+    }
+    return degree;
+  }
+
+  private static boolean isZero(int[] coefficients, int degree) {
+    return degree == 0 && coefficients[0] == 0;
+  }
+
+  private static void clear(int[] coefficients, int maxDegree) {
+    for (int i = 0; i <= maxDegree; i++) {
+      coefficients[i] = 0;
     }
-    return result;
   }
 
 }
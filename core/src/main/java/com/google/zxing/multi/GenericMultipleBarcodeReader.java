@@ -23,6 +23,7 @@ import com.google.zxing.Reader;
 import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
+import com.google.zxing.common.Deadline;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -75,7 +76,8 @@ public final class GenericMultipleBarcodeReader implements MultipleBarcodeReader
                                 int xOffset,
                                 int yOffset,
                                 int currentDepth) {
-    if (currentDepth > MAX_DEPTH) {
+    // Once out of time, keep those found so far
+    if (currentDepth > MAX_DEPTH || Deadline.isExpired(hints)) {
       return;
     }
 
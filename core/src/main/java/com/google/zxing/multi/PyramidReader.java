@@ -0,0 +1,149 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.multi;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.DownscaledLuminanceSource;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.Deadline;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.util.Map;
+
+/**
+ * <p>Decodes large images by first decoding shrunken copies of them, halving the shrinking at
+ * each step until something is found. Most barcodes in photos from high resolution cameras have
+ * modules several pixels wide and decode at a half or a quarter of the resolution, for a fraction
+ * of the work. Barcodes with finer modules still decode at the original resolution, after the
+ * cheaper attempts fail.</p>
+ *
+ * <p>Levels are shrunk by powers of two using {@link DownscaledLuminanceSource}, starting from
+ * the smallest which keeps at least {@link #DEFAULT_MIN_LEVEL_PIXELS} pixels. Result points are
+ * mapped back to the coordinates of the original source.</p>
+ */
+public final class PyramidReader {
+
+  /** Levels are not shrunk below about 640x480. */
+  public static final int DEFAULT_MIN_LEVEL_PIXELS = 640 * 480;
+
+  private final Reader delegate;
+  private final int minLevelPixels;
+  private final boolean fullResolution;
+
+  public PyramidReader(Reader delegate) {
+    this(delegate, DEFAULT_MIN_LEVEL_PIXELS, true);
+  }
+
+  /**
+   * @param delegate reader to decode each level with
+   * @param minLevelPixels fewest pixels a shrunken level may have
+   * @param fullResolution whether to decode the original source when all shrunken levels fail.
+   *  Callers with their own strategy for full resolution images can try this first without it.
+   */
+  public PyramidReader(Reader delegate, int minLevelPixels, boolean fullResolution) {
+    this.delegate = delegate;
+    this.minLevelPixels = minLevelPixels;
+    this.fullResolution = fullResolution;
+  }
+
+  /**
+   * @param source image to decode
+   * @param hints passed to the delegate
+   * @return the barcode found at the coarsest level which holds one, with result points relative
+   *  to {@code source}
+   * @throws NotFoundException if no level holds a barcode
+   */
+  public Result decode(LuminanceSource source, Map<DecodeHintType,?> hints) throws NotFoundException {
+    for (int factor = getCoarsestFactor(source); factor >= getFinestFactor(); factor /= 2) {
+      if (Deadline.isExpired(hints)) {
+        break;
+      }
+      try {
+        return scale(delegate.decode(getLevel(source, factor), hints), factor);
+      } catch (ReaderException re) {
+        // try a finer level
+      }
+    }
+    throw NotFoundException.getNotFoundInstance();
+  }
+
+  /**
+   * @param source image to decode
+   * @param hints passed to the delegate
+   * @return barcodes found by {@link GenericMultipleBarcodeReader} at the coarsest level which
+   *  holds any, with result points relative to {@code source}. Finer levels are not searched for
+   *  more, so small barcodes next to large ones may be missed.
+   * @throws NotFoundException if no level holds a barcode
+   */
+  public Result[] decodeMultiple(LuminanceSource source, Map<DecodeHintType,?> hints) throws NotFoundException {
+    MultipleBarcodeReader multiReader = new GenericMultipleBarcodeReader(delegate);
+    for (int factor = getCoarsestFactor(source); factor >= getFinestFactor(); factor /= 2) {
+      if (Deadline.isExpired(hints)) {
+        break;
+      }
+      Result[] results;
+      try {
+        results = multiReader.decodeMultiple(getLevel(source, factor), hints);
+      } catch (NotFoundException nfe) {
+        continue;
+      }
+      for (Result result : results) {
+        scale(result, factor);
+      }
+      return results;
+    }
+    throw NotFoundException.getNotFoundInstance();
+  }
+
+  private int getCoarsestFactor(LuminanceSource source) {
+    long pixels = (long) source.getWidth() * source.getHeight();
+    int factor = 1;
+    while (pixels / (4L * factor * factor) >= minLevelPixels) {
+      factor *= 2;
+    }
+    return factor;
+  }
+
+  private int getFinestFactor() {
+    return fullResolution ? 1 : 2;
+  }
+
+  private static BinaryBitmap getLevel(LuminanceSource source, int factor) {
+    LuminanceSource level = factor == 1 ? source : new DownscaledLuminanceSource(source, factor);
+    return new BinaryBitmap(new HybridBinarizer(level));
+  }
+
+  private static Result scale(Result result, int factor) {
+    ResultPoint[] points = result.getResultPoints();
+    if (factor > 1 && points != null) {
+      for (int i = 0; i < points.length; i++) {
+        ResultPoint point = points[i];
+        if (point != null) {
+          points[i] = new ResultPoint(point.getX() * factor, point.getY() * factor);
+        }
+      }
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.multi;
+
+import com.google.zxing.LuminanceSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * <p>Quickly finds regions of an image which might hold a barcode, so that readers need only look
+ * there rather than at the whole image. This is most useful on large photos where barcodes take
+ * up a small part of the frame.</p>
+ *
+ * <p>The image is divided into a coarse grid of cells, of which there are at most
+ * {@value #MAX_GRID_DIMENSION} across or down. Only two rows of pixels in each cell are read.
+ * A cell counts as busy when its pixels change a lot from one to the next, as they do across the
+ * bars and modules of a barcode. Busy cells are then grown into their neighbors, to join up the
+ * parts of a barcode, and each connected group of them becomes a candidate region. Regions which
+ * come close to each other are merged, and each gets a margin to include the quiet zone.</p>
+ *
+ * @see RegionOfInterestReader
+ */
+public final class RegionFinder {
+
+  private static final int MAX_GRID_DIMENSION = 256;
+  // Mean change in luminance from one pixel to the next, at and above which a cell is busy
+  private static final int BUSY_ACTIVITY = 12;
+  // Groups with fewer busy cells than this are treated as noise
+  private static final int MIN_BUSY_CELLS = 6;
+  // Cells added around each region, and so also the gap up to which regions are merged
+  private static final int MARGIN_CELLS = 3;
+
+  private RegionFinder() {
+  }
+
+  /**
+   * @param source image to search
+   * @return candidate regions as {left, top, width, height} in pixels of {@code source}, most
+   *  likely first. Regions do not overlap. The list is empty if nothing looks like a barcode.
+   */
+  public static List<int[]> findRegions(LuminanceSource source) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int scale = Math.max(1, (Math.max(width, height) + MAX_GRID_DIMENSION - 1) / MAX_GRID_DIMENSION);
+    int gridWidth = width / scale;
+    int gridHeight = height / scale;
+    if (gridWidth == 0 || gridHeight == 0) {
+      return Collections.emptyList();
+    }
+
+    boolean[] busy = findBusyCells(source, scale, gridWidth, gridHeight);
+    boolean[] grown = dilate(busy, gridWidth, gridHeight);
+
+    // Each connected group of grown cells, counting only its busy cells, gives a region
+    List<Region> regions = new ArrayList<>();
+    int[] stack = new int[gridWidth * gridHeight];
+    for (int start = 0; start < grown.length; start++) {
+      if (!grown[start]) {
+        continue;
+      }
+      Region region = new Region(start % gridWidth, start / gridWidth);
+      grown[start] = false;
+      int size = 0;
+      stack[size++] = start;
+      while (size > 0) {
+        int cell = stack[--size];
+        int x = cell % gridWidth;
+        int y = cell / gridWidth;
+        region.add(x, y, busy[cell]);
+        for (int ny = Math.max(0, y - 1); ny <= Math.min(gridHeight - 1, y + 1); ny++) {
+          for (int nx = Math.max(0, x - 1); nx <= Math.min(gridWidth - 1, x + 1); nx++) {
+            int neighbor = ny * gridWidth + nx;
+            if (grown[neighbor]) {
+              grown[neighbor] = false;
+              stack[size++] = neighbor;
+            }
+          }
+        }
+      }
+      if (region.busyCells >= MIN_BUSY_CELLS) {
+        region.expand(MARGIN_CELLS, gridWidth, gridHeight);
+        regions.add(region);
+      }
+    }
+    mergeOverlapping(regions, gridWidth, gridHeight);
+
+    Collections.sort(regions, new Comparator<Region>() {
+      @Override
+      public int compare(Region a, Region b) {
+        return Integer.compare(b.busyCells, a.busyCells);
+      }
+    });
+    List<int[]> rectangles = new ArrayList<>(regions.size());
+    for (Region region : regions) {
+      int left = region.left * scale;
+      int top = region.top * scale;
+      // The last cells also take in pixels left over beyond the grid
+      int right = region.right == gridWidth - 1 ? width : (region.right + 1) * scale;
+      int bottom = region.bottom == gridHeight - 1 ? height : (region.bottom + 1) * scale;
+      rectangles.add(new int[] {left, top, right - left, bottom - top});
+    }
+    return rectangles;
+  }
+
+  private static boolean[] findBusyCells(LuminanceSource source, int scale, int gridWidth, int gridHeight) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    boolean[] busy = new boolean[gridWidth * gridHeight];
+    byte[] upper = new byte[width];
+    byte[] lower = new byte[width];
+    // Rows a quarter and three quarters of the way down each cell. Cells of one pixel compare it
+    // with the pixel below, in the next cell, so that vertical changes count at every scale.
+    int upperOffset = scale / 4;
+    int lowerOffset = Math.max(upperOffset + 1, scale * 3 / 4);
+    // Horizontal changes along the upper row, and vertical changes between the two
+    int threshold = BUSY_ACTIVITY * 2 * scale;
+    for (int gy = 0; gy < gridHeight; gy++) {
+      upper = source.getRow(gy * scale + upperOffset, upper);
+      lower = source.getRow(Math.min(gy * scale + lowerOffset, height - 1), lower);
+      for (int gx = 0; gx < gridWidth; gx++) {
+        int x = gx * scale;
+        int end = Math.min(x + scale, width - 1);
+        int activity = 0;
+        for (; x < end; x++) {
+          int pixel = upper[x] & 0xFF;
+          activity += Math.abs((upper[x + 1] & 0xFF) - pixel) + Math.abs((lower[x] & 0xFF) - pixel);
+        }
+        busy[gy * gridWidth + gx] = activity >= threshold;
+      }
+    }
+    return busy;
+  }
+
+  /**
+   * @return cells which are busy or next to a busy cell
+   */
+  private static boolean[] dilate(boolean[] cells, int gridWidth, int gridHeight) {
+    boolean[] across = new boolean[cells.length];
+    for (int y = 0, offset = 0; y < gridHeight; y++, offset += gridWidth) {
+      for (int x = 0; x < gridWidth; x++) {
+        across[offset + x] = cells[offset + x] ||
+            (x > 0 && cells[offset + x - 1]) ||
+            (x < gridWidth - 1 && cells[offset + x + 1]);
+      }
+    }
+    boolean[] grown = new boolean[cells.length];
+    for (int i = 0; i < cells.length; i++) {
+      grown[i] = across[i] ||
+          (i >= gridWidth && across[i - gridWidth]) ||
+          (i < cells.length - gridWidth && across[i + gridWidth]);
+    }
+    return grown;
+  }
+
+  private static void mergeOverlapping(List<Region> regions, int gridWidth, int gridHeight) {
+    boolean merged;
+    do {
+      merged = false;
+      for (int i = 0; i < regions.size() && !merged; i++) {
+        for (int j = i + 1; j < regions.size(); j++) {
+          Region a = regions.get(i);
+          Region b = regions.get(j);
+          if (a.left <= b.right && b.left <= a.right && a.top <= b.bottom && b.top <= a.bottom) {
+            a.add(b);
+            regions.remove(j);
+            merged = true;
+            break;
+          }
+        }
+      }
+    } while (merged);
+  }
+
+  /**
+   * Bounding box of a group of cells, in grid coordinates, inclusive.
+   */
+  private static final class Region {
+
+    private int left;
+    private int top;
+    private int right;
+    private int bottom;
+    private int busyCells;
+
+    Region(int x, int y) {
+      left = x;
+      top = y;
+      right = x;
+      bottom = y;
+    }
+
+    void add(int x, int y, boolean busy) {
+      left = Math.min(left, x);
+      top = Math.min(top, y);
+      right = Math.max(right, x);
+      bottom = Math.max(bottom, y);
+      if (busy) {
+        busyCells++;
+      }
+    }
+
+    void add(Region other) {
+      left = Math.min(left, other.left);
+      top = Math.min(top, other.top);
+      right = Math.max(right, other.right);
+      bottom = Math.max(bottom, other.bottom);
+      busyCells += other.busyCells;
+    }
+
+    void expand(int cells, int gridWidth, int gridHeight) {
+      left = Math.max(0, left - cells);
+      top = Math.max(0, top - cells);
+      right = Math.min(gridWidth - 1, right + cells);
+      bottom = Math.min(gridHeight - 1, bottom + cells);
+    }
+
+  }
+
+}
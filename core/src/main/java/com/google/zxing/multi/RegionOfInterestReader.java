@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.multi;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.Deadline;
+import com.google.zxing.common.HybridBinarizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Decodes barcodes by first asking {@link RegionFinder} where they might be, then binarizing
+ * and decoding only those regions, most likely first. Unlike {@link ByQuadrantReader} and
+ * {@link GenericMultipleBarcodeReader}, it never binarizes or scans the whole image, which saves
+ * most of the work on large images where barcodes are small.</p>
+ *
+ * <p>Because it must choose what to binarize, it starts from a {@link LuminanceSource} rather
+ * than a {@link BinaryBitmap}. Sources which do not support cropping are decoded whole.</p>
+ */
+public final class RegionOfInterestReader {
+
+  private final Reader delegate;
+
+  public RegionOfInterestReader(Reader delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * @param source image to decode
+   * @param hints passed to the delegate
+   * @return the first barcode found, with result points relative to {@code source}
+   * @throws NotFoundException if no region holds a barcode
+   */
+  public Result decode(LuminanceSource source, Map<DecodeHintType,?> hints) throws NotFoundException {
+    List<Result> results = new ArrayList<>(1);
+    doDecode(source, hints, results, true);
+    if (results.isEmpty()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return results.get(0);
+  }
+
+  /**
+   * @param source image to decode
+   * @param hints passed to the delegate
+   * @return one barcode from each region which holds one, with result points relative to
+   *  {@code source}
+   * @throws NotFoundException if no region holds a barcode
+   */
+  public Result[] decodeMultiple(LuminanceSource source, Map<DecodeHintType,?> hints) throws NotFoundException {
+    List<Result> results = new ArrayList<>();
+    doDecode(source, hints, results, false);
+    if (results.isEmpty()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return results.toArray(new Result[results.size()]);
+  }
+
+  private void doDecode(LuminanceSource source,
+                        Map<DecodeHintType,?> hints,
+                        List<Result> results,
+                        boolean firstOnly) {
+    if (!source.isCropSupported()) {
+      try {
+        results.add(delegate.decode(new BinaryBitmap(new HybridBinarizer(source)), hints));
+      } catch (ReaderException re) {
+        // nothing found
+      }
+      return;
+    }
+    for (int[] region : RegionFinder.findRegions(source)) {
+      if (Deadline.isExpired(hints)) {
+        // Keep those found so far
+        return;
+      }
+      LuminanceSource crop = source.crop(region[0], region[1], region[2], region[3]);
+      Result result;
+      try {
+        result = delegate.decode(new BinaryBitmap(new HybridBinarizer(crop)), hints);
+      } catch (ReaderException re) {
+        continue;
+      }
+      boolean alreadyFound = false;
+      for (Result existingResult : results) {
+        if (existingResult.getText().equals(result.getText())) {
+          alreadyFound = true;
+          break;
+        }
+      }
+      if (!alreadyFound) {
+        makeAbsolute(result.getResultPoints(), region[0], region[1]);
+        results.add(result);
+        if (firstOnly) {
+          return;
+        }
+      }
+    }
+  }
+
+  private static void makeAbsolute(ResultPoint[] points, int leftOffset, int topOffset) {
+    if (points != null) {
+      for (int i = 0; i < points.length; i++) {
+        ResultPoint relative = points[i];
+        if (relative != null) {
+          points[i] = new ResultPoint(relative.getX() + leftOffset, relative.getY() + topOffset);
+        }
+      }
+    }
+  }
+
+}
@@ -230,11 +230,7 @@ final class MultiFinderPatternFinder extends FinderPatternFinder {
 
   public FinderPatternInfo[] findMulti(Map<DecodeHintType,?> hints) throws NotFoundException {
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
-    BitMatrix image = getImage();
-    int maxI = image.getHeight();
-    int maxJ = image.getWidth();
-    // We are looking for black/white/black/white/black modules in
-    // 1:1:3:1:1 ratio; this tracks the number of such modules seen so far
+    int maxI = getImage().getHeight();
 
     // Let's assume that the maximum version QR Code we support takes up 1/4 the height of the
     // image, and then account for the center being 3 modules in size. This gives the smallest
@@ -245,42 +241,7 @@ final class MultiFinderPatternFinder extends FinderPatternFinder {
       iSkip = MIN_SKIP;
     }
 
-    int[] stateCount = new int[5];
-    for (int i = iSkip - 1; i < maxI; i += iSkip) {
-      // Get a row of black/white values
-      clearCounts(stateCount);
-      int currentState = 0;
-      for (int j = 0; j < maxJ; j++) {
-        if (image.get(j, i)) {
-          // Black pixel
-          if ((currentState & 1) == 1) { // Counting white pixels
-            currentState++;
-          }
-          stateCount[currentState]++;
-        } else { // White pixel
-          if ((currentState & 1) == 0) { // Counting black pixels
-            if (currentState == 4) { // A winner?
-              if (foundPatternCross(stateCount) && handlePossibleCenter(stateCount, i, j)) { // Yes
-                // Clear state to start looking again
-                currentState = 0;
-                clearCounts(stateCount);
-              } else { // No, shift counts back by two
-                shiftCounts2(stateCount);
-                currentState = 3;
-              }
-            } else {
-              stateCount[++currentState]++;
-            }
-          } else { // Counting white pixels
-            stateCount[currentState]++;
-          }
-        }
-      } // for j=...
-
-      if (foundPatternCross(stateCount)) {
-        handlePossibleCenter(stateCount, i, maxJ);
-      } // end if foundPatternCross
-    } // for i=iSkip-1 ...
+    findPossibleCenters(iSkip, hints);
     FinderPattern[][] patternInfo = selectMutipleBestPatterns();
     List<FinderPatternInfo> result = new ArrayList<>();
     for (FinderPattern[] pattern : patternInfo) {
@@ -78,10 +78,39 @@ public final class CodaBarReader extends OneDReader {
 
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException {
+    Arrays.fill(counters, 0);
+    setCounters(runs);
+    int startOffset = findStartPattern();
+    if (startOffset < 0) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return decodeRow(rowNumber, startOffset, hints);
+  }
 
+  @Override
+  public Result tryDecodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints) {
     Arrays.fill(counters, 0);
-    setCounters(row);
+    setCounters(runs);
     int startOffset = findStartPattern();
+    if (startOffset < 0) {
+      return null;
+    }
+    try {
+      return decodeRow(rowNumber, startOffset, hints);
+    } catch (NotFoundException nfe) {
+      return null;
+    }
+  }
+
+  private Result decodeRow(int rowNumber, int startOffset, Map<DecodeHintType,?> hints)
+      throws NotFoundException {
+
     int nextStart = startOffset;
 
     decodeRowResult.setLength(0);
@@ -225,29 +254,16 @@ public final class CodaBarReader extends OneDReader {
    * Records the size of all runs of white and black pixels, starting with white.
    * This is just like recordPattern, except it records all the counters, and
    * uses our builtin "counters" member for storage.
-   * @param row row to count from
+   * @param runs runs of the row to count from; records nothing if it is all black
    */
-  private void setCounters(BitArray row) throws NotFoundException {
+  private void setCounters(RunLengthRow runs) {
     counterLength = 0;
-    // Start from the first white bit.
-    int i = row.getNextUnset(0);
-    int end = row.getSize();
-    if (i >= end) {
-      throw NotFoundException.getNotFoundInstance();
+    // Start from the first white run; run 0 is empty if the row starts with black.
+    int run = runs.getRunWidth(0) > 0 ? 0 : 2;
+    int runCount = runs.getRunCount();
+    for (; run < runCount; run++) {
+      counterAppend(runs.getRunWidth(run));
     }
-    boolean isWhite = true;
-    int count = 0;
-    while (i < end) {
-      if (row.get(i) != isWhite) {
-        count++;
-      } else {
-        counterAppend(count);
-        count = 1;
-        isWhite = !isWhite;
-      }
-      i++;
-    }
-    counterAppend(count);
   }
 
   private void counterAppend(int e) {
@@ -260,7 +276,10 @@ public final class CodaBarReader extends OneDReader {
     }
   }
 
-  private int findStartPattern() throws NotFoundException {
+  /**
+   * @return offset of the first start pattern in the counters, or -1 if there is none
+   */
+  private int findStartPattern() {
     for (int i = 1; i < counterLength; i += 2) {
       int charOffset = toNarrowWidePattern(i);
       if (charOffset != -1 && arrayContains(STARTEND_ENCODING, ALPHABET[charOffset])) {
@@ -275,7 +294,7 @@ public final class CodaBarReader extends OneDReader {
         }
       }
     }
-    throw NotFoundException.getNotFoundInstance();
+    return -1;
   }
 
   static boolean arrayContains(char[] array, char key) {
@@ -21,6 +21,7 @@ import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
@@ -166,54 +167,39 @@ public final class Code128Reader extends OneDReader {
   private static final int CODE_START_C = 105;
   private static final int CODE_STOP = 106;
 
-  private static int[] findStartPattern(BitArray row) throws NotFoundException {
-    int width = row.getSize();
-    int rowOffset = row.getNextSet(0);
-
-    int counterPosition = 0;
+  /**
+   * @return start and end of the first start pattern and its start code, or null if there is none
+   */
+  private static int[] findStartPattern(BitArray row, RunLengthRow runs) {
     int[] counters = new int[6];
-    int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = counters.length;
-
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          float bestVariance = MAX_AVG_VARIANCE;
-          int bestMatch = -1;
-          for (int startCode = CODE_START_A; startCode <= CODE_START_C; startCode++) {
-            float variance = patternMatchVariance(counters, CODE_PATTERNS[startCode],
-                MAX_INDIVIDUAL_VARIANCE);
-            if (variance < bestVariance) {
-              bestVariance = variance;
-              bestMatch = startCode;
-            }
-          }
-          // Look for whitespace before start pattern, >= 50% of width of start pattern
-          if (bestMatch >= 0 &&
-              row.isRange(Math.max(0, patternStart - (i - patternStart) / 2), patternStart, false)) {
-            return new int[]{patternStart, i, bestMatch};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // Try each black run as the start; run 1 is the first
+    for (int run = 1; run + patternLength < runs.getRunCount(); run += 2) {
+      runs.getRunWidths(run, counters);
+      float bestVariance = MAX_AVG_VARIANCE;
+      int bestMatch = -1;
+      for (int startCode = CODE_START_A; startCode <= CODE_START_C; startCode++) {
+        float variance = patternMatchVariance(counters, CODE_PATTERNS[startCode],
+            MAX_INDIVIDUAL_VARIANCE);
+        if (variance < bestVariance) {
+          bestVariance = variance;
+          bestMatch = startCode;
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+      }
+      int patternStart = runs.getRunStart(run);
+      int patternEnd = runs.getRunStart(run + patternLength);
+      // Look for whitespace before start pattern, >= 50% of width of start pattern
+      if (bestMatch >= 0 &&
+          row.isRange(Math.max(0, patternStart - (patternEnd - patternStart) / 2), patternStart, false)) {
+        return new int[]{patternStart, patternEnd, bestMatch};
       }
     }
-    throw NotFoundException.getNotFoundInstance();
+    return null;
   }
 
-  private static int decodeCode(BitArray row, int[] counters, int rowOffset)
+  private static int decodeCode(RunLengthRow runs, int[] counters, int rowOffset)
       throws NotFoundException {
-    recordPattern(row, rowOffset, counters);
+    recordPattern(runs, rowOffset, counters);
     float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
     int bestMatch = -1;
     for (int d = 0; d < CODE_PATTERNS.length; d++) {
@@ -235,10 +221,41 @@ public final class Code128Reader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException, ChecksumException {
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
+    int[] startPatternInfo = findStartPattern(row, runs);
+    if (startPatternInfo == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return decodeRow(rowNumber, row, runs, startPatternInfo, hints);
+  }
+
+  @Override
+  public Result tryDecodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints) {
+    int[] startPatternInfo = findStartPattern(row, runs);
+    if (startPatternInfo == null) {
+      return null;
+    }
+    try {
+      return decodeRow(rowNumber, row, runs, startPatternInfo, hints);
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
+  private static Result decodeRow(int rowNumber,
+                                  BitArray row,
+                                  RunLengthRow runs,
+                                  int[] startPatternInfo,
+                                  Map<DecodeHintType,?> hints)
+      throws NotFoundException, FormatException, ChecksumException {
 
     boolean convertFNC1 = hints != null && hints.containsKey(DecodeHintType.ASSUME_GS1);
 
-    int[] startPatternInfo = findStartPattern(row);
     int startCode = startPatternInfo[2];
 
     List<Byte> rawCodes = new ArrayList<>(20);
@@ -285,7 +302,7 @@ public final class Code128Reader extends OneDReader {
       lastCode = code;
 
       // Decode another code from image
-      code = decodeCode(row, counters, nextStart);
+      code = decodeCode(runs, counters, nextStart);
 
       rawCodes.add((byte) code);
 
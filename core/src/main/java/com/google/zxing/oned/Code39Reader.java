@@ -21,6 +21,7 @@ import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
@@ -97,13 +98,40 @@ public final class Code39Reader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    int[] start = findAsteriskPattern(row, runs, counters);
+    if (start == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return decodeRow(rowNumber, row, runs, start);
+  }
+
+  @Override
+  public Result tryDecodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints) {
+    int[] start = findAsteriskPattern(row, runs, counters);
+    if (start == null) {
+      return null;
+    }
+    try {
+      return decodeRow(rowNumber, row, runs, start);
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
+  private Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, int[] start)
+      throws NotFoundException, ChecksumException, FormatException {
 
     int[] theCounters = counters;
     Arrays.fill(theCounters, 0);
     StringBuilder result = decodeRowResult;
     result.setLength(0);
 
-    int[] start = findAsteriskPattern(row, theCounters);
     // Read off white space
     int nextStart = row.getNextSet(start[1]);
     int end = row.getSize();
@@ -111,7 +139,7 @@ public final class Code39Reader extends OneDReader {
     char decodedChar;
     int lastStart;
     do {
-      recordPattern(row, nextStart, theCounters);
+      recordPattern(runs, nextStart, theCounters);
       int pattern = toNarrowWidePattern(theCounters);
       if (pattern < 0) {
         throw NotFoundException.getNotFoundInstance();
@@ -175,38 +203,23 @@ public final class Code39Reader extends OneDReader {
 
   }
 
-  private static int[] findAsteriskPattern(BitArray row, int[] counters) throws NotFoundException {
-    int width = row.getSize();
-    int rowOffset = row.getNextSet(0);
-
-    int counterPosition = 0;
-    int patternStart = rowOffset;
-    boolean isWhite = false;
+  /**
+   * @return start and end of the first start pattern, or null if there is none
+   */
+  private static int[] findAsteriskPattern(BitArray row, RunLengthRow runs, int[] counters) {
     int patternLength = counters.length;
-
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          // Look for whitespace before start pattern, >= 50% of width of start pattern
-          if (toNarrowWidePattern(counters) == ASTERISK_ENCODING &&
-              row.isRange(Math.max(0, patternStart - ((i - patternStart) / 2)), patternStart, false)) {
-            return new int[]{patternStart, i};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+    // Try each black run as the start; run 1 is the first
+    for (int run = 1; run + patternLength < runs.getRunCount(); run += 2) {
+      runs.getRunWidths(run, counters);
+      int patternStart = runs.getRunStart(run);
+      int patternEnd = runs.getRunStart(run + patternLength);
+      // Look for whitespace before start pattern, >= 50% of width of start pattern
+      if (toNarrowWidePattern(counters) == ASTERISK_ENCODING &&
+          row.isRange(Math.max(0, patternStart - ((patternEnd - patternStart) / 2)), patternStart, false)) {
+        return new int[]{patternStart, patternEnd};
       }
     }
-    throw NotFoundException.getNotFoundInstance();
+    return null;
   }
 
   // For efficiency, returns -1 on failure. Not throwing here saved as many as 700 exceptions
@@ -21,6 +21,7 @@ import com.google.zxing.ChecksumException;
 import com.google.zxing.DecodeHintType;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
@@ -65,8 +66,35 @@ public final class Code93Reader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    int[] start = findAsteriskPattern(runs);
+    if (start == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return decodeRow(rowNumber, row, runs, start);
+  }
+
+  @Override
+  public Result tryDecodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints) {
+    int[] start = findAsteriskPattern(runs);
+    if (start == null) {
+      return null;
+    }
+    try {
+      return decodeRow(rowNumber, row, runs, start);
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
+  private Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, int[] start)
+      throws NotFoundException, ChecksumException, FormatException {
 
-    int[] start = findAsteriskPattern(row);
     // Read off white space
     int nextStart = row.getNextSet(start[1]);
     int end = row.getSize();
@@ -79,7 +107,7 @@ public final class Code93Reader extends OneDReader {
     char decodedChar;
     int lastStart;
     do {
-      recordPattern(row, nextStart, theCounters);
+      recordPattern(runs, nextStart, theCounters);
       int pattern = toPattern(theCounters);
       if (pattern < 0) {
         throw NotFoundException.getNotFoundInstance();
@@ -128,38 +156,20 @@ public final class Code93Reader extends OneDReader {
 
   }
 
-  private int[] findAsteriskPattern(BitArray row) throws NotFoundException {
-    int width = row.getSize();
-    int rowOffset = row.getNextSet(0);
-
-    Arrays.fill(counters, 0);
+  /**
+   * @return start and end of the first start pattern, or null if there is none
+   */
+  private int[] findAsteriskPattern(RunLengthRow runs) {
     int[] theCounters = counters;
-    int patternStart = rowOffset;
-    boolean isWhite = false;
     int patternLength = theCounters.length;
-
-    int counterPosition = 0;
-    for (int i = rowOffset; i < width; i++) {
-      if (row.get(i) != isWhite) {
-        theCounters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (toPattern(theCounters) == ASTERISK_ENCODING) {
-            return new int[]{patternStart, i};
-          }
-          patternStart += theCounters[0] + theCounters[1];
-          System.arraycopy(theCounters, 2, theCounters, 0, counterPosition - 1);
-          theCounters[counterPosition - 1] = 0;
-          theCounters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        theCounters[counterPosition] = 1;
-        isWhite = !isWhite;
+    // Try each black run as the start; run 1 is the first
+    for (int run = 1; run + patternLength < runs.getRunCount(); run += 2) {
+      runs.getRunWidths(run, theCounters);
+      if (toPattern(theCounters) == ASTERISK_ENCODING) {
+        return new int[]{runs.getRunStart(run), runs.getRunStart(run + patternLength)};
       }
     }
-    throw NotFoundException.getNotFoundInstance();
+    return null;
   }
 
   private static int toPattern(int[] counters) {
@@ -20,6 +20,7 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.DecodeHintType;
 import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
+import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
@@ -100,13 +101,43 @@ public final class ITFReader extends OneDReader {
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws FormatException, NotFoundException {
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
 
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints)
+      throws FormatException, NotFoundException {
     // Find out where the Middle section (payload) starts & ends
-    int[] startRange = decodeStart(row);
-    int[] endRange = decodeEnd(row);
+    int[] startRange = decodeStart(runs);
+    int[] endRange = startRange == null ? null : decodeEnd(runs);
+    if (endRange == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return decodeRow(rowNumber, runs, startRange, endRange, hints);
+  }
+
+  @Override
+  public Result tryDecodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints) {
+    int[] startRange = decodeStart(runs);
+    int[] endRange = startRange == null ? null : decodeEnd(runs);
+    if (endRange == null) {
+      return null;
+    }
+    try {
+      return decodeRow(rowNumber, runs, startRange, endRange, hints);
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
+  private static Result decodeRow(int rowNumber,
+                                  RunLengthRow runs,
+                                  int[] startRange,
+                                  int[] endRange,
+                                  Map<DecodeHintType,?> hints) throws FormatException, NotFoundException {
 
     StringBuilder result = new StringBuilder(20);
-    decodeMiddle(row, startRange[1], endRange[0], result);
+    decodeMiddle(runs, startRange[1], endRange[0], result);
     String resultString = result.toString();
 
     int[] allowedLengths = null;
@@ -148,12 +179,12 @@ public final class ITFReader extends OneDReader {
   }
 
   /**
-   * @param row          row of black/white values to search
+   * @param runs         runs of the row to search
    * @param payloadStart offset of start pattern
    * @param resultString {@link StringBuilder} to append decoded chars to
    * @throws NotFoundException if decoding could not complete successfully
    */
-  private static void decodeMiddle(BitArray row,
+  private static void decodeMiddle(RunLengthRow runs,
                                    int payloadStart,
                                    int payloadEnd,
                                    StringBuilder resultString) throws NotFoundException {
@@ -170,7 +201,7 @@ public final class ITFReader extends OneDReader {
     while (payloadStart < payloadEnd) {
 
       // Get 10 runs of black/white.
-      recordPattern(row, payloadStart, counterDigitPair);
+      recordPattern(runs, payloadStart, counterDigitPair);
       // Split them into each array
       for (int k = 0; k < 5; k++) {
         int twoK = 2 * k;
@@ -192,155 +223,113 @@ public final class ITFReader extends OneDReader {
   /**
    * Identify where the start of the middle / payload section starts.
    *
-   * @param row row of black/white values to search
+   * @param runs runs of the row to search
    * @return Array, containing index of start of 'start block' and end of
-   *         'start block'
+   *         'start block', or null if there is no start block with a quiet zone
    */
-  private int[] decodeStart(BitArray row) throws NotFoundException {
-    int endStart = skipWhiteSpace(row);
-    int[] startPattern = findGuardPattern(row, endStart, START_PATTERN);
+  private int[] decodeStart(RunLengthRow runs) {
+    // Run 1 is the first black run
+    int[] startPattern = findGuardPattern(runs, 1, false, START_PATTERN);
+    if (startPattern == null) {
+      return null;
+    }
 
     // Determine the width of a narrow line in pixels. We can do this by
     // getting the width of the start pattern and dividing by 4 because its
     // made up of 4 narrow lines.
     this.narrowLineWidth = (startPattern[1] - startPattern[0]) / 4;
 
-    validateQuietZone(row, startPattern[0]);
-
-    return startPattern;
+    // The white run before the pattern is the quiet zone
+    int run = runs.getRunIndex(startPattern[0]);
+    return hasQuietZone(runs.getRunWidth(run - 1), startPattern[0]) ? startPattern : null;
   }
 
   /**
    * The start & end patterns must be pre/post fixed by a quiet zone. This
-   * zone must be at least 10 times the width of a narrow line.  Scan back until
-   * we either get to the start of the barcode or match the necessary number of
-   * quiet zone pixels.
-   *
-   * Note: Its assumed the row is reversed when using this method to find
-   * quiet zone after the end pattern.
+   * zone must be at least 10 times the width of a narrow line, or reach the
+   * edge of the row.
    *
    * ref: http://www.barcode-1.net/i25code.html
    *
-   * @param row bit array representing the scanned barcode.
-   * @param startPattern index into row of the start or end pattern.
-   * @throws NotFoundException if the quiet zone cannot be found
+   * @param quietWidth width of the white run next to the pattern.
+   * @param available number of pixels between the pattern and the edge of the row.
+   * @return true if the quiet zone is wide enough
    */
-  private void validateQuietZone(BitArray row, int startPattern) throws NotFoundException {
+  private boolean hasQuietZone(int quietWidth, int available) {
 
     int quietCount = this.narrowLineWidth * 10;  // expect to find this many pixels of quiet zone
 
     // if there are not so many pixel at all let's try as many as possible
-    quietCount = quietCount < startPattern ? quietCount : startPattern;
+    quietCount = quietCount < available ? quietCount : available;
 
-    for (int i = startPattern - 1; quietCount > 0 && i >= 0; i--) {
-      if (row.get(i)) {
-        break;
-      }
-      quietCount--;
-    }
-    if (quietCount != 0) {
-      // Unable to find the necessary number of quiet zone pixels.
-      throw NotFoundException.getNotFoundInstance();
-    }
-  }
-
-  /**
-   * Skip all whitespace until we get to the first black line.
-   *
-   * @param row row of black/white values to search
-   * @return index of the first black line.
-   * @throws NotFoundException Throws exception if no black lines are found in the row
-   */
-  private static int skipWhiteSpace(BitArray row) throws NotFoundException {
-    int width = row.getSize();
-    int endStart = row.getNextSet(0);
-    if (endStart == width) {
-      throw NotFoundException.getNotFoundInstance();
-    }
-
-    return endStart;
+    return quietWidth >= quietCount;
   }
 
   /**
    * Identify where the end of the middle / payload section ends.
    *
-   * @param row row of black/white values to search
+   * @param runs runs of the row to search
    * @return Array, containing index of start of 'end block' and end of 'end
-   *         block'
+   *         block', or null if there is no end block with a quiet zone
    */
-  private int[] decodeEnd(BitArray row) throws NotFoundException {
+  private int[] decodeEnd(RunLengthRow runs) {
 
-    // For convenience, reverse the row and then
-    // search from 'the start' for the end block
-    row.reverse();
-    try {
-      int endStart = skipWhiteSpace(row);
-      int[] endPattern;
-      try {
-        endPattern = findGuardPattern(row, endStart, END_PATTERN_REVERSED[0]);
-      } catch (NotFoundException nfe) {
-        endPattern = findGuardPattern(row, endStart, END_PATTERN_REVERSED[1]);
+    // Search from the end, right to left, for the end block
+    int lastBlackRun = runs.getRunCount() - 1;
+    if (!RunLengthRow.isBlack(lastBlackRun)) {
+      lastBlackRun--;
+    }
+    int[] endPattern = findGuardPattern(runs, lastBlackRun, true, END_PATTERN_REVERSED[0]);
+    if (endPattern == null) {
+      endPattern = findGuardPattern(runs, lastBlackRun, true, END_PATTERN_REVERSED[1]);
+      if (endPattern == null) {
+        return null;
       }
-
-      // The start & end patterns must be pre/post fixed by a quiet zone. This
-      // zone must be at least 10 times the width of a narrow line.
-      // ref: http://www.barcode-1.net/i25code.html
-      validateQuietZone(row, endPattern[0]);
-
-      // Now recalculate the indices of where the 'endblock' starts & stops to
-      // accommodate
-      // the reversed nature of the search
-      int temp = endPattern[0];
-      endPattern[0] = row.getSize() - endPattern[1];
-      endPattern[1] = row.getSize() - temp;
-
-      return endPattern;
-    } finally {
-      // Put the row back the right way.
-      row.reverse();
     }
+
+    // The start & end patterns must be pre/post fixed by a quiet zone. This
+    // zone must be at least 10 times the width of a narrow line.
+    // ref: http://www.barcode-1.net/i25code.html
+    int run = runs.getRunIndex(endPattern[1]);
+    int quietWidth = run < runs.getRunCount() ? runs.getRunWidth(run) : 0;
+    return hasQuietZone(quietWidth, runs.getSize() - endPattern[1]) ? endPattern : null;
   }
 
   /**
-   * @param row       row of black/white values to search
-   * @param rowOffset position to start search
+   * @param runs      runs of the row to search
+   * @param run       black run to start the search at
+   * @param reversed  if true, search right to left, matching the pattern to
+   *                  runs read in that direction
    * @param pattern   pattern of counts of number of black and white pixels that are
    *                  being searched for as a pattern
    * @return start/end horizontal offset of guard pattern, as an array of two
-   *         ints
-   * @throws NotFoundException if pattern is not found
+   *         ints, or null if the pattern is not found
    */
-  private static int[] findGuardPattern(BitArray row,
-                                        int rowOffset,
-                                        int[] pattern) throws NotFoundException {
+  private static int[] findGuardPattern(RunLengthRow runs,
+                                        int run,
+                                        boolean reversed,
+                                        int[] pattern) {
     int patternLength = pattern.length;
     int[] counters = new int[patternLength];
-    int width = row.getSize();
-    boolean isWhite = false;
-
-    int counterPosition = 0;
-    int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == patternLength - 1) {
-          if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          System.arraycopy(counters, 2, counters, 0, counterPosition - 1);
-          counters[counterPosition - 1] = 0;
-          counters[counterPosition] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
+    // The pattern must be followed by another run, so that its last run is complete
+    if (reversed) {
+      for (; run >= patternLength && runs.getRunWidth(run - patternLength) > 0; run -= 2) {
+        for (int i = 0; i < patternLength; i++) {
+          counters[i] = runs.getRunWidth(run - i);
+        }
+        if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+          return new int[]{runs.getRunEnd(run - patternLength), runs.getRunEnd(run)};
+        }
+      }
+    } else {
+      for (; run + patternLength < runs.getRunCount(); run += 2) {
+        runs.getRunWidths(run, counters);
+        if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+          return new int[]{runs.getRunStart(run), runs.getRunStart(run + patternLength)};
         }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
       }
     }
-    throw NotFoundException.getNotFoundInstance();
+    return null;
   }
 
   /**
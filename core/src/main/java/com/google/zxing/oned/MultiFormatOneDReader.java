@@ -20,7 +20,6 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.DecodeHintType;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Reader;
-import com.google.zxing.ReaderException;
 import com.google.zxing.Result;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.oned.rss.RSS14Reader;
@@ -91,15 +90,33 @@ public final class MultiFormatOneDReader extends OneDReader {
   public Result decodeRow(int rowNumber,
                           BitArray row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber,
+                          BitArray row,
+                          RunLengthRow runs,
+                          Map<DecodeHintType,?> hints) throws NotFoundException {
+    Result result = tryDecodeRow(rowNumber, row, runs, hints);
+    if (result == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return result;
+  }
+
+  @Override
+  public Result tryDecodeRow(int rowNumber,
+                             BitArray row,
+                             RunLengthRow runs,
+                             Map<DecodeHintType,?> hints) {
     for (OneDReader reader : readers) {
-      try {
-        return reader.decodeRow(rowNumber, row, hints);
-      } catch (ReaderException re) {
-        // continue
+      Result result = reader.tryDecodeRow(rowNumber, row, runs, hints);
+      if (result != null) {
+        return result;
       }
     }
-
-    throw NotFoundException.getNotFoundInstance();
+    return null;
   }
 
   @Override
@@ -70,8 +70,31 @@ public final class MultiFormatUPCEANReader extends OneDReader {
   public Result decodeRow(int rowNumber,
                           BitArray row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber,
+                          BitArray row,
+                          RunLengthRow runs,
+                          Map<DecodeHintType,?> hints) throws NotFoundException {
+    Result result = tryDecodeRow(rowNumber, row, runs, hints);
+    if (result == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return result;
+  }
+
+  @Override
+  public Result tryDecodeRow(int rowNumber,
+                             BitArray row,
+                             RunLengthRow runs,
+                             Map<DecodeHintType,?> hints) {
     // Compute this location once and reuse it on multiple implementations
-    int[] startGuardPattern = UPCEANReader.findStartGuardPattern(row);
+    int[] startGuardPattern = UPCEANReader.findStartGuardPattern(row, runs);
+    if (startGuardPattern == null) {
+      return null;
+    }
     for (UPCEANReader reader : readers) {
       try {
         Result result = reader.decodeRow(rowNumber, row, startGuardPattern, hints);
@@ -110,7 +133,7 @@ public final class MultiFormatUPCEANReader extends OneDReader {
       }
     }
 
-    throw NotFoundException.getNotFoundInstance();
+    return null;
   }
 
   @Override
@@ -27,6 +27,8 @@ import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
+import com.google.zxing.common.Deadline;
+import com.google.zxing.common.DecodeContext;
 
 import java.util.Arrays;
 import java.util.EnumMap;
@@ -46,17 +48,36 @@ public abstract class OneDReader implements Reader {
     return decode(image, null);
   }
 
-  // Note that we don't try rotation without the try harder flag, even if rotation was supported.
   @Override
   public Result decode(BinaryBitmap image,
                        Map<DecodeHintType,?> hints) throws NotFoundException, FormatException {
-    try {
-      return doDecode(image, hints);
-    } catch (NotFoundException nfe) {
+    Result result = tryDecode(image, hints);
+    if (result == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return result;
+  }
+
+  /**
+   * Like {@link #decode(BinaryBitmap, Map)}, but returns null rather than throwing
+   * {@link NotFoundException} when no barcode is found. Most rows of an image hold no barcode, so
+   * this lets a caller trying many images or many readers skip them without exceptions.
+   *
+   * @param image image of barcode to decode
+   * @param hints passed as a {@link Map} from {@link DecodeHintType} to arbitrary data
+   * @return the barcode, or null if none was found
+   */
+  public Result tryDecode(BinaryBitmap image, Map<DecodeHintType,?> hints) {
+    Result result = doDecode(image, hints);
+    if (result == null) {
+      // Note that we don't try rotation without the try harder flag, even if rotation was supported.
       boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
-      if (tryHarder && image.isRotateSupported()) {
+      if (tryHarder && image.isRotateSupported() && !Deadline.isExpired(hints)) {
         BinaryBitmap rotatedImage = image.rotateCounterClockwise();
-        Result result = doDecode(rotatedImage, hints);
+        result = doDecode(rotatedImage, hints);
+        if (result == null) {
+          return null;
+        }
         // Record that we found it rotated 90 degrees CCW / 270 degrees CW
         Map<ResultMetadataType,?> metadata = result.getResultMetadata();
         int orientation = 270;
@@ -74,11 +95,9 @@ public abstract class OneDReader implements Reader {
             points[i] = new ResultPoint(height - points[i].getY() - 1, points[i].getX());
           }
         }
-        return result;
-      } else {
-        throw nfe;
       }
     }
+    return result;
   }
 
   @Override
@@ -97,14 +116,15 @@ public abstract class OneDReader implements Reader {
    *
    * @param image The image to decode
    * @param hints Any hints that were requested
-   * @return The contents of the decoded barcode
-   * @throws NotFoundException Any spontaneous errors which occur
+   * @return The contents of the decoded barcode, or null if none was found
    */
-  private Result doDecode(BinaryBitmap image,
-                          Map<DecodeHintType,?> hints) throws NotFoundException {
+  private Result doDecode(BinaryBitmap image, Map<DecodeHintType,?> hints) {
     int width = image.getWidth();
     int height = image.getHeight();
-    BitArray row = new BitArray(width);
+    DecodeContext context = hints == null ? null : (DecodeContext) hints.get(DecodeHintType.DECODE_CONTEXT);
+    BitArray row = context == null ? new BitArray(width) : context.getBlackRow(width);
+    RunLengthRow runs = null;
+    Deadline deadline = Deadline.fromHints(hints);
 
     boolean tryHarder = hints != null && hints.containsKey(DecodeHintType.TRY_HARDER);
     int rowStep = Math.max(1, height >> (tryHarder ? 8 : 5));
@@ -126,6 +146,9 @@ public abstract class OneDReader implements Reader {
         // Oops, if we run off the top or bottom, stop
         break;
       }
+      if (deadline != null && deadline.isExpired()) {
+        break;
+      }
 
       // Estimate black point for this row and load it:
       try {
@@ -150,9 +173,15 @@ public abstract class OneDReader implements Reader {
             hints = newHints;
           }
         }
-        try {
-          // Look for a barcode
-          Result result = decodeRow(rowNumber, row, hints);
+        // Find the runs once for all the readers which may look at this row
+        if (runs == null) {
+          runs = new RunLengthRow(row);
+        } else {
+          runs.setRow(row);
+        }
+        // Look for a barcode
+        Result result = tryDecodeRow(rowNumber, row, runs, hints);
+        if (result != null) {
           // We found our barcode
           if (attempt == 1) {
             // But it was upside down, so note that
@@ -165,13 +194,12 @@ public abstract class OneDReader implements Reader {
             }
           }
           return result;
-        } catch (ReaderException re) {
-          // continue -- just couldn't decode this row
         }
+        // else continue -- just couldn't decode this row
       }
     }
 
-    throw NotFoundException.getNotFoundInstance();
+    return null;
   }
 
   /**
@@ -219,6 +247,31 @@ public abstract class OneDReader implements Reader {
     }
   }
 
+  /**
+   * Like {@link #recordPattern(BitArray, int, int[])}, but reads the widths from runs already found
+   * rather than counting pixels.
+   *
+   * @param runs runs of the row to count from
+   * @param start offset into row to start at
+   * @param counters array into which to record counts
+   * @throws NotFoundException if counters cannot be filled entirely from row before running out
+   *  of pixels
+   */
+  protected static void recordPattern(RunLengthRow runs,
+                                      int start,
+                                      int[] counters) throws NotFoundException {
+    if (start >= runs.getSize()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    int run = runs.getRunIndex(start);
+    // The last counter may run to the end of the row
+    if (run + counters.length > runs.getRunCount()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    runs.getRunWidths(run, counters);
+    counters[0] = runs.getRunEnd(run) - start;
+  }
+
   protected static void recordPatternInReverse(BitArray row, int start, int[] counters)
       throws NotFoundException {
     // This could be more efficient I guess
@@ -236,6 +289,16 @@ public abstract class OneDReader implements Reader {
     recordPattern(row, start + 1, counters);
   }
 
+  protected static void recordPatternInReverse(RunLengthRow runs, int start, int[] counters)
+      throws NotFoundException {
+    // Records the runs before the one containing start, which must themselves follow a run
+    int run = runs.getRunIndex(start) - counters.length;
+    if (run < 1 || runs.getRunWidth(run - 1) == 0) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    recordPattern(runs, runs.getRunStart(run), counters);
+  }
+
   /**
    * Determines how closely a set of observed counts of runs of black/white values matches a given
    * target pattern. This is reported as the ratio of the total variance from the expected pattern
@@ -293,4 +356,43 @@ public abstract class OneDReader implements Reader {
   public abstract Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, ChecksumException, FormatException;
 
+  /**
+   * <p>Like {@link #decodeRow(int, BitArray, Map)}, but with the runs of the row already found,
+   * so that they can be shared by several readers trying the same row. Readers which search by
+   * run widths override this; by default the runs are ignored.</p>
+   *
+   * @param rowNumber row number from top of the row
+   * @param row the black/white pixel data of the row
+   * @param runs the runs of the same row
+   * @param hints decode hints
+   * @return {@link Result} containing encoded string and start/end of barcode
+   * @throws NotFoundException if no potential barcode is found
+   * @throws ChecksumException if a potential barcode is found but does not pass its checksum
+   * @throws FormatException if a potential barcode is found but format is invalid
+   */
+  public Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    return decodeRow(rowNumber, row, hints);
+  }
+
+  /**
+   * <p>Like {@link #decodeRow(int, BitArray, RunLengthRow, Map)}, but returns null rather than
+   * throwing when the row holds no barcode. By default it catches the exception; readers override
+   * it to give up on most rows, those without even a start pattern, before any is thrown.</p>
+   *
+   * @param rowNumber row number from top of the row
+   * @param row the black/white pixel data of the row
+   * @param runs the runs of the same row
+   * @param hints decode hints
+   * @return {@link Result} containing encoded string and start/end of barcode, or null if none
+   *  was found
+   */
+  public Result tryDecodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints) {
+    try {
+      return decodeRow(rowNumber, row, runs, hints);
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
 }
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.common.BitArray;
+
+/**
+ * <p>A row of black and white pixels held as the runs of each color, found a word at a time with
+ * {@link BitArray#getNextSet(int)} and {@link BitArray#getNextUnset(int)}. One-dimensional readers
+ * mostly look at the widths of successive runs, so several readers trying the same row can share
+ * one of these instead of each counting pixels.</p>
+ *
+ * <p>Runs alternate in color starting with white: even runs are white and odd runs black. Run 0
+ * is empty if the row starts with black; no other run is.</p>
+ *
+ * @see OneDReader#decodeRow(int, BitArray, RunLengthRow, java.util.Map)
+ */
+public final class RunLengthRow {
+
+  private int size;
+  // starts[i] is the first pixel of run i, and starts[runCount] is size
+  private int[] starts;
+  private int runCount;
+
+  /**
+   * @param row row to find the runs of
+   */
+  public RunLengthRow(BitArray row) {
+    starts = new int[row.getSize() + 2];
+    setRow(row);
+  }
+
+  /**
+   * Replaces the runs with those of another row, reusing storage where possible.
+   *
+   * @param row row to find the runs of
+   */
+  public void setRow(BitArray row) {
+    size = row.getSize();
+    if (starts.length < size + 2) {
+      starts = new int[size + 2];
+    }
+    int count = 1;
+    int x = row.getNextSet(0);
+    while (x < size) {
+      starts[count++] = x;
+      x = (count & 0x01) == 0 ? row.getNextUnset(x) : row.getNextSet(x);
+    }
+    starts[count] = size;
+    runCount = count;
+  }
+
+  /**
+   * Replaces the runs with those of another row read from right to left, as if it had been
+   * {@link BitArray#reverse()}d.
+   *
+   * @param other runs of the row to reverse; must not be this
+   */
+  public void setReversed(RunLengthRow other) {
+    size = other.size;
+    if (starts.length < size + 2) {
+      starts = new int[size + 2];
+    }
+    int count = 0;
+    int last = other.runCount - 1;
+    if (isBlack(last)) {
+      // The reversed row starts with black
+      starts[count++] = 0;
+    }
+    // An empty first run would become an empty last run, so is left out
+    int first = other.runCount > 1 && other.getRunWidth(0) == 0 ? 1 : 0;
+    for (int run = last; run >= first; run--) {
+      starts[count++] = size - other.starts[run + 1];
+    }
+    starts[count] = size;
+    runCount = count;
+  }
+
+  /**
+   * @return number of pixels in the row
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * @return number of runs, including an empty first run if the row starts with black
+   */
+  public int getRunCount() {
+    return runCount;
+  }
+
+  /**
+   * @param x pixel in the row
+   * @return index of the run containing the pixel, or {@link #getRunCount()} if it is past the end
+   */
+  public int getRunIndex(int x) {
+    if (x >= size) {
+      return runCount;
+    }
+    // Finds the last run starting at or before x, which skips an empty run 0
+    int low = 0;
+    int high = runCount - 1;
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+      if (starts[mid] <= x) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @param run run index
+   * @return true if the run is black
+   */
+  public static boolean isBlack(int run) {
+    return (run & 0x01) != 0;
+  }
+
+  /**
+   * @param run run index
+   * @return first pixel of the run
+   */
+  public int getRunStart(int run) {
+    return starts[run];
+  }
+
+  /**
+   * @param run run index
+   * @return pixel after the end of the run
+   */
+  public int getRunEnd(int run) {
+    return starts[run + 1];
+  }
+
+  /**
+   * @param run run index
+   * @return number of pixels in the run
+   */
+  public int getRunWidth(int run) {
+    return starts[run + 1] - starts[run];
+  }
+
+  /**
+   * Copies the widths of successive runs.
+   *
+   * @param run index of the first run to copy
+   * @param counters array to fill; the runs must all exist
+   */
+  public void getRunWidths(int run, int[] counters) {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] = starts[run + i + 1] - starts[run + i];
+    }
+  }
+
+}
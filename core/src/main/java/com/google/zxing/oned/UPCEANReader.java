@@ -28,7 +28,6 @@ import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitArray;
 
-import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -105,13 +104,29 @@ public abstract class UPCEANReader extends OneDReader {
   }
 
   static int[] findStartGuardPattern(BitArray row) throws NotFoundException {
+    int[] startRange = findStartGuardPattern(row, new RunLengthRow(row));
+    if (startRange == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return startRange;
+  }
+
+  /**
+   * @param row row to search
+   * @param runs runs of the same row
+   * @return start/end horizontal offset of the first start guard pattern with a quiet zone before
+   *  it, or null if there is none
+   */
+  static int[] findStartGuardPattern(BitArray row, RunLengthRow runs) {
     boolean foundStart = false;
     int[] startRange = null;
     int nextStart = 0;
     int[] counters = new int[START_END_PATTERN.length];
     while (!foundStart) {
-      Arrays.fill(counters, 0, START_END_PATTERN.length, 0);
-      startRange = findGuardPattern(row, nextStart, false, START_END_PATTERN, counters);
+      startRange = findGuardPattern(runs, nextStart, false, START_END_PATTERN, counters);
+      if (startRange == null) {
+        return null;
+      }
       int start = startRange[0];
       nextStart = startRange[1];
       // Make sure there is a quiet zone at least as big as the start pattern before the barcode.
@@ -131,6 +146,29 @@ public abstract class UPCEANReader extends OneDReader {
     return decodeRow(rowNumber, row, findStartGuardPattern(row), hints);
   }
 
+  @Override
+  public Result decodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints)
+      throws NotFoundException, ChecksumException, FormatException {
+    int[] startGuardRange = findStartGuardPattern(row, runs);
+    if (startGuardRange == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return decodeRow(rowNumber, row, startGuardRange, hints);
+  }
+
+  @Override
+  public Result tryDecodeRow(int rowNumber, BitArray row, RunLengthRow runs, Map<DecodeHintType,?> hints) {
+    int[] startGuardRange = findStartGuardPattern(row, runs);
+    if (startGuardRange == null) {
+      return null;
+    }
+    try {
+      return decodeRow(rowNumber, row, startGuardRange, hints);
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
   /**
    * <p>Like {@link #decodeRow(int, BitArray, Map)}, but
    * allows caller to inform method about where the UPC/EAN start pattern is
@@ -346,6 +384,34 @@ public abstract class UPCEANReader extends OneDReader {
     throw NotFoundException.getNotFoundInstance();
   }
 
+  /**
+   * Like {@link #findGuardPattern(BitArray, int, boolean, int[], int[])}, but slides along runs
+   * already found rather than counting pixels, and returns null if the pattern is not found.
+   */
+  private static int[] findGuardPattern(RunLengthRow runs,
+                                        int rowOffset,
+                                        boolean whiteFirst,
+                                        int[] pattern,
+                                        int[] counters) {
+    int run = runs.getRunIndex(rowOffset);
+    int patternStart = rowOffset;
+    if (run < runs.getRunCount() && RunLengthRow.isBlack(run) == whiteFirst) {
+      run++;
+      patternStart = runs.getRunStart(run);
+    }
+    int patternLength = pattern.length;
+    // The last run of the pattern must be followed by another, so that it is complete
+    for (; run + patternLength < runs.getRunCount(); run += 2) {
+      runs.getRunWidths(run, counters);
+      counters[0] = runs.getRunEnd(run) - patternStart;
+      if (patternMatchVariance(counters, pattern, MAX_INDIVIDUAL_VARIANCE) < MAX_AVG_VARIANCE) {
+        return new int[]{patternStart, runs.getRunStart(run + patternLength)};
+      }
+      patternStart = runs.getRunStart(run + 2);
+    }
+    return null;
+  }
+
   /**
    * Attempts to decode a single UPC/EAN-encoded digit.
    *
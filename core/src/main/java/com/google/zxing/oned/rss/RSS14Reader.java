@@ -24,6 +24,7 @@ import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.detector.MathUtils;
+import com.google.zxing.oned.RunLengthRow;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -56,6 +57,7 @@ public final class RSS14Reader extends AbstractRSSReader {
 
   private final List<Pair> possibleLeftPairs;
   private final List<Pair> possibleRightPairs;
+  private RunLengthRow reversedRuns;
 
   public RSS14Reader() {
     possibleLeftPairs = new ArrayList<>();
@@ -66,12 +68,35 @@ public final class RSS14Reader extends AbstractRSSReader {
   public Result decodeRow(int rowNumber,
                           BitArray row,
                           Map<DecodeHintType,?> hints) throws NotFoundException {
-    Pair leftPair = decodePair(row, false, rowNumber, hints);
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber,
+                          BitArray row,
+                          RunLengthRow runs,
+                          Map<DecodeHintType,?> hints) throws NotFoundException {
+    Result result = tryDecodeRow(rowNumber, row, runs, hints);
+    if (result == null) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return result;
+  }
+
+  @Override
+  public Result tryDecodeRow(int rowNumber,
+                             BitArray row,
+                             RunLengthRow runs,
+                             Map<DecodeHintType,?> hints) {
+    Pair leftPair = decodePair(runs, false, rowNumber, hints);
     addOrTally(possibleLeftPairs, leftPair);
-    row.reverse();
-    Pair rightPair = decodePair(row, true, rowNumber, hints);
+    // The right pair is read right to left
+    if (reversedRuns == null) {
+      reversedRuns = new RunLengthRow(row);
+    }
+    reversedRuns.setReversed(runs);
+    Pair rightPair = decodePair(reversedRuns, true, rowNumber, hints);
     addOrTally(possibleRightPairs, rightPair);
-    row.reverse();
     for (Pair left : possibleLeftPairs) {
       if (left.getCount() > 1) {
         for (Pair right : possibleRightPairs) {
@@ -81,7 +106,7 @@ public final class RSS14Reader extends AbstractRSSReader {
         }
       }
     }
-    throw NotFoundException.getNotFoundInstance();
+    return null;
   }
 
   private static void addOrTally(Collection<Pair> possiblePairs, Pair pair) {
@@ -155,10 +180,16 @@ public final class RSS14Reader extends AbstractRSSReader {
     return checkValue == targetCheckValue;
   }
 
-  private Pair decodePair(BitArray row, boolean right, int rowNumber, Map<DecodeHintType,?> hints) {
+  private Pair decodePair(RunLengthRow runs,
+                          boolean right,
+                          int rowNumber,
+                          Map<DecodeHintType,?> hints) {
+    int[] startEnd = findFinderPattern(runs, right);
+    if (startEnd == null) {
+      return null;
+    }
     try {
-      int[] startEnd = findFinderPattern(row, right);
-      FinderPattern pattern = parseFoundFinderPattern(row, rowNumber, right, startEnd);
+      FinderPattern pattern = parseFoundFinderPattern(runs, rowNumber, right, startEnd);
 
       ResultPointCallback resultPointCallback = hints == null ? null :
         (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
@@ -167,13 +198,13 @@ public final class RSS14Reader extends AbstractRSSReader {
         float center = (startEnd[0] + startEnd[1]) / 2.0f;
         if (right) {
           // row is actually reversed
-          center = row.getSize() - 1 - center;
+          center = runs.getSize() - 1 - center;
         }
         resultPointCallback.foundPossibleResultPoint(new ResultPoint(center, rowNumber));
       }
 
-      DataCharacter outside = decodeDataCharacter(row, pattern, true);
-      DataCharacter inside = decodeDataCharacter(row, pattern, false);
+      DataCharacter outside = decodeDataCharacter(runs, pattern, true);
+      DataCharacter inside = decodeDataCharacter(runs, pattern, false);
       return new Pair(1597 * outside.getValue() + inside.getValue(),
                       outside.getChecksumPortion() + 4 * inside.getChecksumPortion(),
                       pattern);
@@ -182,7 +213,7 @@ public final class RSS14Reader extends AbstractRSSReader {
     }
   }
 
-  private DataCharacter decodeDataCharacter(BitArray row, FinderPattern pattern, boolean outsideChar)
+  private DataCharacter decodeDataCharacter(RunLengthRow runs, FinderPattern pattern, boolean outsideChar)
       throws NotFoundException {
 
     int[] counters = getDataCharacterCounters();
@@ -191,9 +222,9 @@ public final class RSS14Reader extends AbstractRSSReader {
     }
 
     if (outsideChar) {
-      recordPatternInReverse(row, pattern.getStartEnd()[0], counters);
+      recordPatternInReverse(runs, pattern.getStartEnd()[0], counters);
     } else {
-      recordPattern(row, pattern.getStartEnd()[1] + 1, counters);
+      recordPattern(runs, pattern.getStartEnd()[1] + 1, counters);
       // reverse it
       for (int i = 0, j = counters.length - 1; i < j; i++, j--) {
         int temp = counters[i];
@@ -274,64 +305,37 @@ public final class RSS14Reader extends AbstractRSSReader {
 
   }
 
-  private int[] findFinderPattern(BitArray row, boolean rightFinderPattern)
-      throws NotFoundException {
+  /**
+   * @return start and end of the four runs after the first element of the first finder pattern,
+   *  or null if there is none
+   */
+  private int[] findFinderPattern(RunLengthRow runs, boolean rightFinderPattern) {
 
     int[] counters = getDecodeFinderCounters();
-    counters[0] = 0;
-    counters[1] = 0;
-    counters[2] = 0;
-    counters[3] = 0;
-
-    int width = row.getSize();
-    boolean isWhite = false;
-    int rowOffset = 0;
-    while (rowOffset < width) {
-      isWhite = !row.get(rowOffset);
-      if (rightFinderPattern == isWhite) {
-        // Will encounter white first when searching for right finder pattern
-        break;
-      }
-      rowOffset++;
+
+    // Will encounter white first when searching for right finder pattern. Run 0 is the first
+    // white run unless it is empty, and run 1 the first black run.
+    int run = 1;
+    if (rightFinderPattern) {
+      run = runs.getRunWidth(0) > 0 ? 0 : 2;
     }
 
-    int counterPosition = 0;
-    int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == 3) {
-          if (isFinderPattern(counters)) {
-            return new int[]{patternStart, x};
-          }
-          patternStart += counters[0] + counters[1];
-          counters[0] = counters[2];
-          counters[1] = counters[3];
-          counters[2] = 0;
-          counters[3] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+    // The last of the four runs must be followed by another, so that it is complete
+    for (; run + 4 < runs.getRunCount(); run += 2) {
+      runs.getRunWidths(run, counters);
+      if (isFinderPattern(counters)) {
+        return new int[]{runs.getRunStart(run), runs.getRunStart(run + 4)};
       }
     }
-    throw NotFoundException.getNotFoundInstance();
+    return null;
 
   }
 
-  private FinderPattern parseFoundFinderPattern(BitArray row, int rowNumber, boolean right, int[] startEnd)
+  private FinderPattern parseFoundFinderPattern(RunLengthRow runs, int rowNumber, boolean right, int[] startEnd)
       throws NotFoundException {
-    // Actually we found elements 2-5
-    boolean firstIsBlack = row.get(startEnd[0]);
-    int firstElementStart = startEnd[0] - 1;
-    // Locate element 1
-    while (firstElementStart >= 0 && firstIsBlack != row.get(firstElementStart)) {
-      firstElementStart--;
-    }
-    firstElementStart++;
+    // Actually we found elements 2-5; element 1 is the run before them
+    int run = runs.getRunIndex(startEnd[0]);
+    int firstElementStart = run > 0 ? runs.getRunStart(run - 1) : startEnd[0];
     int firstCounter = startEnd[0] - firstElementStart;
     // Make 'counters' hold 1-4
     int[] counters = getDecodeFinderCounters();
@@ -342,8 +346,8 @@ public final class RSS14Reader extends AbstractRSSReader {
     int end = startEnd[1];
     if (right) {
       // row is actually reversed
-      start = row.getSize() - 1 - start;
-      end = row.getSize() - 1 - end;
+      start = runs.getSize() - 1 - start;
+      end = runs.getSize() - 1 - end;
     }
     return new FinderPattern(value, new int[] {firstElementStart, startEnd[1]}, start, end, rowNumber);
   }
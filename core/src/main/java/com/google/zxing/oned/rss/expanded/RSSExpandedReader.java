@@ -34,6 +34,7 @@ import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.detector.MathUtils;
+import com.google.zxing.oned.RunLengthRow;
 import com.google.zxing.oned.rss.AbstractRSSReader;
 import com.google.zxing.oned.rss.DataCharacter;
 import com.google.zxing.oned.rss.FinderPattern;
@@ -122,19 +123,27 @@ public final class RSSExpandedReader extends AbstractRSSReader {
   public Result decodeRow(int rowNumber,
                           BitArray row,
                           Map<DecodeHintType,?> hints) throws NotFoundException, FormatException {
+    return decodeRow(rowNumber, row, new RunLengthRow(row), hints);
+  }
+
+  @Override
+  public Result decodeRow(int rowNumber,
+                          BitArray row,
+                          RunLengthRow runs,
+                          Map<DecodeHintType,?> hints) throws NotFoundException, FormatException {
     // Rows can start with even pattern in case in prev rows there where odd number of patters.
     // So lets try twice
     this.pairs.clear();
     this.startFromEven = false;
     try {
-      return constructResult(decodeRow2pairs(rowNumber, row));
+      return constructResult(decodeRow2pairs(rowNumber, row, runs));
     } catch (NotFoundException e) {
       // OK
     }
 
     this.pairs.clear();
     this.startFromEven = true;
-    return constructResult(decodeRow2pairs(rowNumber, row));
+    return constructResult(decodeRow2pairs(rowNumber, row, runs));
   }
 
   @Override
@@ -145,9 +154,14 @@ public final class RSSExpandedReader extends AbstractRSSReader {
 
   // Not private for testing
   List<ExpandedPair> decodeRow2pairs(int rowNumber, BitArray row) throws NotFoundException {
+    return decodeRow2pairs(rowNumber, row, new RunLengthRow(row));
+  }
+
+  private List<ExpandedPair> decodeRow2pairs(int rowNumber, BitArray row, RunLengthRow runs)
+      throws NotFoundException {
     try {
       while (true) {
-        ExpandedPair nextPair = retrieveNextPair(row, this.pairs, rowNumber);
+        ExpandedPair nextPair = retrieveNextPair(row, runs, this.pairs, rowNumber);
         this.pairs.add(nextPair);
         // exit this loop when retrieveNextPair() fails and throws
       }
@@ -418,6 +432,13 @@ public final class RSSExpandedReader extends AbstractRSSReader {
   // not private for testing
   ExpandedPair retrieveNextPair(BitArray row, List<ExpandedPair> previousPairs, int rowNumber)
       throws NotFoundException {
+    return retrieveNextPair(row, new RunLengthRow(row), previousPairs, rowNumber);
+  }
+
+  private ExpandedPair retrieveNextPair(BitArray row,
+                                        RunLengthRow runs,
+                                        List<ExpandedPair> previousPairs,
+                                        int rowNumber) throws NotFoundException {
     boolean isOddPattern  = previousPairs.size() % 2 == 0;
     if (startFromEven) {
       isOddPattern = !isOddPattern;
@@ -428,7 +449,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     boolean keepFinding = true;
     int forcedOffset = -1;
     do {
-      this.findNextPair(row, previousPairs, forcedOffset);
+      this.findNextPair(runs, previousPairs, forcedOffset);
       pattern = parseFoundFinderPattern(row, rowNumber, isOddPattern);
       if (pattern == null) {
         forcedOffset = getNextSecondBar(row, this.startEnd[0]);
@@ -440,7 +461,7 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     // When stacked symbol is split over multiple rows, there's no way to guess if this pair can be last or not.
     // boolean mayBeLast = checkPairSequence(previousPairs, pattern);
 
-    DataCharacter leftChar  = this.decodeDataCharacter(row, pattern, isOddPattern, true);
+    DataCharacter leftChar  = this.decodeDataCharacter(runs, pattern, isOddPattern, true);
 
     if (!previousPairs.isEmpty() && previousPairs.get(previousPairs.size() - 1).mustBeLast()) {
       throw NotFoundException.getNotFoundInstance();
@@ -448,22 +469,16 @@ public final class RSSExpandedReader extends AbstractRSSReader {
 
     DataCharacter rightChar;
     try {
-      rightChar = this.decodeDataCharacter(row, pattern, isOddPattern, false);
+      rightChar = this.decodeDataCharacter(runs, pattern, isOddPattern, false);
     } catch (NotFoundException ignored) {
       rightChar = null;
     }
     return new ExpandedPair(leftChar, rightChar, pattern, true);
   }
 
-  private void findNextPair(BitArray row, List<ExpandedPair> previousPairs, int forcedOffset)
+  private void findNextPair(RunLengthRow runs, List<ExpandedPair> previousPairs, int forcedOffset)
       throws NotFoundException {
     int[] counters = this.getDecodeFinderCounters();
-    counters[0] = 0;
-    counters[1] = 0;
-    counters[2] = 0;
-    counters[3] = 0;
-
-    int width = row.getSize();
 
     int rowOffset;
     if (forcedOffset >= 0) {
@@ -479,48 +494,27 @@ public final class RSSExpandedReader extends AbstractRSSReader {
       searchingEvenPair = !searchingEvenPair;
     }
 
-    boolean isWhite = false;
-    while (rowOffset < width) {
-      isWhite = !row.get(rowOffset);
-      if (!isWhite) {
-        break;
-      }
-      rowOffset++;
-    }
-
-    int counterPosition = 0;
+    // Start at the first black pixel from rowOffset, which may be part way through a run
+    int run = runs.getRunIndex(rowOffset);
     int patternStart = rowOffset;
-    for (int x = rowOffset; x < width; x++) {
-      if (row.get(x) != isWhite) {
-        counters[counterPosition]++;
-      } else {
-        if (counterPosition == 3) {
-          if (searchingEvenPair) {
-            reverseCounters(counters);
-          }
-
-          if (isFinderPattern(counters)) {
-            this.startEnd[0] = patternStart;
-            this.startEnd[1] = x;
-            return;
-          }
-
-          if (searchingEvenPair) {
-            reverseCounters(counters);
-          }
+    if (run < runs.getRunCount() && !RunLengthRow.isBlack(run)) {
+      run++;
+      patternStart = runs.getRunStart(run);
+    }
 
-          patternStart += counters[0] + counters[1];
-          counters[0] = counters[2];
-          counters[1] = counters[3];
-          counters[2] = 0;
-          counters[3] = 0;
-          counterPosition--;
-        } else {
-          counterPosition++;
-        }
-        counters[counterPosition] = 1;
-        isWhite = !isWhite;
+    // The last of the four runs must be followed by another, so that it is complete
+    for (; run + 4 < runs.getRunCount(); run += 2) {
+      runs.getRunWidths(run, counters);
+      counters[0] = runs.getRunEnd(run) - patternStart;
+      if (searchingEvenPair) {
+        reverseCounters(counters);
       }
+      if (isFinderPattern(counters)) {
+        this.startEnd[0] = patternStart;
+        this.startEnd[1] = runs.getRunStart(run + 4);
+        return;
+      }
+      patternStart = runs.getRunStart(run + 2);
     }
     throw NotFoundException.getNotFoundInstance();
   }
@@ -581,15 +575,22 @@ public final class RSSExpandedReader extends AbstractRSSReader {
                                     FinderPattern pattern,
                                     boolean isOddPattern,
                                     boolean leftChar) throws NotFoundException {
+    return decodeDataCharacter(new RunLengthRow(row), pattern, isOddPattern, leftChar);
+  }
+
+  private DataCharacter decodeDataCharacter(RunLengthRow runs,
+                                            FinderPattern pattern,
+                                            boolean isOddPattern,
+                                            boolean leftChar) throws NotFoundException {
     int[] counters = this.getDataCharacterCounters();
     for (int x = 0; x < counters.length; x++) {
       counters[x] = 0;
     }
 
     if (leftChar) {
-      recordPatternInReverse(row, pattern.getStartEnd()[0], counters);
+      recordPatternInReverse(runs, pattern.getStartEnd()[0], counters);
     } else {
-      recordPattern(row, pattern.getStartEnd()[1], counters);
+      recordPattern(runs, pattern.getStartEnd()[1], counters);
       // reverse it
       for (int i = 0, j = counters.length - 1; i < j; i++, j--) {
         int temp = counters[i];
@@ -26,6 +26,7 @@ import com.google.zxing.Reader;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
 import com.google.zxing.ResultPoint;
+import com.google.zxing.common.Deadline;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.multi.MultipleBarcodeReader;
 import com.google.zxing.pdf417.decoder.PDF417ScanningDecoder;
@@ -82,10 +83,23 @@ public final class PDF417Reader implements Reader, MultipleBarcodeReader {
   private static Result[] decode(BinaryBitmap image, Map<DecodeHintType, ?> hints, boolean multiple) 
       throws NotFoundException, FormatException, ChecksumException {
     List<Result> results = new ArrayList<>();
+    Deadline deadline = Deadline.fromHints(hints);
+    if (deadline != null && deadline.isExpired()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
     PDF417DetectorResult detectorResult = Detector.detect(image, hints, multiple);
     for (ResultPoint[] points : detectorResult.getPoints()) {
-      DecoderResult decoderResult = PDF417ScanningDecoder.decode(detectorResult.getBits(), points[4], points[5],
-          points[6], points[7], getMinCodewordWidth(points), getMaxCodewordWidth(points));
+      DecoderResult decoderResult;
+      try {
+        decoderResult = PDF417ScanningDecoder.decode(detectorResult.getBits(), points[4], points[5],
+            points[6], points[7], getMinCodewordWidth(points), getMaxCodewordWidth(points), deadline);
+      } catch (NotFoundException nfe) {
+        if (deadline != null && deadline.isExpired()) {
+          // Out of time; return those decoded so far
+          break;
+        }
+        throw nfe;
+      }
       Result result = new Result(decoderResult.getText(), decoderResult.getRawBytes(), points, BarcodeFormat.PDF_417);
       result.putMetadata(ResultMetadataType.ERROR_CORRECTION_LEVEL, decoderResult.getECLevel());
       PDF417ResultMetadata pdf417ResultMetadata = (PDF417ResultMetadata) decoderResult.getOther();
@@ -21,6 +21,7 @@ import com.google.zxing.FormatException;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Deadline;
 import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.detector.MathUtils;
 import com.google.zxing.pdf417.PDF417Common;
@@ -56,6 +57,24 @@ public final class PDF417ScanningDecoder {
                                      ResultPoint imageBottomRight,
                                      int minCodewordWidth,
                                      int maxCodewordWidth) throws NotFoundException, FormatException, ChecksumException {
+    return decode(image, imageTopLeft, imageBottomLeft, imageTopRight, imageBottomRight, minCodewordWidth,
+        maxCodewordWidth, null);
+  }
+
+  /**
+   * Like {@link #decode(BitMatrix, ResultPoint, ResultPoint, ResultPoint, ResultPoint, int, int)}, but gives up
+   * with a {@link NotFoundException} once the deadline passes.
+   *
+   * @param deadline deadline to check between columns and between guesses at ambiguous codewords, or null
+   */
+  public static DecoderResult decode(BitMatrix image,
+                                     ResultPoint imageTopLeft,
+                                     ResultPoint imageBottomLeft,
+                                     ResultPoint imageTopRight,
+                                     ResultPoint imageBottomRight,
+                                     int minCodewordWidth,
+                                     int maxCodewordWidth,
+                                     Deadline deadline) throws NotFoundException, FormatException, ChecksumException {
     BoundingBox boundingBox = new BoundingBox(image, imageTopLeft, imageBottomLeft, imageTopRight, imageBottomRight);
     DetectionResultRowIndicatorColumn leftRowIndicatorColumn = null;
     DetectionResultRowIndicatorColumn rightRowIndicatorColumn = null;
@@ -88,6 +107,7 @@ public final class PDF417ScanningDecoder {
 
     boolean leftToRight = leftRowIndicatorColumn != null;
     for (int barcodeColumnCount = 1; barcodeColumnCount <= maxBarcodeColumn; barcodeColumnCount++) {
+      checkDeadline(deadline);
       int barcodeColumn = leftToRight ? barcodeColumnCount : maxBarcodeColumn - barcodeColumnCount;
       if (detectionResult.getDetectionResultColumn(barcodeColumn) != null) {
         // This will be the case for the opposite row indicator column, which doesn't need to be decoded again.
@@ -121,7 +141,13 @@ public final class PDF417ScanningDecoder {
         }
       }
     }
-    return createDecoderResult(detectionResult);
+    return createDecoderResult(detectionResult, deadline);
+  }
+
+  private static void checkDeadline(Deadline deadline) throws NotFoundException {
+    if (deadline != null && deadline.isExpired()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
   }
 
   private static DetectionResult merge(DetectionResultRowIndicatorColumn leftRowIndicatorColumn,
@@ -249,8 +275,8 @@ public final class PDF417ScanningDecoder {
     }
   }
 
-  private static DecoderResult createDecoderResult(DetectionResult detectionResult) throws FormatException,
-      ChecksumException, NotFoundException {
+  private static DecoderResult createDecoderResult(DetectionResult detectionResult, Deadline deadline)
+      throws FormatException, ChecksumException, NotFoundException {
     BarcodeValue[][] barcodeMatrix = createBarcodeMatrix(detectionResult);
     adjustCodewordCount(detectionResult, barcodeMatrix);
     Collection<Integer> erasures = new ArrayList<>();
@@ -276,7 +302,8 @@ public final class PDF417ScanningDecoder {
       ambiguousIndexValues[i] = ambiguousIndexValuesList.get(i);
     }
     return createDecoderResultFromAmbiguousValues(detectionResult.getBarcodeECLevel(), codewords,
-        PDF417Common.toIntArray(erasures), PDF417Common.toIntArray(ambiguousIndexesList), ambiguousIndexValues);
+        PDF417Common.toIntArray(erasures), PDF417Common.toIntArray(ambiguousIndexesList), ambiguousIndexValues,
+        deadline);
   }
 
   /**
@@ -291,17 +318,20 @@ public final class PDF417ScanningDecoder {
    * @param ambiguousIndexes array with the indexes that have more than one most likely value
    * @param ambiguousIndexValues two dimensional array that contains the ambiguous values. The first dimension must
    * be the same length as the ambiguousIndexes array
+   * @param deadline deadline to check before each try, or null
    */
   private static DecoderResult createDecoderResultFromAmbiguousValues(int ecLevel,
                                                                       int[] codewords,
                                                                       int[] erasureArray,
                                                                       int[] ambiguousIndexes,
-                                                                      int[][] ambiguousIndexValues)
-      throws FormatException, ChecksumException {
+                                                                      int[][] ambiguousIndexValues,
+                                                                      Deadline deadline)
+      throws FormatException, ChecksumException, NotFoundException {
     int[] ambiguousIndexCount = new int[ambiguousIndexes.length];
 
     int tries = 100;
     while (tries-- > 0) {
+      checkDeadline(deadline);
       for (int i = 0; i < ambiguousIndexCount.length; i++) {
         codewords[ambiguousIndexes[i]] = ambiguousIndexValues[i][ambiguousIndexCount[i]];
       }
@@ -22,6 +22,7 @@ import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecodeContext;
 import com.google.zxing.common.DetectorResult;
 import com.google.zxing.common.GridSampler;
 import com.google.zxing.common.PerspectiveTransform;
@@ -40,6 +41,7 @@ public class Detector {
 
   private final BitMatrix image;
   private ResultPointCallback resultPointCallback;
+  private DecodeContext decodeContext;
 
   public Detector(BitMatrix image) {
     this.image = image;
@@ -76,6 +78,7 @@ public class Detector {
 
     resultPointCallback = hints == null ? null :
         (ResultPointCallback) hints.get(DecodeHintType.NEED_RESULT_POINT_CALLBACK);
+    decodeContext = hints == null ? null : (DecodeContext) hints.get(DecodeHintType.DECODE_CONTEXT);
 
     FinderPatternFinder finder = new FinderPatternFinder(image, resultPointCallback);
     FinderPatternInfo info = finder.find(hints);
@@ -130,7 +133,7 @@ public class Detector {
     PerspectiveTransform transform =
         createTransform(topLeft, topRight, bottomLeft, alignmentPattern, dimension);
 
-    BitMatrix bits = sampleGrid(image, transform, dimension);
+    BitMatrix bits = sampleGrid(image, transform, dimension, decodeContext);
 
     ResultPoint[] points;
     if (alignmentPattern == null) {
@@ -185,10 +188,11 @@ public class Detector {
 
   private static BitMatrix sampleGrid(BitMatrix image,
                                       PerspectiveTransform transform,
-                                      int dimension) throws NotFoundException {
+                                      int dimension,
+                                      DecodeContext context) throws NotFoundException {
 
     GridSampler sampler = GridSampler.getInstance();
-    return sampler.sampleGrid(image, dimension, dimension, transform);
+    return sampler.sampleGrid(image, dimension, dimension, transform, context);
   }
 
   /**
@@ -20,7 +20,9 @@ import com.google.zxing.DecodeHintType;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.ResultPoint;
 import com.google.zxing.ResultPointCallback;
+import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.Deadline;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -28,6 +30,8 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * <p>This class attempts to find finder patterns in a QR Code. Finder patterns are the square
@@ -42,6 +46,7 @@ public class FinderPatternFinder {
   private static final int CENTER_QUORUM = 2;
   protected static final int MIN_SKIP = 3; // 1 pixel/module times 3 modules/center
   protected static final int MAX_MODULES = 97; // support up to version 20 for mobile clients
+  private static final int MIN_BAND_ROWS = 16; // rows scanned by each parallel task, at least
 
   private final BitMatrix image;
   private final List<FinderPattern> possibleCenters;
@@ -89,64 +94,73 @@ public class FinderPatternFinder {
       iSkip = MIN_SKIP;
     }
 
+    Deadline deadline = Deadline.fromHints(hints);
     boolean done = false;
     int[] stateCount = new int[5];
+    BitArray row = null;
     for (int i = iSkip - 1; i < maxI && !done; i += iSkip) {
-      // Get a row of black/white values
+      if (deadline != null && deadline.isExpired()) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+      // Get a row of black/white values, and walk it a run of one color at a time
+      row = image.getRow(i, row);
       clearCounts(stateCount);
       int currentState = 0;
-      for (int j = 0; j < maxJ; j++) {
-        if (image.get(j, i)) {
-          // Black pixel
+      for (int j = 0; j < maxJ;) {
+        boolean black = row.get(j);
+        int runEnd = black ? row.getNextUnset(j) : row.getNextSet(j);
+        int runLength = runEnd - j;
+        if (black) {
           if ((currentState & 1) == 1) { // Counting white pixels
             currentState++;
           }
-          stateCount[currentState]++;
-        } else { // White pixel
-          if ((currentState & 1) == 0) { // Counting black pixels
-            if (currentState == 4) { // A winner?
-              if (foundPatternCross(stateCount)) { // Yes
-                boolean confirmed = handlePossibleCenter(stateCount, i, j);
-                if (confirmed) {
-                  // Start examining every other line. Checking each line turned out to be too
-                  // expensive and didn't improve performance.
-                  iSkip = 2;
-                  if (hasSkipped) {
-                    done = haveMultiplyConfirmedCenters();
-                  } else {
-                    int rowSkip = findRowSkip();
-                    if (rowSkip > stateCount[2]) {
-                      // Skip rows between row of lower confirmed center
-                      // and top of presumed third confirmed center
-                      // but back up a bit to get a full chance of detecting
-                      // it, entire width of center of finder pattern
-
-                      // Skip by rowSkip, but back off by stateCount[2] (size of last center
-                      // of pattern we saw) to be conservative, and also back off by iSkip which
-                      // is about to be re-added
-                      i += rowSkip - stateCount[2] - iSkip;
-                      j = maxJ - 1;
-                    }
-                  }
-                } else {
-                  shiftCounts2(stateCount);
-                  currentState = 3;
-                  continue;
-                }
-                // Clear state to start looking again
-                currentState = 0;
-                clearCounts(stateCount);
-              } else { // No, shift counts back by two
-                shiftCounts2(stateCount);
-                currentState = 3;
-              }
+          stateCount[currentState] += runLength;
+        } else if ((currentState & 1) == 1) { // Counting white pixels
+          stateCount[currentState] += runLength;
+        } else if (currentState != 4) {
+          stateCount[++currentState] += runLength;
+        } else { // A winner?
+          if (foundPatternCross(stateCount) && handlePossibleCenter(stateCount, i, j)) { // Yes
+            // Start examining every other line. Checking each line turned out to be too
+            // expensive and didn't improve performance.
+            iSkip = 2;
+            boolean skipRows = false;
+            if (hasSkipped) {
+              done = haveMultiplyConfirmedCenters();
             } else {
-              stateCount[++currentState]++;
+              int rowSkip = findRowSkip();
+              if (rowSkip > stateCount[2]) {
+                // Skip rows between row of lower confirmed center
+                // and top of presumed third confirmed center
+                // but back up a bit to get a full chance of detecting
+                // it, entire width of center of finder pattern
+
+                // Skip by rowSkip, but back off by stateCount[2] (size of last center
+                // of pattern we saw) to be conservative, and also back off by iSkip which
+                // is about to be re-added
+                i += rowSkip - stateCount[2] - iSkip;
+                skipRows = true;
+              }
+            }
+            // Clear state to start looking again
+            currentState = 0;
+            clearCounts(stateCount);
+            if (skipRows) {
+              break;
             }
-          } else { // Counting white pixels
-            stateCount[currentState]++;
+          } else { // No, shift counts back by two
+            shiftCounts2(stateCount);
+            currentState = 3;
+          }
+          // The first white pixel after the pattern is not counted; the rest of the run is
+          if (runLength > 1) {
+            if (currentState == 0) {
+              currentState = 1;
+            }
+            stateCount[currentState] += runLength - 1;
           }
         }
+        j = runEnd;
       }
       if (foundPatternCross(stateCount)) {
         boolean confirmed = handlePossibleCenter(stateCount, i, maxJ);
@@ -166,6 +180,121 @@ public class FinderPatternFinder {
     return new FinderPatternInfo(patternInfo);
   }
 
+  /**
+   * <p>Scans every {@code iSkip}th row of the whole image for possible finder patterns, without
+   * skipping ahead or stopping early.</p>
+   *
+   * <p>With a {@link ForkJoinPool} under {@link DecodeHintType#FINDER_PATTERN_POOL}, bands of rows
+   * are scanned in parallel, each by its own finder. Their candidates are merged in order of band,
+   * so the result depends only on the image, and are passed to the {@link ResultPointCallback}
+   * once all bands are done.</p>
+   *
+   * @param iSkip distance between rows scanned
+   * @param hints decode hints, or null
+   * @throws NotFoundException if the {@link DecodeHintType#DEADLINE} passes
+   */
+  protected final void findPossibleCenters(int iSkip, Map<DecodeHintType,?> hints)
+      throws NotFoundException {
+    Deadline deadline = Deadline.fromHints(hints);
+    ForkJoinPool pool =
+        hints == null ? null : (ForkJoinPool) hints.get(DecodeHintType.FINDER_PATTERN_POOL);
+    int maxI = image.getHeight();
+    if (pool == null || maxI < 2 * MIN_BAND_ROWS * iSkip) {
+      if (!scanRows(0, maxI, iSkip, deadline)) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+      return;
+    }
+    List<FinderPattern> found = pool.invoke(new RowBandTask(image, iSkip, deadline, 0, maxI));
+    if (deadline != null && deadline.isExpired()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    for (FinderPattern center : found) {
+      possibleCenters.add(center);
+      if (resultPointCallback != null) {
+        resultPointCallback.foundPossibleResultPoint(center);
+      }
+    }
+  }
+
+  /**
+   * Scans every {@code iSkip}th row, counting from the top of the image, from startI up to
+   * endI for possible finder patterns.
+   *
+   * @return false if the deadline passed before all rows were scanned
+   */
+  private boolean scanRows(int startI, int endI, int iSkip, Deadline deadline) {
+    int maxJ = image.getWidth();
+    int[] stateCount = new int[5];
+    BitArray row = null;
+    for (int i = (startI + iSkip) / iSkip * iSkip - 1; i < endI; i += iSkip) {
+      if (deadline != null && deadline.isExpired()) {
+        return false;
+      }
+      // Get a row of black/white values, and walk it a run of one color at a time
+      row = image.getRow(i, row);
+      clearCounts(stateCount);
+      int currentState = 0;
+      for (int j = 0; j < maxJ;) {
+        boolean black = row.get(j);
+        int runEnd = black ? row.getNextUnset(j) : row.getNextSet(j);
+        int runLength = runEnd - j;
+        if (black) {
+          if ((currentState & 1) == 1) { // Counting white pixels
+            currentState++;
+          }
+          stateCount[currentState] += runLength;
+        } else if ((currentState & 1) == 1) { // Counting white pixels
+          stateCount[currentState] += runLength;
+        } else if (currentState != 4) {
+          stateCount[++currentState] += runLength;
+        } else { // A winner?
+          if (foundPatternCross(stateCount) && handlePossibleCenter(stateCount, i, j)) { // Yes
+            // Clear state to start looking again
+            currentState = 0;
+            clearCounts(stateCount);
+          } else { // No, shift counts back by two
+            shiftCounts2(stateCount);
+            currentState = 3;
+          }
+          // The first white pixel after the pattern is not counted; the rest of the run is
+          if (runLength > 1) {
+            if (currentState == 0) {
+              currentState = 1;
+            }
+            stateCount[currentState] += runLength - 1;
+          }
+        }
+        j = runEnd;
+      }
+      if (foundPatternCross(stateCount)) {
+        handlePossibleCenter(stateCount, i, maxJ);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds candidates found by another finder to a list of candidates, combining each with the
+   * first one in the list it about equals, if any.
+   */
+  private static void mergeCenters(List<FinderPattern> centers, List<FinderPattern> others) {
+    for (FinderPattern other : others) {
+      boolean found = false;
+      for (int index = 0; index < centers.size(); index++) {
+        FinderPattern center = centers.get(index);
+        if (center.aboutEquals(other.getEstimatedModuleSize(), other.getY(), other.getX())) {
+          centers.set(index, center.combineEstimate(other));
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        centers.add(other);
+      }
+    }
+  }
+
   /**
    * Given a count of black/white/black/white/black pixels just seen and an end position,
    * figures the location of the center of this run.
@@ -655,6 +784,48 @@ public class FinderPatternFinder {
     };
   }
 
+  /**
+   * <p>Splits a band of rows in half until it is small enough to scan directly. Where the halves
+   * are split depends only on the band, and the upper half's candidates come first when merging,
+   * so the candidates found do not depend on scheduling.</p>
+   *
+   * <p>A finder pattern straddling two bands is still found by both, since the cross checks
+   * read beyond the band; the merge then combines the two.</p>
+   */
+  private static final class RowBandTask extends RecursiveTask<List<FinderPattern>> {
+
+    private final BitMatrix image;
+    private final int iSkip;
+    private final Deadline deadline;
+    private final int startI;
+    private final int endI;
+
+    RowBandTask(BitMatrix image, int iSkip, Deadline deadline, int startI, int endI) {
+      this.image = image;
+      this.iSkip = iSkip;
+      this.deadline = deadline;
+      this.startI = startI;
+      this.endI = endI;
+    }
+
+    @Override
+    protected List<FinderPattern> compute() {
+      if (endI - startI < 2 * MIN_BAND_ROWS * iSkip) {
+        FinderPatternFinder finder = new FinderPatternFinder(image);
+        finder.scanRows(startI, endI, iSkip, deadline);
+        return finder.possibleCenters;
+      }
+      int middle = (startI + endI) >>> 1;
+      RowBandTask upper = new RowBandTask(image, iSkip, deadline, startI, middle);
+      RowBandTask lower = new RowBandTask(image, iSkip, deadline, middle, endI);
+      invokeAll(upper, lower);
+      List<FinderPattern> centers = upper.join();
+      mergeCenters(centers, lower.join());
+      return centers;
+    }
+
+  }
+
   /**
    * <p>Orders by furthest from average</p>
    */
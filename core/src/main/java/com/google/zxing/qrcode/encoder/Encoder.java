@@ -49,6 +49,22 @@ public final class Encoder {
 
   static final String DEFAULT_BYTE_MODE_ENCODING = "ISO-8859-1";
 
+  // Shared by all threads. Its generator polynomials are built here for up to the most EC bytes in
+  // any block of any version, after which it only reads them.
+  private static final ReedSolomonEncoder EC_ENCODER = new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256);
+  private static final int MAX_EC_BYTES_IN_BLOCK;
+  static {
+    int maxEcBytes = 0;
+    for (int versionNumber = 1; versionNumber <= 40; versionNumber++) {
+      Version version = Version.getVersionForNumber(versionNumber);
+      for (ErrorCorrectionLevel ecLevel : ErrorCorrectionLevel.values()) {
+        maxEcBytes = Math.max(maxEcBytes, version.getECBlocksForLevel(ecLevel).getECCodewordsPerBlock());
+      }
+    }
+    MAX_EC_BYTES_IN_BLOCK = maxEcBytes;
+    EC_ENCODER.encode(new int[maxEcBytes + 1], maxEcBytes);
+  }
+
   private Encoder() {
   }
 
@@ -468,7 +484,9 @@ public final class Encoder {
     for (int i = 0; i < numDataBytes; i++) {
       toEncode[i] = dataBytes[i] & 0xFF;
     }
-    new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256).encode(toEncode, numEcBytesInBlock);
+    ReedSolomonEncoder encoder = numEcBytesInBlock <= MAX_EC_BYTES_IN_BLOCK
+        ? EC_ENCODER : new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256);
+    encoder.encode(toEncode, numEcBytesInBlock);
 
     byte[] ecBytes = new byte[numEcBytesInBlock];
     for (int i = 0; i < numEcBytesInBlock; i++) {
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public final class BinaryBitmapTestCase extends Assert {
+
+  private static final int WIDTH = 157;
+  private static final int HEIGHT = 93;
+
+  @Test
+  public void testCropViews() throws NotFoundException {
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(createSource()), true);
+    BitMatrix matrix = bitmap.getBlackMatrix();
+
+    BinaryBitmap crop = bitmap.crop(13, 7, 101, 60);
+    assertEquals(101, crop.getWidth());
+    assertEquals(60, crop.getHeight());
+    assertEquals(matrix.crop(13, 7, 101, 60), crop.getBlackMatrix());
+    checkRows(bitmap, crop, 13, 7);
+
+    // Crops of crops are cut from the original
+    BinaryBitmap cropOfCrop = crop.crop(40, 3, 50, 40);
+    assertEquals(matrix.crop(53, 10, 50, 40), cropOfCrop.getBlackMatrix());
+    checkRows(bitmap, cropOfCrop, 53, 10);
+  }
+
+  @Test
+  public void testCropsBinarizedAnew() throws NotFoundException {
+    LuminanceSource source = createSource();
+    BinaryBitmap crop = new BinaryBitmap(new HybridBinarizer(source)).crop(13, 7, 101, 60);
+    assertEquals(new HybridBinarizer(source.crop(13, 7, 101, 60)).getBlackMatrix(), crop.getBlackMatrix());
+  }
+
+  private static void checkRows(BinaryBitmap bitmap, BinaryBitmap crop, int left, int top) throws NotFoundException {
+    BitArray row = new BitArray(crop.getWidth());
+    for (int y = 0; y < crop.getHeight(); y++) {
+      BitArray expected = bitmap.getBlackRow(top + y, null);
+      row = crop.getBlackRow(y, row);
+      for (int x = 0; x < crop.getWidth(); x++) {
+        assertEquals(expected.get(left + x), row.get(x));
+      }
+    }
+  }
+
+  private static LuminanceSource createSource() {
+    byte[] luminances = new byte[WIDTH * HEIGHT];
+    new Random(WIDTH).nextBytes(luminances);
+    return new PlanarYUVLuminanceSource(luminances, WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT, false);
+  }
+
+}
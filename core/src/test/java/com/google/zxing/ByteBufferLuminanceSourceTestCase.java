@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+public final class ByteBufferLuminanceSourceTestCase extends Assert {
+
+  // Two bytes of header, then 4 rows of 5 pixels, each padded to 6 bytes, then chroma
+  private static final byte[] DATA = {
+       9,  9,
+       0,  1,  1,  2,  3, 99,
+       8, 13, 21, 34, 55, 99,
+       0, -1, -1, -2, -3, 99,
+      -8, -13, -21, -34, -55,
+      127, 127, 127, 127,
+  };
+  private static final int OFFSET = 2;
+  private static final int STRIDE = 6;
+  private static final int COLS = 5;
+  private static final int ROWS = 4;
+
+  @Test
+  public void testHeapBuffer() {
+    check(ByteBuffer.wrap(DATA));
+    assertFalse(new ByteBufferLuminanceSource(ByteBuffer.wrap(DATA), OFFSET, STRIDE, COLS, ROWS)
+        .isRowAccessPreferred());
+  }
+
+  @Test
+  public void testDirectBuffer() {
+    ByteBuffer direct = ByteBuffer.allocateDirect(DATA.length);
+    direct.put(DATA);
+    // position is now at the end, which must not matter
+    check(direct);
+    LuminanceSource source = new ByteBufferLuminanceSource(direct, OFFSET, STRIDE, COLS, ROWS);
+    assertTrue(source.isRowAccessPreferred());
+    assertTrue(source.invert().isRowAccessPreferred());
+  }
+
+  @Test
+  public void testUnpadded() {
+    byte[] y = new byte[COLS * ROWS];
+    for (int r = 0; r < ROWS; r++) {
+      System.arraycopy(DATA, OFFSET + r * STRIDE, y, r * COLS, COLS);
+    }
+    LuminanceSource source = new ByteBufferLuminanceSource(ByteBuffer.wrap(y), 0, COLS, COLS, ROWS);
+    assertSame(y, source.getMatrix());
+    ByteBuffer direct = ByteBuffer.allocateDirect(y.length);
+    direct.put(y);
+    assertArrayEquals(y, new ByteBufferLuminanceSource(direct, 0, COLS, COLS, ROWS).getMatrix());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooSmall() {
+    new ByteBufferLuminanceSource(ByteBuffer.wrap(DATA), OFFSET, STRIDE, COLS, ROWS + 1);
+  }
+
+  private static void check(ByteBuffer data) {
+    LuminanceSource source = new ByteBufferLuminanceSource(data, OFFSET, STRIDE, COLS, ROWS);
+    byte[] matrix = source.getMatrix();
+    for (int r = 0; r < ROWS; r++) {
+      assertEquals(DATA, OFFSET + r * STRIDE, matrix, r * COLS, COLS);
+      assertEquals(DATA, OFFSET + r * STRIDE, source.getRow(r, null), 0, COLS);
+    }
+
+    LuminanceMatrix view = source.crop(1, 1, COLS - 2, ROWS - 2).getMatrixView();
+    for (int r = 0; r < ROWS - 2; r++) {
+      assertEquals(DATA, OFFSET + (r + 1) * STRIDE + 1,
+                   view.getData(), view.getOffset() + r * view.getRowStride(), COLS - 2);
+    }
+
+    assertTrue(source.isCropSupported());
+    LuminanceSource crop = source.crop(1, 1, COLS - 2, ROWS - 2);
+    byte[] cropMatrix = crop.getMatrix();
+    for (int r = 0; r < ROWS - 2; r++) {
+      assertEquals(DATA, OFFSET + (r + 1) * STRIDE + 1, cropMatrix, r * (COLS - 2), COLS - 2);
+      assertEquals(DATA, OFFSET + (r + 1) * STRIDE + 1, crop.getRow(r, null), 0, COLS - 2);
+    }
+  }
+
+  private static void assertEquals(byte[] expected, int expectedFrom,
+                                   byte[] actual, int actualFrom,
+                                   int length) {
+    for (int i = 0; i < length; i++) {
+      assertEquals(expected[expectedFrom + i], actual[actualFrom + i]);
+    }
+  }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public final class DownscaledLuminanceSourceTestCase extends Assert {
+
+  private static final int WIDTH = 23;
+  private static final int HEIGHT = 17;
+
+  @Test
+  public void testBoxFilter() {
+    LuminanceSource source = createSource();
+    byte[] original = source.getMatrix();
+    for (int factor = 1; factor <= 4; factor++) {
+      LuminanceSource downscaled = new DownscaledLuminanceSource(source, factor);
+      // Partial blocks are dropped
+      assertEquals(WIDTH / factor, downscaled.getWidth());
+      assertEquals(HEIGHT / factor, downscaled.getHeight());
+      byte[] matrix = downscaled.getMatrix();
+      for (int y = 0; y < downscaled.getHeight(); y++) {
+        byte[] row = downscaled.getRow(y, null);
+        for (int x = 0; x < downscaled.getWidth(); x++) {
+          int sum = 0;
+          for (int j = 0; j < factor; j++) {
+            for (int i = 0; i < factor; i++) {
+              sum += original[(y * factor + j) * WIDTH + x * factor + i] & 0xff;
+            }
+          }
+          int expected = Math.round((float) sum / (factor * factor));
+          assertEquals(expected, row[x] & 0xff, 1);
+          assertEquals(row[x], matrix[y * downscaled.getWidth() + x]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testDirectBuffer() {
+    LuminanceSource source = createSource();
+    ByteBuffer direct = ByteBuffer.allocateDirect(WIDTH * HEIGHT);
+    direct.put(source.getMatrix());
+    LuminanceSource mapped = new ByteBufferLuminanceSource(direct, 0, WIDTH, WIDTH, HEIGHT);
+    for (int factor = 1; factor <= 4; factor++) {
+      LuminanceSource expected = new DownscaledLuminanceSource(source, factor);
+      LuminanceSource downscaled = new DownscaledLuminanceSource(mapped, factor);
+      assertArrayEquals(expected.getMatrix(), downscaled.getMatrix());
+      assertArrayEquals(expected.getRow(1, null), downscaled.getRow(1, null));
+    }
+  }
+
+  @Test
+  public void testCrop() {
+    LuminanceSource source = createSource();
+    LuminanceSource downscaled = new DownscaledLuminanceSource(source, 2);
+    assertTrue(downscaled.isCropSupported());
+    LuminanceSource crop = downscaled.crop(1, 2, 7, 5);
+    assertEquals(7, crop.getWidth());
+    assertEquals(5, crop.getHeight());
+    for (int y = 0; y < 5; y++) {
+      byte[] expected = downscaled.getRow(y + 2, null);
+      byte[] row = crop.getRow(y, null);
+      for (int x = 0; x < 7; x++) {
+        assertEquals(expected[x + 1], row[x]);
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooSmall() {
+    new DownscaledLuminanceSource(createSource(), HEIGHT + 1);
+  }
+
+  private static LuminanceSource createSource() {
+    byte[] luminances = new byte[WIDTH * HEIGHT];
+    new Random(WIDTH).nextBytes(luminances);
+    return new PlanarYUVLuminanceSource(luminances, WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT, false);
+  }
+
+}
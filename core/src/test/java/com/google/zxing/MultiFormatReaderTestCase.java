@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing;
+
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.BitMatrixLuminanceSources;
+import com.google.zxing.common.DecodeContext;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests {@link MultiFormatReader}.
+ */
+public final class MultiFormatReaderTestCase extends Assert {
+
+  @Test
+  public void testConcurrentReaders() throws WriterException {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+      hints.put(DecodeHintType.READER_EXECUTOR, executor);
+      hints.put(DecodeHintType.DECODE_CONTEXT, new DecodeContext());
+      MultiFormatReader concurrent = new MultiFormatReader();
+      concurrent.setHints(hints);
+      MultiFormatReader serial = new MultiFormatReader();
+      serial.setHints(null);
+
+      MultiFormatWriter writer = new MultiFormatWriter();
+      BitMatrix blank = new BitMatrix(200, 200);
+      BitMatrix[] matrices = {
+          writer.encode("concurrent", BarcodeFormat.QR_CODE, 200, 200),
+          writer.encode("CONCURRENT", BarcodeFormat.CODE_128, 300, 60),
+          writer.encode("concurrent", BarcodeFormat.DATA_MATRIX, 100, 100),
+          writer.encode("concurrent", BarcodeFormat.AZTEC, 200, 200),
+          writer.encode("concurrent", BarcodeFormat.PDF_417, 300, 150),
+          blank,
+      };
+      for (int i = 0; i < 3; i++) {
+        for (BitMatrix matrix : matrices) {
+          LuminanceSource source = BitMatrixLuminanceSources.toSource(matrix);
+          Result expected = decodeOrNull(serial, new BinaryBitmap(new HybridBinarizer(source)));
+          Result actual = decodeOrNull(concurrent, new BinaryBitmap(new HybridBinarizer(source)));
+          if (matrix == blank) {
+            assertNull(expected);
+            assertNull(actual);
+          } else {
+            assertNotNull(expected);
+            assertNotNull(actual);
+            assertEquals(expected.getBarcodeFormat(), actual.getBarcodeFormat());
+            assertEquals(expected.getText(), actual.getText());
+          }
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testDecodeOnOwnExecutor() throws Exception {
+    // Decoding on the executor's only thread leaves none free for the other readers
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+      hints.put(DecodeHintType.READER_EXECUTOR, executor);
+      final MultiFormatReader reader = new MultiFormatReader();
+      reader.setHints(hints);
+      MultiFormatWriter writer = new MultiFormatWriter();
+      // Found by the last reader, and then nothing found, so that every reader is needed
+      final LuminanceSource[] sources = {
+          BitMatrixLuminanceSources.toSource(writer.encode("own", BarcodeFormat.PDF_417, 300, 150)),
+          BitMatrixLuminanceSources.toSource(new BitMatrix(200, 200)),
+      };
+      Future<Result[]> results = executor.submit(new Callable<Result[]>() {
+        @Override
+        public Result[] call() {
+          Result[] results = new Result[sources.length];
+          for (int i = 0; i < sources.length; i++) {
+            results[i] = reader.tryDecodeWithState(new BinaryBitmap(new HybridBinarizer(sources[i])));
+          }
+          return results;
+        }
+      });
+      assertEquals("own", results.get()[0].getText());
+      assertNull(results.get()[1]);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testTryDecode() throws WriterException {
+    MultiFormatReader reader = new MultiFormatReader();
+    MultiFormatWriter writer = new MultiFormatWriter();
+    BitMatrix[] matrices = {
+        writer.encode("try", BarcodeFormat.QR_CODE, 200, 200),
+        writer.encode("TRY", BarcodeFormat.CODE_39, 300, 60),
+        writer.encode("5901234123457", BarcodeFormat.EAN_13, 300, 60),
+        new BitMatrix(200, 200),
+    };
+    for (BitMatrix matrix : matrices) {
+      LuminanceSource source = BitMatrixLuminanceSources.toSource(matrix);
+      Result expected = decodeOrNull(reader, new BinaryBitmap(new HybridBinarizer(source)));
+      Result actual = reader.tryDecodeWithState(new BinaryBitmap(new HybridBinarizer(source)));
+      if (expected == null) {
+        assertNull(actual);
+      } else {
+        assertEquals(expected.getBarcodeFormat(), actual.getBarcodeFormat());
+        assertEquals(expected.getText(), actual.getText());
+      }
+    }
+    LuminanceSource blank = BitMatrixLuminanceSources.toSource(matrices[3]);
+    assertNull(reader.tryDecodeWithState(new BinaryBitmap(new HybridBinarizer(blank))));
+  }
+
+  private static Result decodeOrNull(MultiFormatReader reader, BinaryBitmap image) {
+    try {
+      return reader.decodeWithState(image);
+    } catch (NotFoundException nfe) {
+      return null;
+    }
+  }
+
+}
@@ -47,6 +47,18 @@ public final class RGBLuminanceSourceTestCase extends Assert {
                       croppedCorner.getMatrix());
   }
 
+  @Test
+  public void testMatrixView() {
+    LuminanceMatrix full = SOURCE.getMatrixView();
+    assertArrayEquals(SOURCE.getMatrix(), full.getData());
+    assertEquals(0, full.getOffset());
+    assertEquals(3, full.getRowStride());
+    LuminanceMatrix corner = SOURCE.crop(1, 1, 2, 2).getMatrixView();
+    assertSame(full.getData(), corner.getData());
+    assertEquals(4, corner.getOffset());
+    assertEquals(3, corner.getRowStride());
+  }
+
   @Test
   public void testGetRow() {
     assertArrayEquals(new byte[] { 0x3F, 0x7F, 0x3F }, SOURCE.getRow(2, new byte[3]));
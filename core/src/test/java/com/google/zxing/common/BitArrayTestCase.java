@@ -36,6 +36,20 @@ public final class BitArrayTestCase extends Assert {
     }
   }
 
+  @Test
+  public void testGetBulk() {
+    BitArray array = new BitArray(70);
+    array.set(0);
+    array.set(31);
+    array.set(32);
+    array.set(69);
+    assertEquals(0x80000001, array.getBulk(0));
+    assertEquals(0x00000003, array.getBulk(31));
+    assertEquals(1, array.getBulk(32));
+    assertEquals(1 << 5, array.getBulk(64));
+    assertEquals(1, array.getBulk(69));
+  }
+
   @Test
   public void testGetNextSet1() {
     BitArray array = new BitArray(32);
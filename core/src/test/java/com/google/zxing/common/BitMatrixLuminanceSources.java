@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.PlanarYUVLuminanceSource;
+
+/**
+ * Turns encoded barcodes back into images to decode, for tests which round-trip.
+ */
+public final class BitMatrixLuminanceSources {
+
+  private BitMatrixLuminanceSources() {
+  }
+
+  /**
+   * @param matrix barcode, as written by a {@link com.google.zxing.Writer}
+   * @return luminances which are black where the matrix is set and white elsewhere
+   */
+  public static LuminanceSource toSource(BitMatrix matrix) {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    byte[] luminances = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        luminances[y * width + x] = matrix.get(x, y) ? 0 : (byte) 0xFF;
+      }
+    }
+    return new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+  }
+
+}
@@ -19,6 +19,8 @@ package com.google.zxing.common;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * @author Sean Owen
  * @author dswitkin@google.com (Daniel Switkin)
@@ -45,6 +47,20 @@ public final class BitMatrixTestCase extends Assert {
     }
   }
 
+  @Test
+  public void testSetBulk() {
+    BitMatrix matrix = new BitMatrix(40, 3);
+    matrix.set(1, 1);
+    matrix.setBulk(0, 1, 0x80000004);
+    matrix.setBulk(32, 2, 0x81);
+    for (int y = 0; y < 3; y++) {
+      for (int x = 0; x < 40; x++) {
+        boolean expected = (y == 1 && (x == 1 || x == 2 || x == 31)) || (y == 2 && (x == 32 || x == 39));
+        assertEquals(expected, matrix.get(x, y));
+      }
+    }
+  }
+
   @Test
   public void testSetRegion() {
     BitMatrix matrix = new BitMatrix(5);
@@ -56,6 +72,39 @@ public final class BitMatrixTestCase extends Assert {
     }
   }
 
+  @Test
+  public void testCrop() {
+    BitMatrix matrix = new BitMatrix(101, 7);
+    Random random = new Random(0xDEADBEEF);
+    for (int y = 0; y < 7; y++) {
+      for (int x = 0; x < 101; x++) {
+        if (random.nextBoolean()) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    for (int[] region : new int[][] {{0, 0, 101, 7}, {1, 2, 99, 4}, {32, 0, 33, 7}, {37, 3, 64, 1}, {70, 1, 31, 6}}) {
+      BitMatrix cropped = matrix.crop(region[0], region[1], region[2], region[3]);
+      assertEquals(region[2], cropped.getWidth());
+      assertEquals(region[3], cropped.getHeight());
+      for (int y = 0; y < region[3]; y++) {
+        for (int x = 0; x < region[2]; x++) {
+          assertEquals(matrix.get(region[0] + x, region[1] + y), cropped.get(x, y));
+        }
+      }
+      // Bits beyond the width must be clear, as they would be in a matrix built bit by bit
+      BitMatrix expected = new BitMatrix(region[2], region[3]);
+      for (int y = 0; y < region[3]; y++) {
+        for (int x = 0; x < region[2]; x++) {
+          if (cropped.get(x, y)) {
+            expected.set(x, y);
+          }
+        }
+      }
+      assertEquals(expected, cropped);
+    }
+  }
+
   @Test
   public void testEnclosing() {
     BitMatrix matrix = new BitMatrix(5);
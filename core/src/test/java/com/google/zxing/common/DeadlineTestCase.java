@@ -0,0 +1,108 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Reader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.WriterException;
+import com.google.zxing.multi.GenericMultipleBarcodeReader;
+import com.google.zxing.oned.Code128Reader;
+import com.google.zxing.pdf417.PDF417Reader;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests {@link Deadline}.
+ */
+public final class DeadlineTestCase extends Assert {
+
+  @Test
+  public void testExpiry() throws InterruptedException {
+    Deadline later = Deadline.after(1, TimeUnit.HOURS);
+    assertFalse(later.isExpired());
+    later.cancel();
+    assertTrue(later.isExpired());
+
+    Deadline soon = Deadline.after(1, TimeUnit.MILLISECONDS);
+    Thread.sleep(5);
+    assertTrue(soon.isExpired());
+    assertTrue(Deadline.after(0, TimeUnit.SECONDS).isExpired());
+
+    Deadline token = Deadline.untilCancelled();
+    assertFalse(token.isExpired());
+    token.cancel();
+    assertTrue(token.isExpired());
+
+    assertFalse(Deadline.isExpired(null));
+    assertNull(Deadline.fromHints(new EnumMap<DecodeHintType,Object>(DecodeHintType.class)));
+  }
+
+  @Test
+  public void testReadersGiveUp() throws WriterException, ReaderException {
+    MultiFormatWriter writer = new MultiFormatWriter();
+    BitMatrix[] matrices = {
+        writer.encode("deadline", BarcodeFormat.QR_CODE, 200, 200),
+        writer.encode("DEADLINE", BarcodeFormat.CODE_128, 300, 60),
+        writer.encode("deadline", BarcodeFormat.PDF_417, 300, 150),
+    };
+    Reader[] readers = { new QRCodeReader(), new Code128Reader(), new PDF417Reader() };
+    for (int i = 0; i < matrices.length; i++) {
+      LuminanceSource source = BitMatrixLuminanceSources.toSource(matrices[i]);
+      BinaryBitmap image = new BinaryBitmap(new HybridBinarizer(source));
+      Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+      hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+      hints.put(DecodeHintType.DEADLINE, Deadline.after(1, TimeUnit.HOURS));
+      assertNotNull(readers[i].decode(image, hints));
+      assertNotNull(new MultiFormatReader().decode(image, hints));
+
+      Deadline cancelled = Deadline.untilCancelled();
+      cancelled.cancel();
+      hints.put(DecodeHintType.DEADLINE, cancelled);
+      assertNotFound(readers[i], image, hints);
+      assertNotFound(new MultiFormatReader(), image, hints);
+      try {
+        new GenericMultipleBarcodeReader(readers[i]).decodeMultiple(image, hints);
+        fail();
+      } catch (NotFoundException nfe) {
+        // good
+      }
+    }
+  }
+
+  private static void assertNotFound(Reader reader, BinaryBitmap image, Map<DecodeHintType,?> hints)
+      throws ReaderException {
+    try {
+      reader.decode(image, hints);
+      fail();
+    } catch (NotFoundException nfe) {
+      // good
+    }
+  }
+
+}
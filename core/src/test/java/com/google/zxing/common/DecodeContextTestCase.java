@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.WriterException;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tests {@link DecodeContext}.
+ */
+public final class DecodeContextTestCase extends Assert {
+
+  @Test
+  public void testReuseAcrossFrames() throws ReaderException, WriterException {
+    DecodeContext context = new DecodeContext();
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.DECODE_CONTEXT, context);
+    MultiFormatReader reader = new MultiFormatReader();
+    reader.setHints(hints);
+
+    BitMatrix previous = null;
+    for (String contents : new String[] {"frame one", "frame two", "frame three"}) {
+      BitMatrix code = new QRCodeWriter().encode(contents, BarcodeFormat.QR_CODE, 200, 200);
+      LuminanceSource source = BitMatrixLuminanceSources.toSource(code);
+      HybridBinarizer binarizer = new HybridBinarizer(source, context);
+      Result result = reader.decodeWithState(new BinaryBitmap(binarizer));
+      assertEquals(BarcodeFormat.QR_CODE, result.getBarcodeFormat());
+      assertEquals(contents, result.getText());
+      BitMatrix matrix = binarizer.getBlackMatrix();
+      assertEquals(new HybridBinarizer(source).getBlackMatrix(), matrix);
+      if (previous != null) {
+        assertSame(previous, matrix);
+      }
+      previous = matrix;
+    }
+
+    BitArray row = null;
+    for (String contents : new String[] {"ROW1", "ROW2"}) {
+      BitMatrix code = new Code128Writer().encode(contents, BarcodeFormat.CODE_128, 200, 50);
+      LuminanceSource source = BitMatrixLuminanceSources.toSource(code);
+      Result result = reader.decodeWithState(new BinaryBitmap(new GlobalHistogramBinarizer(source, context)));
+      assertEquals(contents, result.getText());
+      if (row != null) {
+        assertSame(row, context.getBlackRow(200));
+      }
+      row = context.getBlackRow(200);
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.ByteBufferLuminanceSource;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tests {@link HybridBinarizer}.
+ */
+public final class HybridBinarizerTestCase extends Assert {
+
+  @Test
+  public void testParallelMatchesSerial() throws NotFoundException {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      // Dimensions which are not multiples of the block size exercise the overlapping edge blocks
+      for (int[] size : new int[][] {{1003, 757}, {640, 480}, {41, 1201}, {2000, 300}}) {
+        LuminanceSource source = createSource(size[0], size[1], new Random(size[0] * 31 + size[1]));
+        BitMatrix serial = new HybridBinarizer(source).getBlackMatrix();
+        BitMatrix parallel = new HybridBinarizer(source, pool).getBlackMatrix();
+        assertEquals(serial, parallel);
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testCropReadInPlace() throws NotFoundException {
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      LuminanceSource source = createSource(1003, 757, new Random(1));
+      LuminanceSource crop = source.crop(37, 101, 601, 517);
+      // Same pixels, but copied out to an array of their own
+      LuminanceSource copy = new PlanarYUVLuminanceSource(crop.getMatrix(), 601, 517, 0, 0, 601, 517, false);
+      BitMatrix expected = new HybridBinarizer(copy).getBlackMatrix();
+      assertEquals(expected, new HybridBinarizer(crop).getBlackMatrix());
+      assertEquals(expected, new HybridBinarizer(crop, pool).getBlackMatrix());
+      assertEquals(new GlobalHistogramBinarizer(copy).getBlackMatrix(),
+                   new GlobalHistogramBinarizer(crop).getBlackMatrix());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testRowAccess() throws NotFoundException {
+    // Several block rows, and a last one which overlaps the one before it
+    LuminanceSource source = createSource(203, 157, new Random(2));
+    byte[] luminances = source.getMatrix();
+    ByteBuffer direct = ByteBuffer.allocateDirect(luminances.length);
+    direct.put(luminances);
+    LuminanceSource mapped = new ByteBufferLuminanceSource(direct, 0, 203, 203, 157);
+    assertTrue(mapped.isRowAccessPreferred());
+    BitMatrix expected = new HybridBinarizer(source).getBlackMatrix();
+    assertEquals(expected, new HybridBinarizer(mapped).getBlackMatrix());
+    assertEquals(expected, new HybridBinarizer(mapped, new DecodeContext()).getBlackMatrix());
+    assertEquals(expected, new HybridBinarizer(new RowsOnlySource(mapped)).getBlackMatrix());
+  }
+
+  /**
+   * Creates a light background with a gradient, some flat regions and dark rectangles,
+   * so that both high and low contrast blocks occur.
+   */
+  static LuminanceSource createSource(int width, int height, Random random) {
+    byte[] luminances = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        luminances[y * width + x] = (byte) (160 + (x + y) % 64);
+      }
+    }
+    for (int i = 0; i < 200; i++) {
+      int left = random.nextInt(width);
+      int top = random.nextInt(height);
+      int right = Math.min(width, left + 1 + random.nextInt(40));
+      int bottom = Math.min(height, top + 1 + random.nextInt(40));
+      int value = random.nextInt(256);
+      for (int y = top; y < bottom; y++) {
+        for (int x = left; x < right; x++) {
+          luminances[y * width + x] = (byte) value;
+        }
+      }
+    }
+    return new PlanarYUVLuminanceSource(luminances, width, height, 0, 0, width, height, false);
+  }
+
+  /**
+   * Prefers to be read by row, and fails if the whole image is requested.
+   */
+  private static final class RowsOnlySource extends LuminanceSource {
+
+    private final LuminanceSource delegate;
+
+    RowsOnlySource(LuminanceSource delegate) {
+      super(delegate.getWidth(), delegate.getHeight());
+      this.delegate = delegate;
+    }
+
+    @Override
+    public byte[] getRow(int y, byte[] row) {
+      return delegate.getRow(y, row);
+    }
+
+    @Override
+    public byte[] getMatrix() {
+      throw new UnsupportedOperationException("Copied the whole image");
+    }
+
+    @Override
+    public boolean isRowAccessPreferred() {
+      return true;
+    }
+
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link IntegralImageBinarizer}.
+ */
+public final class IntegralImageBinarizerTestCase extends Assert {
+
+  @Test
+  public void testMatchesDirectMeans() {
+    for (int[] size : new int[][] {{97, 61}, {20, 100}, {5, 3}}) {
+      LuminanceSource source = HybridBinarizerTestCase.createSource(size[0], size[1], new Random(size[0]));
+      for (int windowSize : new int[] {1, 7, 16, 41, 301}) {
+        BitMatrix matrix = new IntegralImageBinarizer(source, windowSize, 10).getBlackMatrix();
+        assertEquals(threshold(source, windowSize, 10), matrix);
+      }
+    }
+  }
+
+  @Test
+  public void testRowsMatchMatrix() {
+    LuminanceSource source = HybridBinarizerTestCase.createSource(301, 123, new Random(3));
+    BitMatrix matrix = new IntegralImageBinarizer(source, 25, 15).getBlackMatrix();
+    // A fresh binarizer, so that rows are computed without the matrix
+    IntegralImageBinarizer binarizer = new IntegralImageBinarizer(source, 25, 15);
+    BitArray row = null;
+    for (int y = 0; y < source.getHeight(); y++) {
+      row = binarizer.getBlackRow(y, row);
+      assertEquals(matrix.getRow(y, null), row);
+    }
+  }
+
+  @Test
+  public void testCrop() throws NotFoundException {
+    LuminanceSource source = HybridBinarizerTestCase.createSource(203, 157, new Random(5));
+    LuminanceSource crop = source.crop(31, 17, 120, 100);
+    LuminanceSource copy = new PlanarYUVLuminanceSource(crop.getMatrix(), 120, 100, 0, 0, 120, 100, false);
+    assertEquals(new IntegralImageBinarizer(copy, 21, 15).getBlackMatrix(),
+                 new IntegralImageBinarizer(source, 21, 15).createBinarizer(crop).getBlackMatrix());
+  }
+
+  @Test
+  public void testDecodeInShadow() throws Exception {
+    int size = 330;
+    BitMatrix code = new QRCodeWriter().encode("integral image", BarcodeFormat.QR_CODE, size, size);
+    byte[] luminances = new byte[size * size];
+    for (int y = 0; y < size; y++) {
+      for (int x = 0; x < size; x++) {
+        // A shadow darkens the left side until its white is darker than the black on the right
+        int white = 60 + 190 * x / size;
+        luminances[y * size + x] = (byte) (code.get(x, y) ? white / 3 : white);
+      }
+    }
+    LuminanceSource source = new PlanarYUVLuminanceSource(luminances, size, size, 0, 0, size, size, false);
+    BinaryBitmap bitmap = new BinaryBitmap(new IntegralImageBinarizer(source, 41, 15));
+    assertEquals("integral image", new QRCodeReader().decode(bitmap).getText());
+  }
+
+  private static BitMatrix threshold(LuminanceSource source, int windowSize, int percent) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    byte[] luminances = source.getMatrix();
+    int radius = windowSize / 2;
+    BitMatrix matrix = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        long sum = 0;
+        int count = 0;
+        for (int j = Math.max(0, y - radius); j <= Math.min(height - 1, y + radius); j++) {
+          for (int i = Math.max(0, x - radius); i <= Math.min(width - 1, x + radius); i++) {
+            sum += luminances[j * width + i] & 0xff;
+            count++;
+          }
+        }
+        if ((luminances[y * width + x] & 0xff) * count * 100L < sum * (100 - percent)) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return matrix;
+  }
+
+}
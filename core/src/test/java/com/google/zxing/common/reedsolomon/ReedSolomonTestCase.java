@@ -393,6 +393,28 @@ public final class ReedSolomonTestCase extends Assert {
     testEncodeDecodeRandom(GenericGF.AZTEC_DATA_12, 3072, 1023);
   }
 
+  @Test
+  public void testDecoderReuse() throws ReedSolomonException {
+    // One decoder, alternating between long and short codewords, must not be confused by
+    // what a previous call left in its buffers
+    GenericGF field = GenericGF.QR_CODE_FIELD_256;
+    ReedSolomonEncoder encoder = new ReedSolomonEncoder(field);
+    ReedSolomonDecoder decoder = new ReedSolomonDecoder(field);
+    Random random = getPseudoRandom();
+    for (int i = 0; i < 50; i++) {
+      int ecSize = i % 2 == 0 ? 7 + random.nextInt(60) : 2 + random.nextInt(5);
+      int[] message = new int[ecSize + 1 + random.nextInt(100)];
+      for (int k = 0; k < message.length - ecSize; k++) {
+        message[k] = random.nextInt(field.getSize());
+      }
+      encoder.encode(message, ecSize);
+      int[] received = message.clone();
+      corrupt(received, ecSize / 2, random, field.getSize());
+      decoder.decode(received, ecSize);
+      assertArrayEquals(message, received);
+    }
+  }
+
   public static void corrupt(int[] received, int howMany, Random random, int max) {
     BitSet corrupted = new BitSet(received.length);
     for (int j = 0; j < howMany; j++) {
@@ -43,8 +43,14 @@ public final class MultiTestCase extends Assert {
     LuminanceSource source = new BufferedImageLuminanceSource(image);
     BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
 
-    MultipleBarcodeReader reader = new GenericMultipleBarcodeReader(new MultiFormatReader());
-    Result[] results = reader.decodeMultiple(bitmap);
+    checkResults(new GenericMultipleBarcodeReader(new MultiFormatReader()).decodeMultiple(bitmap));
+
+    // Binarized once, and cropped from that
+    BinaryBitmap views = new BinaryBitmap(new HybridBinarizer(source), true);
+    checkResults(new GenericMultipleBarcodeReader(new MultiFormatReader()).decodeMultiple(views));
+  }
+
+  private static void checkResults(Result[] results) {
     assertNotNull(results);
     assertEquals(2, results.length);
 
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.multi;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.Reader;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeReader;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class PyramidReaderTestCase extends Assert {
+
+  private static final int WIDTH = 2400;
+  private static final int HEIGHT = 1800;
+
+  @Test
+  public void testCoarseLevel() throws Exception {
+    LuminanceSource source = createSource(new QRCodeWriter().encode("coarse", BarcodeFormat.QR_CODE, 600, 600));
+    RecordingReader reader = new RecordingReader();
+    Result result = new PyramidReader(reader).decode(source, null);
+    assertEquals("coarse", result.getText());
+    // 2400x1800 shrinks to 1200x900, as 600x450 is under 640x480, and the barcode decodes there
+    assertEquals(1, reader.widths.size());
+    assertEquals(WIDTH / 2, reader.widths.get(0).intValue());
+    checkPoints(result);
+  }
+
+  @Test
+  public void testFallBackToFullResolution() throws Exception {
+    // Modules of 2 pixels are lost in any shrunken level
+    LuminanceSource source = createSource(new QRCodeWriter().encode("fine", BarcodeFormat.QR_CODE, 58, 58));
+    RecordingReader reader = new RecordingReader();
+    Result result = new PyramidReader(reader).decode(source, null);
+    assertEquals("fine", result.getText());
+    assertEquals(WIDTH, reader.widths.get(reader.widths.size() - 1).intValue());
+    checkPoints(result);
+
+    try {
+      new PyramidReader(new QRCodeReader(), PyramidReader.DEFAULT_MIN_LEVEL_PIXELS, false).decode(source, null);
+      fail();
+    } catch (NotFoundException nfe) {
+      // continue
+    }
+  }
+
+  /**
+   * Result points must lie within the barcode, which is drawn at (1500, 1000).
+   */
+  private static void checkPoints(Result result) {
+    for (ResultPoint point : result.getResultPoints()) {
+      assertTrue(point.getX() > 1500 && point.getX() < 2100);
+      assertTrue(point.getY() > 1000 && point.getY() < 1600);
+    }
+  }
+
+  private static LuminanceSource createSource(BitMatrix code) {
+    byte[] luminances = new byte[WIDTH * HEIGHT];
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        int codeX = x - 1500;
+        int codeY = y - 1000;
+        boolean black = codeX >= 0 && codeX < code.getWidth() && codeY >= 0 && codeY < code.getHeight() &&
+            code.get(codeX, codeY);
+        luminances[y * WIDTH + x] = (byte) (black ? 30 : 220);
+      }
+    }
+    return new PlanarYUVLuminanceSource(luminances, WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT, false);
+  }
+
+  /**
+   * Records the width of each level it is asked to decode.
+   */
+  private static final class RecordingReader implements Reader {
+
+    private final Reader delegate = new QRCodeReader();
+    private final List<Integer> widths = new ArrayList<>();
+
+    @Override
+    public Result decode(BinaryBitmap image) throws NotFoundException {
+      return decode(image, null);
+    }
+
+    @Override
+    public Result decode(BinaryBitmap image, Map<DecodeHintType,?> hints) throws NotFoundException {
+      widths.add(image.getWidth());
+      try {
+        return delegate.decode(image, hints);
+      } catch (NotFoundException nfe) {
+        throw nfe;
+      } catch (Exception e) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+    }
+
+    @Override
+    public void reset() {
+      delegate.reset();
+    }
+
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.multi;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.oned.Code128Writer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public final class RegionOfInterestReaderTestCase extends Assert {
+
+  private static final int WIDTH = 1600;
+  private static final int HEIGHT = 1200;
+
+  @Test
+  public void testFindRegions() throws Exception {
+    int[] pixels = background(WIDTH, HEIGHT);
+    BitMatrix code = new QRCodeWriter().encode("region", BarcodeFormat.QR_CODE, 200, 200);
+    draw(pixels, code, 1100, 800);
+    int[] symbol = code.getEnclosingRectangle();
+    int left = 1100 + symbol[0];
+    int top = 800 + symbol[1];
+    List<int[]> regions = RegionFinder.findRegions(new RGBLuminanceSource(WIDTH, HEIGHT, pixels));
+    assertEquals(1, regions.size());
+    int[] region = regions.get(0);
+    // Contains the symbol, but not much else
+    assertTrue(region[0] <= left && region[1] <= top);
+    assertTrue(region[0] + region[2] >= left + symbol[2] && region[1] + region[3] >= top + symbol[3]);
+    assertTrue(region[2] * region[3] < WIDTH * HEIGHT / 10);
+  }
+
+  @Test
+  public void testRotatedInSmallImage() throws Exception {
+    // Small enough that each cell is a single pixel
+    int width = 240;
+    int height = 200;
+    int[] pixels = background(width, height);
+    BitMatrix code = new Code128Writer().encode("ROI-128", BarcodeFormat.CODE_128, 150, 40);
+    drawRotated(pixels, width, code, 100, 25);
+    // Bars now run across the image, so it only changes from one row to the next
+    List<int[]> regions = RegionFinder.findRegions(new RGBLuminanceSource(width, height, pixels));
+    assertEquals(1, regions.size());
+    int[] region = regions.get(0);
+    assertTrue(region[0] <= 100 && region[1] <= 25);
+    assertTrue(region[0] + region[2] >= 100 + code.getHeight() && region[1] + region[3] >= 25 + code.getWidth());
+  }
+
+  @Test
+  public void testNothingToFind() {
+    assertTrue(RegionFinder.findRegions(new RGBLuminanceSource(WIDTH, HEIGHT, background(WIDTH, HEIGHT))).isEmpty());
+  }
+
+  @Test
+  public void testDecodeMultiple() throws Exception {
+    int[] pixels = background(WIDTH, HEIGHT);
+    draw(pixels, new QRCodeWriter().encode("region", BarcodeFormat.QR_CODE, 200, 200), 1100, 800);
+    draw(pixels, new Code128Writer().encode("ROI-128", BarcodeFormat.CODE_128, 300, 80), 150, 150);
+    LuminanceSource source = new RGBLuminanceSource(WIDTH, HEIGHT, pixels);
+
+    Result[] results = new RegionOfInterestReader(new MultiFormatReader()).decodeMultiple(source, null);
+    assertEquals(2, results.length);
+    for (Result result : results) {
+      if (result.getBarcodeFormat() == BarcodeFormat.QR_CODE) {
+        assertEquals("region", result.getText());
+        for (ResultPoint point : result.getResultPoints()) {
+          assertTrue(point.getX() > 1100 && point.getX() < 1300);
+          assertTrue(point.getY() > 800 && point.getY() < 1000);
+        }
+      } else {
+        assertEquals(BarcodeFormat.CODE_128, result.getBarcodeFormat());
+        assertEquals("ROI-128", result.getText());
+      }
+    }
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void testNotFound() throws NotFoundException {
+    new RegionOfInterestReader(new MultiFormatReader()).decode(
+        new RGBLuminanceSource(WIDTH, HEIGHT, background(WIDTH, HEIGHT)), null);
+  }
+
+  /**
+   * @return a light grey image, shaded from left to right like a photo of a shelf under a lamp
+   */
+  private static int[] background(int width, int height) {
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int grey = 160 + 60 * x / width;
+        pixels[y * width + x] = 0xFF000000 | (grey * 0x00010101);
+      }
+    }
+    return pixels;
+  }
+
+  private static void draw(int[] pixels, BitMatrix matrix, int left, int top) {
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        pixels[(top + y) * WIDTH + left + x] = matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF;
+      }
+    }
+  }
+
+  /**
+   * Draws matrix turned a quarter turn, so that its rows run down the image.
+   */
+  private static void drawRotated(int[] pixels, int width, BitMatrix matrix, int left, int top) {
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        pixels[(top + x) * width + left + y] = matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF;
+      }
+    }
+  }
+
+}
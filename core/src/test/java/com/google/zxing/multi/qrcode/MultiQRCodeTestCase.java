@@ -19,16 +19,20 @@ package com.google.zxing.multi.qrcode;
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.BinaryBitmap;
 import com.google.zxing.BufferedImageLuminanceSource;
+import com.google.zxing.DecodeHintType;
 import com.google.zxing.LuminanceSource;
 import com.google.zxing.Result;
 import com.google.zxing.ResultMetadataType;
+import com.google.zxing.ResultPoint;
 import com.google.zxing.common.AbstractBlackBoxTestCase;
 import com.google.zxing.common.HybridBinarizer;
 import com.google.zxing.multi.MultipleBarcodeReader;
@@ -67,4 +71,46 @@ public final class MultiQRCodeTestCase extends Assert {
     assertEquals(expectedContents, barcodeContents);
   }
 
+  @Test
+  public void testMultiQRCodesInParallel() throws Exception {
+    Path testBase = AbstractBlackBoxTestCase.buildTestBase("src/test/resources/blackbox/multi-qrcode-1");
+    BufferedImage image = ImageIO.read(testBase.resolve("1.png").toFile());
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+
+    MultipleBarcodeReader reader = new QRCodeMultiReader();
+    Set<String> expectedContents = new HashSet<>();
+    for (Result result : reader.decodeMultiple(bitmap)) {
+      expectedContents.add(result.getText());
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+      hints.put(DecodeHintType.FINDER_PATTERN_POOL, pool);
+      Result[] first = reader.decodeMultiple(bitmap, hints);
+      Set<String> barcodeContents = new HashSet<>();
+      for (Result result : first) {
+        barcodeContents.add(result.getText());
+      }
+      assertEquals(expectedContents, barcodeContents);
+
+      // The same codes, in the same order at the same points, however the bands were scheduled
+      for (int i = 0; i < 5; i++) {
+        Result[] again = reader.decodeMultiple(bitmap, hints);
+        assertEquals(first.length, again.length);
+        for (int j = 0; j < first.length; j++) {
+          assertEquals(first[j].getText(), again[j].getText());
+          ResultPoint[] points = first[j].getResultPoints();
+          ResultPoint[] againPoints = again[j].getResultPoints();
+          assertEquals(points.length, againPoints.length);
+          for (int k = 0; k < points.length; k++) {
+            assertEquals(points[k], againPoints[k]);
+          }
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
 }
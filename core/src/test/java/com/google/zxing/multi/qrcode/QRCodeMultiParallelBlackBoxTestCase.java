@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.multi.qrcode;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Reader;
+import com.google.zxing.Result;
+import com.google.zxing.common.AbstractBlackBoxTestCase;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Decodes single QR Codes with {@link QRCodeMultiReader}, scanning for finder patterns in
+ * parallel under {@link DecodeHintType#FINDER_PATTERN_POOL}. It must pass as many images as
+ * the same reader scanning serially.
+ */
+public final class QRCodeMultiParallelBlackBoxTestCase extends AbstractBlackBoxTestCase {
+
+  public QRCodeMultiParallelBlackBoxTestCase() {
+    super("src/test/resources/blackbox/qrcode-2", new ParallelMultiReader(), BarcodeFormat.QR_CODE);
+    addTest(31, 31, 0.0f);
+    addTest(29, 29, 90.0f);
+    addTest(30, 30, 180.0f);
+    addTest(30, 30, 270.0f);
+  }
+
+  /**
+   * Returns the first of the codes {@link QRCodeMultiReader} finds, adding the pool to the hints.
+   */
+  private static final class ParallelMultiReader implements Reader {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private final QRCodeMultiReader reader = new QRCodeMultiReader();
+
+    @Override
+    public Result decode(BinaryBitmap image) throws NotFoundException {
+      return decode(image, null);
+    }
+
+    @Override
+    public Result decode(BinaryBitmap image, Map<DecodeHintType,?> hints) throws NotFoundException {
+      Map<DecodeHintType,Object> parallelHints = new EnumMap<>(DecodeHintType.class);
+      if (hints != null) {
+        parallelHints.putAll(hints);
+      }
+      parallelHints.put(DecodeHintType.FINDER_PATTERN_POOL, POOL);
+      Result[] results = reader.decodeMultiple(image, parallelHints);
+      if (results.length == 0) {
+        throw NotFoundException.getNotFoundInstance();
+      }
+      return results[0];
+    }
+
+    @Override
+    public void reset() {
+      // nothing to reset
+    }
+
+  }
+
+}
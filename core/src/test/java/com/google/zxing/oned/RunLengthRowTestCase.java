@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.NotFoundException;
+import com.google.zxing.common.BitArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests {@link RunLengthRow}.
+ */
+public final class RunLengthRowTestCase extends Assert {
+
+  @Test
+  public void testRuns() {
+    BitArray row = new BitArray(10);
+    row.set(0);
+    row.set(1);
+    row.set(5);
+    RunLengthRow runs = new RunLengthRow(row);
+    assertEquals(10, runs.getSize());
+    // Empty white run, then 2 black, 3 white, 1 black, 4 white
+    assertEquals(5, runs.getRunCount());
+    assertEquals(0, runs.getRunWidth(0));
+    assertEquals(2, runs.getRunWidth(1));
+    assertEquals(2, runs.getRunStart(2));
+    assertEquals(5, runs.getRunEnd(2));
+    assertEquals(4, runs.getRunWidth(4));
+    assertEquals(1, runs.getRunIndex(0));
+    assertEquals(2, runs.getRunIndex(4));
+    assertEquals(3, runs.getRunIndex(5));
+    assertEquals(4, runs.getRunIndex(9));
+    assertEquals(5, runs.getRunIndex(10));
+    assertTrue(RunLengthRow.isBlack(3));
+    assertFalse(RunLengthRow.isBlack(4));
+
+    runs.setRow(new BitArray(7));
+    assertEquals(1, runs.getRunCount());
+    assertEquals(7, runs.getRunWidth(0));
+    assertEquals(0, runs.getRunIndex(6));
+  }
+
+  @Test
+  public void testRandomRows() {
+    Random random = new Random(0xBEEF);
+    RunLengthRow runs = new RunLengthRow(new BitArray(1));
+    RunLengthRow reversed = new RunLengthRow(new BitArray(1));
+    for (int i = 0; i < 200; i++) {
+      BitArray row = randomRow(random);
+      runs.setRow(row);
+      checkRuns(row, runs);
+      reversed.setReversed(runs);
+      row.reverse();
+      checkRuns(row, reversed);
+    }
+  }
+
+  @Test
+  public void testRecordPattern() {
+    Random random = new Random(0xCAFE);
+    for (int i = 0; i < 200; i++) {
+      BitArray row = randomRow(random);
+      RunLengthRow runs = new RunLengthRow(row);
+      int[] expected = new int[1 + random.nextInt(8)];
+      int[] actual = new int[expected.length];
+      for (int start = 0; start <= row.getSize(); start++) {
+        assertEquals(recordPattern(row, start, expected), recordPattern(runs, start, actual));
+        assertArrayEquals(expected, actual);
+        if (start < row.getSize()) {
+          assertEquals(recordPatternInReverse(row, start, expected), recordPatternInReverse(runs, start, actual));
+          assertArrayEquals(expected, actual);
+        }
+      }
+    }
+  }
+
+  private static BitArray randomRow(Random random) {
+    BitArray row = new BitArray(1 + random.nextInt(100));
+    // Long runs are more realistic, and more likely to cross words
+    boolean black = random.nextBoolean();
+    for (int x = 0; x < row.getSize(); x++) {
+      if (random.nextInt(5) == 0) {
+        black = !black;
+      }
+      if (black) {
+        row.set(x);
+      }
+    }
+    return row;
+  }
+
+  private static void checkRuns(BitArray row, RunLengthRow runs) {
+    assertEquals(row.getSize(), runs.getSize());
+    assertEquals(0, runs.getRunStart(0));
+    assertEquals(row.getSize(), runs.getRunEnd(runs.getRunCount() - 1));
+    for (int run = 0; run < runs.getRunCount(); run++) {
+      if (run > 0) {
+        assertTrue(runs.getRunWidth(run) > 0);
+      }
+      for (int x = runs.getRunStart(run); x < runs.getRunEnd(run); x++) {
+        assertEquals(RunLengthRow.isBlack(run), row.get(x));
+        assertEquals(run, runs.getRunIndex(x));
+      }
+    }
+  }
+
+  private static boolean recordPattern(BitArray row, int start, int[] counters) {
+    try {
+      OneDReader.recordPattern(row, start, counters);
+      return true;
+    } catch (NotFoundException nfe) {
+      Arrays.fill(counters, 0);
+      return false;
+    }
+  }
+
+  private static boolean recordPattern(RunLengthRow runs, int start, int[] counters) {
+    try {
+      OneDReader.recordPattern(runs, start, counters);
+      return true;
+    } catch (NotFoundException nfe) {
+      Arrays.fill(counters, 0);
+      return false;
+    }
+  }
+
+  private static boolean recordPatternInReverse(BitArray row, int start, int[] counters) {
+    try {
+      OneDReader.recordPatternInReverse(row, start, counters);
+      return true;
+    } catch (NotFoundException nfe) {
+      Arrays.fill(counters, 0);
+      return false;
+    }
+  }
+
+  private static boolean recordPatternInReverse(RunLengthRow runs, int start, int[] counters) {
+    try {
+      OneDReader.recordPatternInReverse(runs, start, counters);
+      return true;
+    } catch (NotFoundException nfe) {
+      Arrays.fill(counters, 0);
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.ReaderException;
+import com.google.zxing.Result;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.oned.rss.RSS14Reader;
+import com.google.zxing.oned.rss.expanded.RSSExpandedReader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests that {@link OneDReader#tryDecodeRow(int, BitArray, RunLengthRow, java.util.Map)} finds
+ * the same barcodes as {@link OneDReader#decodeRow(int, BitArray, RunLengthRow, java.util.Map)}.
+ */
+public final class TryDecodeRowTestCase extends Assert {
+
+  @Test
+  public void testSameResults() throws WriterException {
+    List<BitArray> rows = new ArrayList<>();
+    MultiFormatWriter writer = new MultiFormatWriter();
+    rows.add(writer.encode("5901234123457", BarcodeFormat.EAN_13, 0, 1).getRow(0, null));
+    rows.add(writer.encode("96385074", BarcodeFormat.EAN_8, 0, 1).getRow(0, null));
+    rows.add(writer.encode("05096893", BarcodeFormat.UPC_E, 0, 1).getRow(0, null));
+    rows.add(writer.encode("TRY DECODE", BarcodeFormat.CODE_39, 0, 1).getRow(0, null));
+    rows.add(writer.encode("TRY DECODE", BarcodeFormat.CODE_93, 0, 1).getRow(0, null));
+    rows.add(writer.encode("try decode", BarcodeFormat.CODE_128, 0, 1).getRow(0, null));
+    rows.add(writer.encode("00123456789012", BarcodeFormat.ITF, 0, 1).getRow(0, null));
+    rows.add(writer.encode("A123456B", BarcodeFormat.CODABAR, 0, 1).getRow(0, null));
+    Random random = new Random(0xD0D0);
+    for (int i = 0; i < 300; i++) {
+      BitArray row = new BitArray(1 + random.nextInt(300));
+      boolean black = random.nextBoolean();
+      for (int x = 0; x < row.getSize(); x++) {
+        if (random.nextInt(3) == 0) {
+          black = !black;
+        }
+        if (black) {
+          row.set(x);
+        }
+      }
+      rows.add(row);
+    }
+
+    OneDReader[] decoding = readers();
+    OneDReader[] trying = readers();
+    int found = 0;
+    for (int rowNumber = 0; rowNumber < rows.size(); rowNumber++) {
+      BitArray row = rows.get(rowNumber);
+      RunLengthRow runs = new RunLengthRow(row);
+      for (int i = 0; i < decoding.length; i++) {
+        Result expected = decodeOrNull(decoding[i], rowNumber, row, runs);
+        Result actual = trying[i].tryDecodeRow(rowNumber, row, runs, null);
+        if (expected == null) {
+          assertNull(actual);
+        } else {
+          found++;
+          assertNotNull(actual);
+          assertEquals(expected.getBarcodeFormat(), actual.getBarcodeFormat());
+          assertEquals(expected.getText(), actual.getText());
+        }
+      }
+    }
+    // Each encoded row by its own reader, the UPC/EAN rows by UPC-A and the multi-format readers
+    assertTrue(found >= 8 + 8);
+  }
+
+  private static OneDReader[] readers() {
+    return new OneDReader[] {
+        new EAN13Reader(),
+        new EAN8Reader(),
+        new UPCEReader(),
+        new UPCAReader(),
+        new Code39Reader(),
+        new Code93Reader(),
+        new Code128Reader(),
+        new ITFReader(),
+        new CodaBarReader(),
+        new RSS14Reader(),
+        new RSSExpandedReader(),
+        new MultiFormatUPCEANReader(null),
+        new MultiFormatOneDReader(null),
+    };
+  }
+
+  private static Result decodeOrNull(OneDReader reader, int rowNumber, BitArray row, RunLengthRow runs) {
+    try {
+      return reader.decodeRow(rowNumber, row, runs, null);
+    } catch (ReaderException re) {
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,537 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.ByteBufferLuminanceSource;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.GenericMultipleBarcodeReader;
+import com.google.zxing.multi.PyramidReader;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Decodes many images as a pipeline of {@link Stage}s: reading the bytes, decoding the image
+ * file, binarizing and finally decoding barcodes. Each stage has its own threads, and bounded
+ * queues between stages let disk or network reads overlap with decoding, while stopping a fast
+ * stage from running far ahead of a slow one.</p>
+ *
+ * <p>Configure it with the setters, then call {@link #decode(Iterable)}, which may be called
+ * again for further batches. The {@link Handler} receives one {@link Outcome} per input.</p>
+ *
+ * <p>After {@link #setRawFrames(int, int, int, int)}, inputs are raw luminance frames rather than
+ * image files. Local files are then memory-mapped, and binarized a few rows at a time rather than
+ * copied whole.</p>
+ */
+public final class BatchDecoder {
+
+  /**
+   * Steps each input goes through, in order.
+   */
+  public enum Stage {
+    /** Reading the raw bytes of the input. */
+    READ,
+    /** Decoding those bytes to a {@link BufferedImage}; skipped for raw frames. */
+    IMAGE,
+    /** Converting to luminance and binarizing. */
+    BINARIZE,
+    /** Looking for barcodes. */
+    DECODE,
+  }
+
+  /**
+   * Receives the {@link Outcome} for each input. It is called from several threads at once.
+   */
+  public interface Handler {
+    void handle(Outcome outcome);
+  }
+
+  /**
+   * What became of one input.
+   */
+  public static final class Outcome {
+
+    private final URI input;
+    private final long[] nanos = new long[Stage.values().length];
+    private byte[] bytes;
+    private ByteBuffer frame;
+    private BufferedImage image;
+    private LuminanceSource source;
+    private BinaryBitmap bitmap;
+    private Result[] results;
+    private Exception error;
+
+    Outcome(URI input) {
+      this.input = input;
+    }
+
+    public URI getInput() {
+      return input;
+    }
+
+    /**
+     * @return the decoded image, or null if it could not be read or is a raw frame
+     */
+    public BufferedImage getImage() {
+      return image;
+    }
+
+    /**
+     * @return the binarized image, or null if it could not be read
+     */
+    public BinaryBitmap getBitmap() {
+      return bitmap;
+    }
+
+    /**
+     * @return barcodes found, or null if none were found or the image could not be read
+     */
+    public Result[] getResults() {
+      return results;
+    }
+
+    /**
+     * @return why the image could not be read, or null if it was
+     */
+    public Exception getError() {
+      return error;
+    }
+
+    /**
+     * @param stage stage of interest
+     * @return time that stage spent on this input, in nanoseconds
+     */
+    public long getNanos(Stage stage) {
+      return nanos[stage.ordinal()];
+    }
+
+  }
+
+  private static final Outcome END = new Outcome(null);
+
+  private final Map<DecodeHintType,?> hints;
+  private final Handler handler;
+  private final int[] threads;
+  private int queueCapacity;
+  private boolean multi;
+  private boolean pyramid;
+  private int[] crop;
+  private int[] rawFrames;
+  private final AtomicLongArray counts;
+  private final AtomicLongArray nanos;
+
+  /**
+   * @param hints hints to decode with
+   * @param handler receives the outcome for each input
+   */
+  public BatchDecoder(Map<DecodeHintType,?> hints, Handler handler) {
+    this.hints = hints;
+    this.handler = handler;
+    int processors = Runtime.getRuntime().availableProcessors();
+    threads = new int[] {4, processors, processors, processors};
+    queueCapacity = 2 * processors;
+    counts = new AtomicLongArray(threads.length);
+    nanos = new AtomicLongArray(threads.length);
+  }
+
+  /**
+   * @param stage stage to configure
+   * @param count number of threads to run it on. By default this is 4 for {@link Stage#READ}
+   *  and the number of processors for the others.
+   */
+  public void setThreads(Stage stage, int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("Need at least one thread");
+    }
+    threads[stage.ordinal()] = count;
+  }
+
+  /**
+   * @param queueCapacity most inputs waiting for each stage; twice the number of processors by
+   *  default
+   */
+  public void setQueueCapacity(int queueCapacity) {
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("Queue capacity must be positive");
+    }
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * @param multi if true, look for several barcodes in each image
+   */
+  public void setMulti(boolean multi) {
+    this.multi = multi;
+  }
+
+  /**
+   * @param pyramid if true, decode shrunken copies of large images first, as {@link PyramidReader}
+   *  does. Images are then binarized as each copy is tried, during {@link Stage#DECODE}.
+   */
+  public void setPyramid(boolean pyramid) {
+    this.pyramid = pyramid;
+  }
+
+  /**
+   * Only examines the given region of each image.
+   */
+  public void setCrop(int left, int top, int width, int height) {
+    crop = new int[] {left, top, width, height};
+  }
+
+  /**
+   * Treats inputs as raw frames of 8-bit luminance values, such as Y800 data or the Y plane at the
+   * start of an NV21 frame, instead of as image files.
+   *
+   * @param offset index in each file of the top left pixel
+   * @param rowStride number of bytes from the start of one row to the start of the next
+   * @param width width of each frame, in pixels
+   * @param height height of each frame, in pixels
+   */
+  public void setRawFrames(int offset, int rowStride, int width, int height) {
+    if (offset < 0 || rowStride < width || width < 1 || height < 1) {
+      throw new IllegalArgumentException("Bad raw frame layout");
+    }
+    rawFrames = new int[] {offset, rowStride, width, height};
+  }
+
+  /**
+   * @param stage stage of interest
+   * @return number of inputs the stage has processed, including those it failed on, over all
+   *  batches
+   */
+  public long getCount(Stage stage) {
+    return counts.get(stage.ordinal());
+  }
+
+  /**
+   * @param stage stage of interest
+   * @return total time the stage's threads have spent processing inputs, in nanoseconds
+   */
+  public long getNanos(Stage stage) {
+    return nanos.get(stage.ordinal());
+  }
+
+  /**
+   * Decodes all inputs, passing each outcome to the handler, and returns when all are done.
+   * Inputs are consumed as the first stage has room for them, so they may be produced lazily.
+   *
+   * <p>If the handler throws a {@link RuntimeException} or a stage fails with an {@link Error},
+   * the pipeline is stopped and the first such failure is rethrown.</p>
+   *
+   * @param inputs URIs of images to decode
+   * @return number of inputs in which barcodes were found
+   * @throws InterruptedException if interrupted while waiting; the pipeline is then stopped
+   */
+  public int decode(Iterable<URI> inputs) throws InterruptedException {
+    Stage[] stages = Stage.values();
+    AtomicInteger successful = new AtomicInteger();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Collection<Thread> workers = new ArrayList<>();
+    BlockingQueue<Outcome> first = new ArrayBlockingQueue<>(queueCapacity);
+    BlockingQueue<Outcome> in = first;
+    for (int i = 0; i < stages.length; i++) {
+      BlockingQueue<Outcome> out = i == stages.length - 1 ? null : new ArrayBlockingQueue<Outcome>(queueCapacity);
+      int nextThreads = out == null ? 0 : threads[i + 1];
+      AtomicInteger live = new AtomicInteger(threads[i]);
+      for (int t = 0; t < threads[i]; t++) {
+        Thread worker = new Thread(
+            new StageWorker(stages[i], in, out, live, nextThreads, successful, failure, workers),
+            "BatchDecoder-" + stages[i].name().toLowerCase(Locale.ENGLISH) + '-' + t);
+        worker.setDaemon(true);
+        workers.add(worker);
+      }
+      in = out;
+    }
+    for (Thread worker : workers) {
+      worker.start();
+    }
+
+    try {
+      boolean running = true;
+      for (Iterator<URI> it = inputs.iterator(); running && it.hasNext();) {
+        running = put(first, new Outcome(it.next()), failure);
+      }
+      for (int t = 0; running && t < threads[0]; t++) {
+        running = put(first, END, failure);
+      }
+      // After a failure the workers have been interrupted, and stop
+      for (Thread worker : workers) {
+        worker.join();
+      }
+    } catch (InterruptedException ie) {
+      for (Thread worker : workers) {
+        worker.interrupt();
+      }
+      throw ie;
+    }
+
+    Throwable t = failure.get();
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    return successful.get();
+  }
+
+  /**
+   * Waits for room in a queue, unless the pipeline fails first: the workers taking from it may
+   * then all have stopped, and never make room.
+   *
+   * @return false if the pipeline failed instead
+   */
+  static <T> boolean put(BlockingQueue<T> queue, T item, AtomicReference<Throwable> failure)
+      throws InterruptedException {
+    while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+      if (failure.get() != null) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private final class StageWorker implements Runnable {
+
+    private final Stage stage;
+    private final BlockingQueue<Outcome> in;
+    private final BlockingQueue<Outcome> out;
+    private final AtomicInteger live;
+    private final int nextThreads;
+    private final AtomicInteger successful;
+    private final AtomicReference<Throwable> failure;
+    private final Collection<Thread> workers;
+    private MultiFormatReader reader;
+
+    StageWorker(Stage stage,
+                BlockingQueue<Outcome> in,
+                BlockingQueue<Outcome> out,
+                AtomicInteger live,
+                int nextThreads,
+                AtomicInteger successful,
+                AtomicReference<Throwable> failure,
+                Collection<Thread> workers) {
+      this.stage = stage;
+      this.in = in;
+      this.out = out;
+      this.live = live;
+      this.nextThreads = nextThreads;
+      this.successful = successful;
+      this.failure = failure;
+      this.workers = workers;
+    }
+
+    @Override
+    public void run() {
+      try {
+        for (Outcome outcome; (outcome = in.take()) != END;) {
+          if (outcome.error == null) {
+            long start = System.nanoTime();
+            try {
+              process(outcome);
+            } catch (IOException | RuntimeException e) {
+              outcome.error = e;
+            }
+            long elapsed = System.nanoTime() - start;
+            outcome.nanos[stage.ordinal()] = elapsed;
+            nanos.addAndGet(stage.ordinal(), elapsed);
+            counts.incrementAndGet(stage.ordinal());
+          }
+          if (out == null) {
+            finish(outcome);
+          } else {
+            out.put(outcome);
+          }
+        }
+      } catch (InterruptedException ie) {
+        // stopped by decode() or a failure; the remaining stages are interrupted too
+        return;
+      } catch (Error e) {
+        fail(e);
+      }
+      // The last worker of this stage to finish tells the next stage's workers to stop
+      if (live.decrementAndGet() == 0 && out != null) {
+        try {
+          for (int t = 0; t < nextThreads; t++) {
+            out.put(END);
+          }
+        } catch (InterruptedException ie) {
+          // stopped by decode() or a failure
+        }
+      }
+    }
+
+    private void process(Outcome outcome) throws IOException {
+      switch (stage) {
+        case READ:
+          if (rawFrames != null) {
+            outcome.frame = readFrame(outcome.input);
+          } else if (!"data".equals(outcome.input.getScheme())) {
+            outcome.bytes = readBytes(outcome.input);
+          }
+          break;
+        case IMAGE:
+          if (outcome.frame != null) {
+            break;
+          }
+          BufferedImage image = outcome.bytes == null ?
+              ImageReader.readImage(outcome.input) :
+              ImageIO.read(new ByteArrayInputStream(outcome.bytes));
+          outcome.bytes = null;
+          if (image == null) {
+            throw new IOException("Could not load " + outcome.input);
+          }
+          outcome.image = image;
+          break;
+        case BINARIZE:
+          LuminanceSource source;
+          if (outcome.frame != null) {
+            source = new ByteBufferLuminanceSource(
+                outcome.frame, rawFrames[0], rawFrames[1], rawFrames[2], rawFrames[3]);
+            outcome.frame = null;
+            if (crop != null) {
+              source = source.crop(crop[0], crop[1], crop[2], crop[3]);
+            }
+          } else {
+            source = crop == null ?
+                new BufferedImageLuminanceSource(outcome.image) :
+                new BufferedImageLuminanceSource(outcome.image, crop[0], crop[1], crop[2], crop[3]);
+          }
+          // Multi decoding crops repeatedly, which can reuse the matrix binarized here
+          outcome.bitmap = new BinaryBitmap(new HybridBinarizer(source), multi);
+          if (pyramid) {
+            // Binarizing at full resolution may not be needed at all
+            outcome.source = source;
+            break;
+          }
+          try {
+            outcome.bitmap.getBlackMatrix();
+          } catch (NotFoundException ignored) {
+            // 1D readers may still succeed row by row
+          }
+          break;
+        case DECODE:
+          if (reader == null) {
+            reader = new MultiFormatReader();
+            reader.setHints(hints);
+          }
+          LuminanceSource pyramidSource = outcome.source;
+          outcome.source = null;
+          try {
+            if (pyramidSource != null) {
+              PyramidReader pyramidReader = new PyramidReader(reader);
+              outcome.results = multi ?
+                  pyramidReader.decodeMultiple(pyramidSource, hints) :
+                  new Result[] {pyramidReader.decode(pyramidSource, hints)};
+            } else if (multi) {
+              outcome.results = new GenericMultipleBarcodeReader(reader).decodeMultiple(outcome.bitmap, hints);
+            } else {
+              outcome.results = new Result[] {reader.decodeWithState(outcome.bitmap)};
+            }
+          } catch (NotFoundException ignored) {
+            // leave results null
+          }
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+    }
+
+    private void finish(Outcome outcome) {
+      if (outcome.results != null) {
+        successful.incrementAndGet();
+      }
+      try {
+        handler.handle(outcome);
+      } catch (RuntimeException re) {
+        fail(re);
+      }
+    }
+
+    /**
+     * Records the first failure, and stops every worker, including this one, by interrupting it.
+     * Otherwise a stage whose workers had all died would leave the others waiting on it forever.
+     */
+    private void fail(Throwable t) {
+      if (failure.compareAndSet(null, t)) {
+        for (Thread worker : workers) {
+          worker.interrupt();
+        }
+      }
+    }
+
+  }
+
+  /**
+   * Maps local files, which leaves reading the pixels to the OS as they are needed; anything else
+   * is read into memory.
+   */
+  private static ByteBuffer readFrame(URI uri) throws IOException {
+    if ("file".equals(uri.getScheme())) {
+      try (FileChannel channel = FileChannel.open(Paths.get(uri), StandardOpenOption.READ)) {
+        // The mapping stays valid after the channel is closed
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      }
+    }
+    return ByteBuffer.wrap(readBytes(uri));
+  }
+
+  private static byte[] readBytes(URI uri) throws IOException {
+    if ("file".equals(uri.getScheme())) {
+      return Files.readAllBytes(Paths.get(uri));
+    }
+    try (InputStream in = uri.toURL().openStream()) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      for (int read; (read = in.read(buffer)) > 0;) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    } catch (IllegalArgumentException iae) {
+      throw new IOException("Resource not found: " + uri, iae);
+    }
+  }
+
+}
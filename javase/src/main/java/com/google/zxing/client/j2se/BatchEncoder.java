@@ -0,0 +1,333 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <p>Encodes many contents into barcodes of one format on several threads, and optionally renders
+ * each as an image file in memory, so that the caller only has to store the bytes. Each thread
+ * keeps its own writer and output buffer across the codes it encodes.</p>
+ *
+ * <p>Configure it with the setters, then call {@link #encode(Iterable)}, which may be called
+ * again for further batches. The {@link Handler} receives one {@link Outcome} per input, in no
+ * particular order; {@link Outcome#getIndex()} tells which input it is.</p>
+ */
+public final class BatchEncoder {
+
+  /**
+   * Receives the {@link Outcome} for each input. It is called from several threads at once.
+   */
+  public interface Handler {
+    /**
+     * @param outcome what became of one input
+     * @throws IOException if storing the outcome fails; encoding then stops
+     */
+    void handle(Outcome outcome) throws IOException;
+  }
+
+  /**
+   * What became of one input.
+   */
+  public static final class Outcome {
+
+    private final long index;
+    private final String contents;
+    private BitMatrix matrix;
+    private byte[] image;
+    private Exception error;
+
+    Outcome(long index, String contents) {
+      this.index = index;
+      this.contents = contents;
+    }
+
+    /**
+     * @return position of the input in its batch, from 0
+     */
+    public long getIndex() {
+      return index;
+    }
+
+    public String getContents() {
+      return contents;
+    }
+
+    /**
+     * @return the encoded barcode, or null if it could not be encoded
+     */
+    public BitMatrix getMatrix() {
+      return matrix;
+    }
+
+    /**
+     * @return the rendered image file, or null if no image format is set or the barcode could not
+     *  be encoded
+     */
+    public byte[] getImage() {
+      return image;
+    }
+
+    /**
+     * @return why the barcode could not be encoded or rendered, or null if it was
+     */
+    public Exception getError() {
+      return error;
+    }
+
+  }
+
+  private static final Outcome END = new Outcome(-1, null);
+
+  private final BarcodeFormat format;
+  private final int width;
+  private final int height;
+  private final Map<EncodeHintType,?> hints;
+  private final Handler handler;
+  private int threads;
+  private int queueCapacity;
+  private String imageFormat;
+  private MatrixToImageConfig imageConfig = new MatrixToImageConfig();
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong encodeNanos = new AtomicLong();
+  private final AtomicLong renderNanos = new AtomicLong();
+
+  /**
+   * @param format format to encode
+   * @param width preferred width of each barcode, as passed to {@link MultiFormatWriter}
+   * @param height preferred height of each barcode
+   * @param hints hints to encode with
+   * @param handler receives the outcome for each input
+   */
+  public BatchEncoder(BarcodeFormat format,
+                      int width,
+                      int height,
+                      Map<EncodeHintType,?> hints,
+                      Handler handler) {
+    this.format = format;
+    this.width = width;
+    this.height = height;
+    this.hints = hints;
+    this.handler = handler;
+    threads = Runtime.getRuntime().availableProcessors();
+    queueCapacity = 64 * threads;
+  }
+
+  /**
+   * @param threads number of threads to encode on; the number of processors by default
+   */
+  public void setThreads(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Need at least one thread");
+    }
+    this.threads = threads;
+  }
+
+  /**
+   * @param queueCapacity most inputs waiting to be encoded; 64 per thread by default
+   */
+  public void setQueueCapacity(int queueCapacity) {
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("Queue capacity must be positive");
+    }
+    this.queueCapacity = queueCapacity;
+  }
+
+  /**
+   * Renders each barcode as an image file. PNG, BMP and PBM are written by
+   * {@link MatrixImageEncoder}, SVG and EPS by {@link MatrixToVectorWriter}, and other formats by
+   * {@link MatrixToImageWriter}.
+   *
+   * @param imageFormat image format name, or null to only encode
+   * @param config colors to render with
+   */
+  public void setImageFormat(String imageFormat, MatrixToImageConfig config) {
+    this.imageFormat = imageFormat;
+    this.imageConfig = config;
+  }
+
+  /**
+   * @return number of inputs processed, including those which failed, over all batches
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * @return total time threads have spent encoding barcodes, in nanoseconds
+   */
+  public long getEncodeNanos() {
+    return encodeNanos.get();
+  }
+
+  /**
+   * @return total time threads have spent rendering images, in nanoseconds
+   */
+  public long getRenderNanos() {
+    return renderNanos.get();
+  }
+
+  /**
+   * Encodes all inputs, passing each outcome to the handler, and returns when all are done.
+   * Inputs are consumed as threads have room for them, so they may be produced lazily.
+   *
+   * @param inputs contents to encode
+   * @return number of inputs which were encoded
+   * @throws IOException if the handler failed; encoding stops at the first failure
+   * @throws InterruptedException if interrupted while waiting; the threads are then stopped
+   */
+  public int encode(Iterable<String> inputs) throws IOException, InterruptedException {
+    AtomicInteger successful = new AtomicInteger();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    BlockingQueue<Outcome> queue = new ArrayBlockingQueue<>(queueCapacity);
+    Collection<Thread> workers = new ArrayList<>(threads);
+    for (int t = 0; t < threads; t++) {
+      Thread worker = new Thread(new EncodeWorker(queue, successful, failure), "BatchEncoder-" + t);
+      worker.setDaemon(true);
+      workers.add(worker);
+    }
+    for (Thread worker : workers) {
+      worker.start();
+    }
+
+    try {
+      long index = 0;
+      boolean running = true;
+      for (Iterator<String> it = inputs.iterator(); running && it.hasNext();) {
+        running = failure.get() == null && BatchDecoder.put(queue, new Outcome(index++, it.next()), failure);
+      }
+      for (int t = 0; running && t < threads; t++) {
+        running = BatchDecoder.put(queue, END, failure);
+      }
+      if (!running) {
+        // Workers which died with an Error take no more, so the rest may never see END
+        for (Thread worker : workers) {
+          worker.interrupt();
+        }
+      }
+      for (Thread worker : workers) {
+        worker.join();
+      }
+    } catch (InterruptedException ie) {
+      for (Thread worker : workers) {
+        worker.interrupt();
+      }
+      throw ie;
+    }
+
+    Throwable t = failure.get();
+    if (t instanceof IOException) {
+      throw (IOException) t;
+    }
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    return successful.get();
+  }
+
+  private final class EncodeWorker implements Runnable {
+
+    private final BlockingQueue<Outcome> queue;
+    private final AtomicInteger successful;
+    private final AtomicReference<Throwable> failure;
+    private final MultiFormatWriter writer = new MultiFormatWriter();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+
+    EncodeWorker(BlockingQueue<Outcome> queue, AtomicInteger successful, AtomicReference<Throwable> failure) {
+      this.queue = queue;
+      this.successful = successful;
+      this.failure = failure;
+    }
+
+    @Override
+    public void run() {
+      try {
+        for (Outcome outcome; (outcome = queue.take()) != END;) {
+          // After a failure, inputs already queued are dropped
+          if (failure.get() == null) {
+            process(outcome);
+            try {
+              handler.handle(outcome);
+            } catch (IOException | RuntimeException e) {
+              failure.compareAndSet(null, e);
+            }
+          }
+        }
+      } catch (InterruptedException ie) {
+        // stopped by encode(), or after a failure
+      } catch (Error e) {
+        failure.compareAndSet(null, e);
+      }
+    }
+
+    private void process(Outcome outcome) {
+      long start = System.nanoTime();
+      try {
+        outcome.matrix = writer.encode(outcome.contents, format, width, height, hints);
+      } catch (WriterException | IllegalArgumentException e) {
+        outcome.error = e;
+      }
+      long encoded = System.nanoTime();
+      encodeNanos.addAndGet(encoded - start);
+      if (outcome.matrix != null && imageFormat != null) {
+        buffer.reset();
+        try {
+          render(outcome.matrix);
+          outcome.image = buffer.toByteArray();
+        } catch (IOException | IllegalArgumentException e) {
+          outcome.error = e;
+        }
+        renderNanos.addAndGet(System.nanoTime() - encoded);
+      }
+      count.incrementAndGet();
+      if (outcome.error == null) {
+        successful.incrementAndGet();
+      }
+    }
+
+    private void render(BitMatrix matrix) throws IOException {
+      if (MatrixToVectorWriter.isSupported(imageFormat)) {
+        MatrixToVectorWriter.writeToStream(matrix, imageFormat, buffer, imageConfig);
+      } else if (MatrixImageEncoder.isSupported(imageFormat)) {
+        MatrixImageEncoder.write(matrix, imageFormat, 1, buffer, imageConfig);
+      } else {
+        MatrixToImageWriter.writeToStream(matrix, imageFormat, buffer, imageConfig);
+      }
+    }
+
+  }
+
+}
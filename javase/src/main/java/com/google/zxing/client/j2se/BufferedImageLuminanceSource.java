@@ -16,12 +16,18 @@
 
 package com.google.zxing.client.j2se;
 
+import com.google.zxing.LuminanceMatrix;
 import com.google.zxing.LuminanceSource;
 
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.awt.image.WritableRaster;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
 
 /**
  * This LuminanceSource implementation is meant for J2SE clients and our blackbox unit tests.
@@ -47,44 +53,167 @@ public final class BufferedImageLuminanceSource extends LuminanceSource {
 
     if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
       this.image = image;
+      this.left = left;
+      this.top = top;
     } else {
       int sourceWidth = image.getWidth();
       int sourceHeight = image.getHeight();
       if (left + width > sourceWidth || top + height > sourceHeight) {
         throw new IllegalArgumentException("Crop rectangle does not fit within image data.");
       }
+      // Only the crop rectangle is converted, into an image of its own
+      this.image = toLuminance(image, left, top, width, height);
+      this.left = 0;
+      this.top = 0;
+    }
+  }
 
-      this.image = new BufferedImage(sourceWidth, sourceHeight, BufferedImage.TYPE_BYTE_GRAY);
-
-      WritableRaster raster = this.image.getRaster();
-      int[] buffer = new int[width];
-      for (int y = top; y < top + height; y++) {
-        image.getRGB(left, y, width, 1, buffer, 0, sourceWidth);
-        for (int x = 0; x < width; x++) {
-          int pixel = buffer[x];
-
-          // The color of fully-transparent pixels is irrelevant. They are often, technically, fully-transparent
-          // black (0 alpha, and then 0 RGB). They are often used, of course as the "white" area in a
-          // barcode image. Force any such pixel to be white:
-          if ((pixel & 0xFF000000) == 0) {
-            pixel = 0xFFFFFFFF; // = white
-          }
-          
-          // .299R + 0.587G + 0.114B (YUV/YIQ for PAL and NTSC), 
-          // (306*R) >> 10 is approximately equal to R*0.299, and so on.
-          // 0x200 >> 10 is 0.5, it implements rounding.
-          buffer[x] =
-              (306 * ((pixel >> 16) & 0xFF) +
-               601 * ((pixel >> 8) & 0xFF) +
-               117 * (pixel & 0xFF) +
-               0x200) >> 10;
+  /**
+   * Converts part of an image to gray. The common layouts are read straight from the arrays
+   * backing the image, and anything else goes through {@link BufferedImage#getRGB}.
+   */
+  private static BufferedImage toLuminance(BufferedImage image, int left, int top, int width, int height) {
+    BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+    byte[] luminances = ((DataBufferByte) gray.getRaster().getDataBuffer()).getData();
+    switch (image.getType()) {
+      case BufferedImage.TYPE_INT_RGB:
+      case BufferedImage.TYPE_INT_ARGB:
+        packedToLuminance(image, left, top, width, height, luminances);
+        break;
+      case BufferedImage.TYPE_3BYTE_BGR:
+      case BufferedImage.TYPE_4BYTE_ABGR:
+        interleavedToLuminance(image, left, top, width, height, luminances);
+        break;
+      default:
+        if (image.getColorModel() instanceof IndexColorModel) {
+          indexedToLuminance(image, left, top, width, height, luminances);
+        } else {
+          rgbToLuminance(image, left, top, width, height, luminances);
         }
-        raster.setPixels(left, y, width, 1, buffer);
+        break;
+    }
+    return gray;
+  }
+
+  /**
+   * Reads {@link BufferedImage#TYPE_INT_RGB} and {@link BufferedImage#TYPE_INT_ARGB} pixels.
+   */
+  private static void packedToLuminance(BufferedImage image,
+                                        int left,
+                                        int top,
+                                        int width,
+                                        int height,
+                                        byte[] luminances) {
+    boolean hasAlpha = image.getType() == BufferedImage.TYPE_INT_ARGB;
+    Raster raster = image.getRaster();
+    DataBufferInt dataBuffer = (DataBufferInt) raster.getDataBuffer();
+    int[] pixels = dataBuffer.getData();
+    int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+    // Where this image's pixels start within its sample model, when it is a subimage of another
+    int x0 = left - raster.getSampleModelTranslateX();
+    int y0 = top - raster.getSampleModelTranslateY();
+    for (int y = 0, outputOffset = 0; y < height; y++) {
+      int inputOffset = dataBuffer.getOffset() + (y0 + y) * stride + x0;
+      for (int x = 0; x < width; x++) {
+        int pixel = pixels[inputOffset + x];
+        luminances[outputOffset++] = (byte) (hasAlpha && (pixel & 0xFF000000) == 0 ?
+            0xFF : luminance((pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF));
       }
+    }
+  }
 
+  /**
+   * Reads {@link BufferedImage#TYPE_3BYTE_BGR} and {@link BufferedImage#TYPE_4BYTE_ABGR} pixels.
+   */
+  private static void interleavedToLuminance(BufferedImage image,
+                                             int left,
+                                             int top,
+                                             int width,
+                                             int height,
+                                             byte[] luminances) {
+    boolean hasAlpha = image.getType() == BufferedImage.TYPE_4BYTE_ABGR;
+    Raster raster = image.getRaster();
+    DataBufferByte dataBuffer = (DataBufferByte) raster.getDataBuffer();
+    byte[] pixels = dataBuffer.getData();
+    ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+    int pixelStride = sampleModel.getPixelStride();
+    int stride = sampleModel.getScanlineStride();
+    // Bands are red, green, blue and then alpha, wherever each sits within a pixel
+    int[] bandOffsets = sampleModel.getBandOffsets();
+    int red = bandOffsets[0];
+    int green = bandOffsets[1];
+    int blue = bandOffsets[2];
+    int alpha = hasAlpha ? bandOffsets[3] : 0;
+    int x0 = left - raster.getSampleModelTranslateX();
+    int y0 = top - raster.getSampleModelTranslateY();
+    for (int y = 0, outputOffset = 0; y < height; y++) {
+      int inputOffset = dataBuffer.getOffset() + (y0 + y) * stride + x0 * pixelStride;
+      for (int x = 0; x < width; x++, inputOffset += pixelStride) {
+        luminances[outputOffset++] = (byte) (hasAlpha && pixels[inputOffset + alpha] == 0 ?
+            0xFF :
+            luminance(pixels[inputOffset + red] & 0xFF,
+                      pixels[inputOffset + green] & 0xFF,
+                      pixels[inputOffset + blue] & 0xFF));
+      }
     }
-    this.left = left;
-    this.top = top;
+  }
+
+  /**
+   * Converts each entry of the palette once, then looks up each pixel's index in that.
+   */
+  private static void indexedToLuminance(BufferedImage image,
+                                         int left,
+                                         int top,
+                                         int width,
+                                         int height,
+                                         byte[] luminances) {
+    IndexColorModel colorModel = (IndexColorModel) image.getColorModel();
+    int mapSize = colorModel.getMapSize();
+    int bits = colorModel.getPixelSize();
+    // Pixels may hold indices past the end of the palette, which are transparent
+    byte[] palette = new byte[bits < 16 ? Math.max(mapSize, 1 << bits) : mapSize];
+    for (int i = 0; i < palette.length; i++) {
+      palette[i] = (byte) (i >= mapSize || colorModel.getAlpha(i) == 0 ?
+          0xFF : luminance(colorModel.getRed(i), colorModel.getGreen(i), colorModel.getBlue(i)));
+    }
+    Raster raster = image.getRaster();
+    int[] indices = new int[width];
+    for (int y = 0, outputOffset = 0; y < height; y++) {
+      raster.getSamples(left, top + y, width, 1, 0, indices);
+      for (int x = 0; x < width; x++) {
+        luminances[outputOffset++] = palette[indices[x]];
+      }
+    }
+  }
+
+  private static void rgbToLuminance(BufferedImage image,
+                                     int left,
+                                     int top,
+                                     int width,
+                                     int height,
+                                     byte[] luminances) {
+    int[] buffer = new int[width];
+    for (int y = 0, outputOffset = 0; y < height; y++) {
+      image.getRGB(left, top + y, width, 1, buffer, 0, width);
+      for (int x = 0; x < width; x++) {
+        int pixel = buffer[x];
+
+        // The color of fully-transparent pixels is irrelevant. They are often, technically, fully-transparent
+        // black (0 alpha, and then 0 RGB). They are often used, of course as the "white" area in a
+        // barcode image. Force any such pixel to be white:
+        if ((pixel & 0xFF000000) == 0) {
+          pixel = 0xFFFFFFFF; // = white
+        }
+        luminances[outputOffset++] = (byte) luminance((pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF);
+      }
+    }
+  }
+
+  private static int luminance(int red, int green, int blue) {
+    // .299R + 0.587G + 0.114B (YUV/YIQ for PAL and NTSC),
+    // (306*R) >> 10 is approximately equal to R*0.299, and so on.
+    // 0x200 >> 10 is 0.5, it implements rounding.
+    return (306 * red + 601 * green + 117 * blue + 0x200) >> 10;
   }
 
   @Override
@@ -112,6 +241,21 @@ public final class BufferedImageLuminanceSource extends LuminanceSource {
     return matrix;
   }
 
+  @Override
+  public LuminanceMatrix getMatrixView() {
+    Raster raster = image.getRaster();
+    if (!(raster.getSampleModel() instanceof ComponentSampleModel) ||
+        !(raster.getDataBuffer() instanceof DataBufferByte)) {
+      return super.getMatrixView();
+    }
+    // The underlying raster of image consists of bytes with the luminance values, one per pixel
+    ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+    DataBufferByte dataBuffer = (DataBufferByte) raster.getDataBuffer();
+    int offset = dataBuffer.getOffset() +
+        sampleModel.getOffset(left - raster.getSampleModelTranslateX(), top - raster.getSampleModelTranslateY());
+    return new LuminanceMatrix(dataBuffer.getData(), offset, sampleModel.getScanlineStride());
+  }
+
   @Override
   public boolean isCropSupported() {
     return true;
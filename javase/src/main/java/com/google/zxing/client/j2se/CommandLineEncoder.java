@@ -22,13 +22,27 @@ import com.google.zxing.common.BitMatrix;
 
 import com.beust.jcommander.JCommander;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
- * Command line utility for encoding barcodes.
+ * Command line utility for encoding barcodes. With --input, each line of a file or of standard
+ * input is encoded by a {@link BatchEncoder}, into a directory or a zip file.
  * 
  * @author Sean Owen
  */
@@ -42,24 +56,153 @@ public final class CommandLineEncoder {
     JCommander jCommander = new JCommander(config);
     jCommander.parse(args);
     jCommander.setProgramName(CommandLineEncoder.class.getSimpleName());
-    if (config.help) {
+    if (config.help || (config.input == null) == (config.contents == null || config.contents.isEmpty())) {
       jCommander.usage();
       return;
     }
 
-    String outFileString = config.outputFileBase;
-    if (EncoderConfig.DEFAULT_OUTPUT_FILE_BASE.equals(outFileString)) {
-      outFileString += '.' + config.imageFormat.toLowerCase(Locale.ENGLISH);
-    }
     Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
     if (config.errorCorrectionLevel != null) {
       hints.put(EncodeHintType.ERROR_CORRECTION, config.errorCorrectionLevel);
     }
+    if (config.input != null) {
+      encodeBatch(config, hints);
+      return;
+    }
+
+    String outFileString = config.outputFileBase;
+    if (EncoderConfig.DEFAULT_OUTPUT_FILE_BASE.equals(outFileString)) {
+      outFileString += '.' + config.imageFormat.toLowerCase(Locale.ENGLISH);
+    }
     BitMatrix matrix = new MultiFormatWriter().encode(
         config.contents.get(0), config.barcodeFormat, config.width,
         config.height, hints);
-    MatrixToImageWriter.writeToPath(matrix, config.imageFormat,
-        Paths.get(outFileString));
+    Path outFile = Paths.get(outFileString);
+    if (MatrixToVectorWriter.isSupported(config.imageFormat)) {
+      try (OutputStream out = Files.newOutputStream(outFile)) {
+        MatrixToVectorWriter.writeToStream(matrix, config.imageFormat, out);
+      }
+    } else if (MatrixImageEncoder.isSupported(config.imageFormat)) {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(outFile))) {
+        MatrixImageEncoder.write(matrix, config.imageFormat, out);
+      }
+    } else {
+      MatrixToImageWriter.writeToPath(matrix, config.imageFormat, outFile);
+    }
+  }
+
+  private static void encodeBatch(EncoderConfig config, Map<EncodeHintType,?> hints)
+      throws IOException, InterruptedException {
+    final String extension = '.' + config.imageFormat.toLowerCase(Locale.ENGLISH);
+    Path output = Paths.get(config.outputFileBase);
+    boolean zip = config.outputFileBase.toLowerCase(Locale.ENGLISH).endsWith(".zip");
+    BufferedReader reader = "-".equals(config.input) ?
+        new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)) :
+        Files.newBufferedReader(Paths.get(config.input), StandardCharsets.UTF_8);
+    final ZipOutputStream zipOut = zip ?
+        new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) : null;
+    if (!zip) {
+      Files.createDirectories(output);
+    }
+    final Path directory = output;
+
+    BatchEncoder encoder = new BatchEncoder(config.barcodeFormat, config.width, config.height, hints,
+        new BatchEncoder.Handler() {
+          @Override
+          public void handle(BatchEncoder.Outcome outcome) throws IOException {
+            long line = outcome.getIndex() + 1;
+            if (outcome.getError() != null) {
+              System.err.println("Line " + line + ": " + outcome.getError());
+              return;
+            }
+            String name = line + extension;
+            if (zipOut == null) {
+              Files.write(directory.resolve(name), outcome.getImage());
+            } else {
+              // Entries can only be written one at a time
+              synchronized (zipOut) {
+                zipOut.putNextEntry(new ZipEntry(name));
+                zipOut.write(outcome.getImage());
+                zipOut.closeEntry();
+              }
+            }
+          }
+        });
+    encoder.setThreads(config.threads);
+    encoder.setImageFormat(config.imageFormat, new MatrixToImageConfig());
+
+    Lines lines = new Lines(reader);
+    long start = System.nanoTime();
+    int successful;
+    try {
+      successful = encoder.encode(lines);
+      lines.checkError();
+    } finally {
+      reader.close();
+      if (zipOut != null) {
+        zipOut.close();
+      }
+    }
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    long count = encoder.getCount();
+    System.out.println("Encoded " + successful + " of " + count + " in " + millis + " ms (" +
+        (count * 1000 / Math.max(1, millis)) + " per second)");
+    System.out.println("Threads spent " + TimeUnit.NANOSECONDS.toMillis(encoder.getEncodeNanos()) +
+        " ms encoding and " + TimeUnit.NANOSECONDS.toMillis(encoder.getRenderNanos()) + " ms rendering");
+  }
+
+  /**
+   * Reads lines as they are needed, so that input larger than memory can be encoded.
+   */
+  private static final class Lines implements Iterable<String>, Iterator<String> {
+
+    private final BufferedReader reader;
+    private String next;
+    private IOException error;
+
+    Lines(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+      return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && error == null) {
+        try {
+          next = reader.readLine();
+        } catch (IOException ioe) {
+          // Iterators can't throw it; it is rethrown by checkError()
+          error = ioe;
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      String line = next;
+      next = null;
+      return line;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    void checkError() throws IOException {
+      if (error != null) {
+        throw error;
+      }
+    }
+
   }
 
 }
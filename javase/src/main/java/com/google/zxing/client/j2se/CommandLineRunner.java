@@ -17,27 +17,29 @@
 package com.google.zxing.client.j2se;
 
 import com.beust.jcommander.JCommander;
+import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * This simple command line utility decodes files, directories of files, or URIs which are passed
  * as arguments. By default it uses the normal decoding algorithms, but you can pass --try_harder
  * to request that hint. The raw text of each barcode is printed, and when running against
- * directories, summary statistics are also displayed.
+ * directories, summary statistics are also displayed. Images are read and decoded concurrently
+ * by a {@link BatchDecoder}. With --raw, inputs are raw camera frames, which are memory-mapped
+ * rather than read.
  *
  * @author dswitkin@google.com (Daniel Switkin)
  * @author Sean Owen
@@ -82,27 +84,75 @@ public final class CommandLineRunner {
       return;
     }
 
-    Queue<URI> syncInputs = new ConcurrentLinkedQueue<>(inputs);
-    int numThreads = Math.min(numInputs, Runtime.getRuntime().availableProcessors());
-    int successful = 0;    
-    if (numThreads > 1) {
-      ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-      Collection<Future<Integer>> futures = new ArrayList<>(numThreads);
-      for (int x = 0; x < numThreads; x++) {
-        futures.add(executor.submit(new DecodeWorker(config, syncInputs)));
+    ResultStreamWriter records = null;
+    // With machine-readable records on standard output, everything else goes to standard error
+    PrintStream console = System.out;
+    if (config.outputFormat != OutputFormat.TEXT) {
+      OutputStream out;
+      if (config.outputPath == null) {
+        out = System.out;
+        console = System.err;
+      } else {
+        out = Files.newOutputStream(Paths.get(config.outputPath));
       }
-      executor.shutdown();
-      for (Future<Integer> future : futures) {
-        successful += future.get();
+      records = new ResultStreamWriter(
+          new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16), config.outputFormat);
+    }
+
+    BatchDecoder decoder = new BatchDecoder(config.buildHints(), new DecodeWorker(config, records));
+    decoder.setMulti(config.multi);
+    decoder.setPyramid(config.pyramid);
+    if (config.crop != null) {
+      List<Integer> crop = config.crop;
+      decoder.setCrop(crop.get(0), crop.get(1), crop.get(2), crop.get(3));
+    }
+    if (config.raw != null) {
+      int width = config.raw.get(0);
+      int rowStride = config.rawStride > 0 ? config.rawStride : width;
+      decoder.setRawFrames(config.rawOffset, rowStride, width, config.raw.get(1));
+    }
+    int successful;
+    // A failure to finish the records is then added to any failure to write them, not put in its place
+    try (Closeable finisher = finisher(records, config.outputPath == null)) {
+      try {
+        successful = decoder.decode(inputs);
+      } catch (IllegalStateException ise) {
+        // Records could not be written
+        if (ise.getCause() instanceof IOException) {
+          throw (IOException) ise.getCause();
+        }
+        throw ise;
       }
-    } else {
-      successful += new DecodeWorker(config, syncInputs).call();
     }
 
     if (!config.brief && numInputs > 1) {
-      System.out.println("\nDecoded " + successful + " files out of " + numInputs +
+      console.println("\nDecoded " + successful + " files out of " + numInputs +
           " successfully (" + (successful * 100 / numInputs) + "%)\n");
     }
+    if (config.stats) {
+      for (BatchDecoder.Stage stage : BatchDecoder.Stage.values()) {
+        long count = decoder.getCount(stage);
+        long millis = decoder.getNanos(stage) / 1000000;
+        console.println(stage + ": " + count + " images in " + millis + " ms" +
+            (count > 0 ? " (" + (millis / count) + " ms per image)" : ""));
+      }
+    }
+  }
+
+  /**
+   * @return something which finishes the records when closed: it closes them, or if they go to
+   *  standard output, which must stay open, only flushes them. Null if there are no records.
+   */
+  private static Closeable finisher(final ResultStreamWriter records, boolean toStandardOutput) {
+    if (records == null || !toStandardOutput) {
+      return records;
+    }
+    return new Closeable() {
+      @Override
+      public void close() throws IOException {
+        records.flush();
+      }
+    };
   }
 
   private static List<URI> expand(List<URI> inputs) throws IOException {
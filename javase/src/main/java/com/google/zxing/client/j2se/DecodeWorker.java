@@ -17,9 +17,6 @@
 package com.google.zxing.client.j2se;
 
 import com.google.zxing.BinaryBitmap;
-import com.google.zxing.DecodeHintType;
-import com.google.zxing.LuminanceSource;
-import com.google.zxing.MultiFormatReader;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.ResultPoint;
@@ -27,9 +24,6 @@ import com.google.zxing.client.result.ParsedResult;
 import com.google.zxing.client.result.ResultParser;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
-import com.google.zxing.common.HybridBinarizer;
-import com.google.zxing.multi.GenericMultipleBarcodeReader;
-import com.google.zxing.multi.MultipleBarcodeReader;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
@@ -43,45 +37,68 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.List;
-import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.Callable;
 
 /**
- * One of a pool of threads which pulls images off the Inputs queue and decodes them in parallel.
+ * Prints, and optionally dumps, the outcome of decoding each image. It is called from the
+ * decoding threads of a {@link BatchDecoder}.
  *
  * @see CommandLineRunner
  */
-final class DecodeWorker implements Callable<Integer> {
+final class DecodeWorker implements BatchDecoder.Handler {
 
   private static final int RED = 0xFFFF0000;
   private static final int BLACK = 0xFF000000;
   private static final int WHITE = 0xFFFFFFFF;
 
   private final DecoderConfig config;
-  private final Queue<URI> inputs;
-  private final Map<DecodeHintType,?> hints;
+  private final ResultStreamWriter records;
 
-  DecodeWorker(DecoderConfig config, Queue<URI> inputs) {
+  /**
+   * @param config command line options
+   * @param records where to write results, or null to print them as text
+   */
+  DecodeWorker(DecoderConfig config, ResultStreamWriter records) {
     this.config = config;
-    this.inputs = inputs;
-    hints = config.buildHints();
+    this.records = records;
   }
 
   @Override
-  public Integer call() throws IOException {
-    int successful = 0;
-    for (URI input; (input = inputs.poll()) != null;) {
-      Result[] results = decode(input, hints);
-      if (results != null) {
-        successful++;
-        if (config.dumpResults) {
-          dumpResult(input, results);
+  public void handle(BatchDecoder.Outcome outcome) {
+    URI input = outcome.getInput();
+    if (records != null) {
+      try {
+        records.write(outcome);
+      } catch (IOException ioe) {
+        // Every later record would be lost too, so stop the whole run
+        throw new IllegalStateException(ioe);
+      }
+    }
+    try {
+      if (outcome.getError() != null) {
+        if (records == null) {
+          System.err.println(input + ": " + outcome.getError());
         }
+        return;
       }
+      if (config.dumpBlackPoint && outcome.getImage() != null) {
+        dumpBlackPoint(input, outcome.getImage(), outcome.getBitmap());
+      }
+      Result[] results = outcome.getResults();
+      if (results == null) {
+        if (records == null) {
+          System.out.println(input + ": No barcode found");
+        }
+        return;
+      }
+      if (records == null) {
+        printResults(input, results);
+      }
+      if (config.dumpResults) {
+        dumpResult(input, results);
+      }
+    } catch (IOException ioe) {
+      System.err.println(input + ": " + ioe);
     }
-    return successful;
   }
 
   private static Path buildOutputPath(URI input, String suffix) throws IOException {
@@ -116,37 +133,7 @@ final class DecodeWorker implements Callable<Integer> {
     Files.write(buildOutputPath(input, ".txt"), resultTexts, StandardCharsets.UTF_8);
   }
 
-  private Result[] decode(URI uri, Map<DecodeHintType,?> hints) throws IOException {
-    BufferedImage image = ImageReader.readImage(uri);
-
-    LuminanceSource source;
-    if (config.crop == null) {
-      source = new BufferedImageLuminanceSource(image);
-    } else {
-      List<Integer> crop = config.crop;
-      source = new BufferedImageLuminanceSource(
-          image, crop.get(0), crop.get(1), crop.get(2), crop.get(3));
-    }
-
-    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
-    if (config.dumpBlackPoint) {
-      dumpBlackPoint(uri, image, bitmap);
-    }
-
-    MultiFormatReader multiFormatReader = new MultiFormatReader();
-    Result[] results;
-    try {
-      if (config.multi) {
-        MultipleBarcodeReader reader = new GenericMultipleBarcodeReader(multiFormatReader);
-        results = reader.decodeMultiple(bitmap, hints);
-      } else {
-        results = new Result[]{multiFormatReader.decode(bitmap, hints)};
-      }
-    } catch (NotFoundException ignored) {
-      System.out.println(uri + ": No barcode found");
-      return null;
-    }
-
+  private void printResults(URI uri, Result... results) {
     if (config.brief) {
       System.out.println(uri + ": Success");
     } else {
@@ -176,8 +163,6 @@ final class DecodeWorker implements Callable<Integer> {
       }
       System.out.println(output);
     }
-
-    return results;
   }
 
   /**
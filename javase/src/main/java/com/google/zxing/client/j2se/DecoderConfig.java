@@ -54,10 +54,26 @@ final class DecoderConfig {
       description = "Scans image for multiple barcodes")
   boolean multi;
 
+  @Parameter(names = "--pyramid",
+      description = "Try shrunken copies of large images before the full resolution image")
+  boolean pyramid;
+
   @Parameter(names = "--brief",
       description = "Only output one line per file, omitting the contents")
   boolean brief;
 
+  @Parameter(names = "--output_format",
+      description = "TEXT describes each result; JSON writes one object per line, and CSV one row, per result")
+  OutputFormat outputFormat = OutputFormat.TEXT;
+
+  @Parameter(names = "--output",
+      description = "File to write JSON or CSV results to, instead of standard output")
+  String outputPath;
+
+  @Parameter(names = "--stats",
+      description = "When done, print the time spent in each stage of decoding")
+  boolean stats;
+
   @Parameter(names = "--recursive",
       description = "Descend into subdirectories")
   boolean recursive;
@@ -68,6 +84,22 @@ final class DecoderConfig {
       validateWith = PositiveInteger.class)
   List<Integer> crop;
 
+  @Parameter(names = "--raw",
+      description = "Inputs are raw 8-bit luminance frames (Y800, or NV21 and similar) of this width and height",
+      arity = 2,
+      validateWith = PositiveInteger.class)
+  List<Integer> raw;
+
+  @Parameter(names = "--raw_stride",
+      description = "Bytes from the start of one row of a raw frame to the next, default is its width",
+      validateWith = PositiveInteger.class)
+  int rawStride;
+
+  @Parameter(names = "--raw_offset",
+      description = "Bytes before the first pixel in each raw frame file",
+      validateWith = PositiveInteger.class)
+  int rawOffset;
+
   @Parameter(names = "--possible_formats",
       description = "Formats to decode, where format is any value in BarcodeFormat",
       variableArity = true)
@@ -31,11 +31,13 @@ final class EncoderConfig {
   BarcodeFormat barcodeFormat = BarcodeFormat.QR_CODE;
 
   @Parameter(names = "--image_format",
-      description = "Image output format, such as PNG, JPG, GIF")
+      description = "Image output format, such as PNG, JPG, GIF. PNG, BMP and PBM are written directly, " +
+          "and SVG and EPS as vector graphics")
   String imageFormat = "PNG";
 
   @Parameter(names = "--output",
-      description = "File to write to. Defaults to out.png")
+      description = "File to write to. Defaults to out.png. With --input, a directory to write " +
+          "each image to, named by line number, or a .zip file to write them all to")
   String outputFileBase = DEFAULT_OUTPUT_FILE_BASE;
 
   @Parameter(names = "--width",
@@ -52,12 +54,21 @@ final class EncoderConfig {
       description = "Error correction level for the encoding")
   String errorCorrectionLevel = null;
 
+  @Parameter(names = "--input",
+      description = "File with one text to encode per line, or - for standard input, instead of arguments")
+  String input;
+
+  @Parameter(names = "--threads",
+      description = "Number of threads to encode --input on. Defaults to the number of processors",
+      validateWith = PositiveInteger.class)
+  int threads = Runtime.getRuntime().availableProcessors();
+
   @Parameter(names = "--help",
       description = "Prints this help message",
       help = true)
   boolean help;
 
-  @Parameter(description = "(Text to encode)", required = true)
+  @Parameter(description = "(Text to encode)")
   List<String> contents;
 
 }
@@ -0,0 +1,314 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a {@link BitMatrix} as a 1-bit PNG, BMP or PBM image, straight from the rows of the matrix.
+ * Unlike {@link MatrixToImageWriter}, no {@link java.awt.image.BufferedImage} is built, so memory use
+ * is a few rows whatever the size of the image, and each module may be scaled up as it is written.
+ *
+ * PNG and BMP images have a two color palette from a {@link MatrixToImageConfig}, including alpha
+ * for PNG. PBM images are always black on white.
+ */
+public final class MatrixImageEncoder {
+
+  private static final MatrixToImageConfig DEFAULT_CONFIG = new MatrixToImageConfig();
+  private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  private static final int IDAT_SIZE = 1 << 15;
+
+  private MatrixImageEncoder() {
+  }
+
+  /**
+   * @param format image format name, as given to {@link MatrixToImageWriter}
+   * @return true if {@link #write(BitMatrix, String, int, OutputStream, MatrixToImageConfig)} can
+   *  write it
+   */
+  public static boolean isSupported(String format) {
+    switch (format.toUpperCase(Locale.ROOT)) {
+      case "PNG":
+      case "BMP":
+      case "PBM":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Writes a {@link BitMatrix} with default configuration, one pixel per bit.
+   *
+   * @param matrix {@link BitMatrix} to write
+   * @param format "PNG", "BMP" or "PBM"
+   * @param stream {@link OutputStream} to write image to
+   * @throws IOException if writes to the stream fail
+   */
+  public static void write(BitMatrix matrix, String format, OutputStream stream) throws IOException {
+    write(matrix, format, 1, stream, DEFAULT_CONFIG);
+  }
+
+  /**
+   * @param matrix {@link BitMatrix} to write
+   * @param format "PNG", "BMP" or "PBM"
+   * @param scale width and height in pixels of each bit of the matrix
+   * @param stream {@link OutputStream} to write image to
+   * @param config output configuration
+   * @throws IOException if writes to the stream fail
+   * @throws IllegalArgumentException if the format is not supported
+   */
+  public static void write(BitMatrix matrix,
+                           String format,
+                           int scale,
+                           OutputStream stream,
+                           MatrixToImageConfig config) throws IOException {
+    if (scale < 1) {
+      throw new IllegalArgumentException("Scale must be positive");
+    }
+    switch (format.toUpperCase(Locale.ROOT)) {
+      case "PNG":
+        writePNG(matrix, scale, stream, config);
+        break;
+      case "BMP":
+        writeBMP(matrix, scale, stream, config);
+        break;
+      case "PBM":
+        writePBM(matrix, scale, stream);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported format " + format);
+    }
+  }
+
+  private static void writePNG(BitMatrix matrix, int scale, OutputStream stream, MatrixToImageConfig config)
+      throws IOException {
+    int width = matrix.getWidth() * scale;
+    int height = matrix.getHeight() * scale;
+    int offColor = config.getPixelOffColor();
+    int onColor = config.getPixelOnColor();
+    stream.write(PNG_SIGNATURE);
+
+    ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+    DataOutputStream headerData = new DataOutputStream(header);
+    headerData.writeInt(width);
+    headerData.writeInt(height);
+    headerData.writeByte(1); // bit depth
+    headerData.writeByte(3); // indexed color
+    headerData.writeByte(0); // deflate
+    headerData.writeByte(0); // adaptive filtering
+    headerData.writeByte(0); // no interlace
+    writeChunk(stream, "IHDR", header.toByteArray(), header.size());
+
+    // Index 0 is off, and 1 is on, like the bits of the matrix
+    byte[] palette = {
+        (byte) (offColor >> 16), (byte) (offColor >> 8), (byte) offColor,
+        (byte) (onColor >> 16), (byte) (onColor >> 8), (byte) onColor,
+    };
+    writeChunk(stream, "PLTE", palette, palette.length);
+    if ((offColor & onColor) >>> 24 != 0xFF) {
+      byte[] alpha = {(byte) (offColor >>> 24), (byte) (onColor >>> 24)};
+      writeChunk(stream, "tRNS", alpha, alpha.length);
+    }
+
+    Deflater deflater = new Deflater();
+    try {
+      ChunkOutputStream idat = new ChunkOutputStream(stream, "IDAT");
+      DeflaterOutputStream compressed = new DeflaterOutputStream(idat, deflater, IDAT_SIZE);
+      // Each row is preceded by its filter type, 0 for none
+      byte[] scanline = new byte[1 + (width + 7) / 8];
+      BitArray row = new BitArray(matrix.getWidth());
+      for (int y = 0; y < matrix.getHeight(); y++) {
+        row = matrix.getRow(y, row);
+        packRow(row, matrix.getWidth(), scale, scanline, 1);
+        for (int i = 0; i < scale; i++) {
+          compressed.write(scanline);
+        }
+      }
+      compressed.finish();
+      idat.flushChunk();
+    } finally {
+      deflater.end();
+    }
+    writeChunk(stream, "IEND", new byte[0], 0);
+    stream.flush();
+  }
+
+  private static void writeBMP(BitMatrix matrix, int scale, OutputStream stream, MatrixToImageConfig config)
+      throws IOException {
+    int width = matrix.getWidth() * scale;
+    int height = matrix.getHeight() * scale;
+    // Rows are padded to a multiple of 4 bytes
+    int rowBytes = ((width + 31) / 32) * 4;
+    int headerSize = 14 + 40 + 2 * 4;
+    byte[] header = new byte[headerSize];
+    header[0] = 'B';
+    header[1] = 'M';
+    putLittleEndian(header, 2, headerSize + rowBytes * height);
+    putLittleEndian(header, 10, headerSize);
+    putLittleEndian(header, 14, 40);
+    putLittleEndian(header, 18, width);
+    putLittleEndian(header, 22, height);
+    header[26] = 1; // planes
+    header[28] = 1; // bits per pixel
+    putLittleEndian(header, 34, rowBytes * height);
+    putLittleEndian(header, 38, 2835); // 72 DPI, in pixels per meter
+    putLittleEndian(header, 42, 2835);
+    putLittleEndian(header, 46, 2);
+    // Palette entries are blue, green, red, unused
+    putLittleEndian(header, 54, config.getPixelOffColor() & 0xFFFFFF);
+    putLittleEndian(header, 58, config.getPixelOnColor() & 0xFFFFFF);
+    stream.write(header);
+
+    byte[] packed = new byte[rowBytes];
+    BitArray row = new BitArray(matrix.getWidth());
+    // Rows are stored bottom up
+    for (int y = matrix.getHeight() - 1; y >= 0; y--) {
+      row = matrix.getRow(y, row);
+      packRow(row, matrix.getWidth(), scale, packed, 0);
+      for (int i = 0; i < scale; i++) {
+        stream.write(packed);
+      }
+    }
+    stream.flush();
+  }
+
+  private static void writePBM(BitMatrix matrix, int scale, OutputStream stream) throws IOException {
+    int width = matrix.getWidth() * scale;
+    int height = matrix.getHeight() * scale;
+    stream.write(("P4\n" + width + ' ' + height + '\n').getBytes(StandardCharsets.US_ASCII));
+    // In PBM, 1 is black
+    byte[] packed = new byte[(width + 7) / 8];
+    BitArray row = new BitArray(matrix.getWidth());
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      row = matrix.getRow(y, row);
+      packRow(row, matrix.getWidth(), scale, packed, 0);
+      for (int i = 0; i < scale; i++) {
+        stream.write(packed);
+      }
+    }
+    stream.flush();
+  }
+
+  /**
+   * Packs a row into bytes, most significant bit first, repeating each bit scale times. Bits past
+   * the end of the row are left clear.
+   */
+  private static void packRow(BitArray row, int width, int scale, byte[] out, int offset) {
+    int[] bits = row.getBitArray();
+    if (scale == 1) {
+      // Reversing a word puts its first bit at the top, and so its first byte is written first
+      int bytes = (width + 7) / 8;
+      for (int i = 0; i < bytes; i++) {
+        int word = Integer.reverse(bits[i / 4]);
+        out[offset + i] = (byte) (word >>> (24 - 8 * (i & 0x03)));
+      }
+      return;
+    }
+    int outBytes = (width * scale + 7) / 8;
+    for (int i = 0; i < outBytes; i++) {
+      out[offset + i] = 0;
+    }
+    int pixel = 0;
+    for (int x = 0; x < width; x++) {
+      if (((bits[x / 32] >>> (x & 0x1F)) & 1) != 0) {
+        for (int end = pixel + scale; pixel < end; pixel++) {
+          out[offset + pixel / 8] |= (byte) (0x80 >>> (pixel & 0x07));
+        }
+      } else {
+        pixel += scale;
+      }
+    }
+  }
+
+  private static void putLittleEndian(byte[] array, int offset, int value) {
+    array[offset] = (byte) value;
+    array[offset + 1] = (byte) (value >> 8);
+    array[offset + 2] = (byte) (value >> 16);
+    array[offset + 3] = (byte) (value >> 24);
+  }
+
+  private static void writeChunk(OutputStream stream, String type, byte[] data, int length) throws IOException {
+    byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, 0, length);
+    DataOutputStream out = new DataOutputStream(stream);
+    out.writeInt(length);
+    out.write(typeBytes);
+    out.write(data, 0, length);
+    out.writeInt((int) crc.getValue());
+  }
+
+  /**
+   * Collects compressed data into chunks of a bounded size.
+   */
+  private static final class ChunkOutputStream extends FilterOutputStream {
+
+    private final String type;
+    private final byte[] buffer = new byte[IDAT_SIZE];
+    private int count;
+
+    ChunkOutputStream(OutputStream out, String type) {
+      super(out);
+      this.type = type;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (count == buffer.length) {
+        flushChunk();
+      }
+      buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (count == buffer.length) {
+          flushChunk();
+        }
+        int n = Math.min(len, buffer.length - count);
+        System.arraycopy(b, off, buffer, count, n);
+        count += n;
+        off += n;
+        len -= n;
+      }
+    }
+
+    void flushChunk() throws IOException {
+      if (count > 0) {
+        writeChunk(out, type, buffer, count);
+        count = 0;
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Writes a {@link BitMatrix} as vector graphics, SVG or EPS, for printing at any resolution.
+ * Horizontal runs of set bits become rectangles, and a run in the same place on the next row
+ * extends the rectangle above it instead of starting another, so the output grows with the
+ * structure of the symbol and not with the size it is drawn at. Matrices scaled up by a writer
+ * produce no more rectangles than unscaled ones.
+ *
+ * One unit of the drawing is one bit of the matrix. SVG output is drawn at that size unless the
+ * viewer scales it; EPS output is in points.
+ */
+public final class MatrixToVectorWriter {
+
+  private static final MatrixToImageConfig DEFAULT_CONFIG = new MatrixToImageConfig();
+
+  private MatrixToVectorWriter() {
+  }
+
+  /**
+   * @param format image format name, as given to {@link MatrixToImageWriter}
+   * @return true if {@link #writeToStream(BitMatrix, String, OutputStream, MatrixToImageConfig)}
+   *  can write it
+   */
+  public static boolean isSupported(String format) {
+    switch (format.toUpperCase(Locale.ROOT)) {
+      case "SVG":
+      case "EPS":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Writes a {@link BitMatrix} with default configuration.
+   *
+   * @param matrix {@link BitMatrix} to write
+   * @param format "SVG" or "EPS"
+   * @param stream {@link OutputStream} to write UTF-8 text to
+   * @throws IOException if writes to the stream fail
+   */
+  public static void writeToStream(BitMatrix matrix, String format, OutputStream stream) throws IOException {
+    writeToStream(matrix, format, stream, DEFAULT_CONFIG);
+  }
+
+  /**
+   * @param matrix {@link BitMatrix} to write
+   * @param format "SVG" or "EPS"
+   * @param stream {@link OutputStream} to write UTF-8 text to
+   * @param config output configuration
+   * @throws IOException if writes to the stream fail
+   * @throws IllegalArgumentException if the format is not supported
+   */
+  public static void writeToStream(BitMatrix matrix, String format, OutputStream stream, MatrixToImageConfig config)
+      throws IOException {
+    Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+    switch (format.toUpperCase(Locale.ROOT)) {
+      case "SVG":
+        writeSVG(matrix, out, config);
+        break;
+      case "EPS":
+        writeEPS(matrix, out, config);
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported format " + format);
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes an SVG document with one path for the set bits, over a rectangle for the background
+   * unless it is fully transparent.
+   *
+   * @param matrix {@link BitMatrix} to write
+   * @param out where to write the document
+   * @param config output configuration
+   * @throws IOException if writes fail
+   */
+  public static void writeSVG(BitMatrix matrix, final Appendable out, MatrixToImageConfig config)
+      throws IOException {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    out.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    out.append("<svg xmlns=\"http://www.w3.org/2000/svg\" version=\"1.1\" width=\"").append(Integer.toString(width))
+        .append("\" height=\"").append(Integer.toString(height))
+        .append("\" viewBox=\"0 0 ").append(Integer.toString(width)).append(' ').append(Integer.toString(height))
+        .append("\" shape-rendering=\"crispEdges\">\n");
+    int offColor = config.getPixelOffColor();
+    if (offColor >>> 24 != 0) {
+      out.append("<rect width=\"100%\" height=\"100%\"");
+      appendFill(out, offColor);
+      out.append("/>\n");
+    }
+    out.append("<path");
+    appendFill(out, config.getPixelOnColor());
+    out.append(" d=\"");
+    forEachRectangle(matrix, new RectangleHandler() {
+      @Override
+      public void handle(int left, int top, int width, int height) throws IOException {
+        out.append('M').append(Integer.toString(left)).append(',').append(Integer.toString(top))
+            .append('h').append(Integer.toString(width))
+            .append('v').append(Integer.toString(height))
+            .append('h').append(Integer.toString(-width)).append('z');
+      }
+    });
+    out.append("\"/>\n</svg>\n");
+  }
+
+  /**
+   * Writes an Encapsulated PostScript document, one point per bit. EPS has no transparency, so
+   * the background is left unpainted if it is not fully opaque.
+   *
+   * @param matrix {@link BitMatrix} to write
+   * @param out where to write the document
+   * @param config output configuration
+   * @throws IOException if writes fail
+   */
+  public static void writeEPS(BitMatrix matrix, final Appendable out, MatrixToImageConfig config)
+      throws IOException {
+    int width = matrix.getWidth();
+    final int height = matrix.getHeight();
+    out.append("%!PS-Adobe-3.0 EPSF-3.0\n");
+    out.append("%%BoundingBox: 0 0 ").append(Integer.toString(width)).append(' ')
+        .append(Integer.toString(height)).append('\n');
+    out.append("%%EndComments\n");
+    int offColor = config.getPixelOffColor();
+    if (offColor >>> 24 == 0xFF) {
+      appendRGB(out, offColor);
+      out.append("0 0 ").append(Integer.toString(width)).append(' ').append(Integer.toString(height))
+          .append(" rectfill\n");
+    }
+    appendRGB(out, config.getPixelOnColor());
+    forEachRectangle(matrix, new RectangleHandler() {
+      @Override
+      public void handle(int left, int top, int width, int rectHeight) throws IOException {
+        // PostScript's origin is at the bottom left
+        out.append(Integer.toString(left)).append(' ').append(Integer.toString(height - top - rectHeight))
+            .append(' ').append(Integer.toString(width)).append(' ').append(Integer.toString(rectHeight))
+            .append(" rectfill\n");
+      }
+    });
+    out.append("showpage\n%%EOF\n");
+  }
+
+  private static void appendFill(Appendable out, int argb) throws IOException {
+    out.append(" fill=\"#").append(String.format("%06x", argb & 0xFFFFFF)).append('"');
+    int alpha = argb >>> 24;
+    if (alpha != 0xFF) {
+      out.append(" fill-opacity=\"").append(String.format(Locale.ROOT, "%.3f", alpha / 255.0)).append('"');
+    }
+  }
+
+  private static void appendRGB(Appendable out, int rgb) throws IOException {
+    out.append(String.format(Locale.ROOT, "%.3f %.3f %.3f setrgbcolor\n",
+        ((rgb >> 16) & 0xFF) / 255.0, ((rgb >> 8) & 0xFF) / 255.0, (rgb & 0xFF) / 255.0));
+  }
+
+  /**
+   * Covers the set bits of a matrix with rectangles. Runs of set bits on each row which start and
+   * end where runs on the row above did extend those runs' rectangles downwards.
+   */
+  static void forEachRectangle(BitMatrix matrix, RectangleHandler handler) throws IOException {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    // Open rectangles, as start, end and top, sorted by start
+    int[] open = new int[0];
+    int openCount = 0;
+    int[] current = new int[48];
+    BitArray row = new BitArray(width);
+    for (int y = 0; y <= height; y++) {
+      int runCount = 0;
+      if (y < height) {
+        row = matrix.getRow(y, row);
+        int start = row.getNextSet(0);
+        while (start < width) {
+          int end = row.getNextUnset(start);
+          if (3 * runCount + 3 > current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+          }
+          current[3 * runCount] = start;
+          current[3 * runCount + 1] = end;
+          current[3 * runCount + 2] = y;
+          runCount++;
+          start = row.getNextSet(end);
+        }
+      }
+      // Walk both sorted lists: a run matching an open rectangle continues it, and open
+      // rectangles with no match end at the row above
+      int i = 0;
+      for (int j = 0; j < runCount; j++) {
+        int start = current[3 * j];
+        while (i < openCount && open[3 * i] < start) {
+          emit(open, i, y, handler);
+          i++;
+        }
+        if (i < openCount && open[3 * i] == start && open[3 * i + 1] == current[3 * j + 1]) {
+          current[3 * j + 2] = open[3 * i + 2];
+          i++;
+        }
+      }
+      for (; i < openCount; i++) {
+        emit(open, i, y, handler);
+      }
+      int[] temp = open;
+      open = current;
+      current = temp.length >= open.length ? temp : new int[open.length];
+      openCount = runCount;
+    }
+  }
+
+  private static void emit(int[] open, int i, int bottom, RectangleHandler handler) throws IOException {
+    int top = open[3 * i + 2];
+    handler.handle(open[3 * i], top, open[3 * i + 1] - open[3 * i], bottom - top);
+  }
+
+  /**
+   * Receives the rectangles covering a matrix.
+   */
+  interface RectangleHandler {
+    void handle(int left, int top, int width, int height) throws IOException;
+  }
+
+}
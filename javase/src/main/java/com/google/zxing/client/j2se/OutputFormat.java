@@ -0,0 +1,31 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+/**
+ * How {@link CommandLineRunner} reports results.
+ */
+enum OutputFormat {
+
+  /** Human-readable description of each result, as results arrive. */
+  TEXT,
+  /** One JSON object per line. */
+  JSON,
+  /** Comma-separated values, with a header line. */
+  CSV,
+
+}
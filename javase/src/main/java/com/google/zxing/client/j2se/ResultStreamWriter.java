@@ -0,0 +1,285 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.Result;
+import com.google.zxing.ResultMetadataType;
+import com.google.zxing.ResultPoint;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Writes one machine-readable record per result, in {@link OutputFormat#JSON} (one object per
+ * line) or {@link OutputFormat#CSV}, to a single stream shared by all decoding threads. An image
+ * with no barcode, or which could not be read, gets one record without a format or text.
+ *
+ * @see DecodeWorker
+ */
+final class ResultStreamWriter implements Closeable, Flushable {
+
+  private static final String CSV_HEADER = "input,format,text,points,nanos,metadata,error";
+  private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+  private final Writer out;
+  private final OutputFormat format;
+
+  ResultStreamWriter(Writer out, OutputFormat format) throws IOException {
+    if (format == OutputFormat.TEXT) {
+      throw new IllegalArgumentException("Not a record format: " + format);
+    }
+    this.out = out;
+    this.format = format;
+    if (format == OutputFormat.CSV) {
+      out.write(CSV_HEADER);
+      out.write('\n');
+    }
+  }
+
+  /**
+   * Writes records for the outcome of one image. Records are built first and then written
+   * together, so those of different images never interleave.
+   */
+  void write(BatchDecoder.Outcome outcome) throws IOException {
+    long nanos = 0;
+    for (BatchDecoder.Stage stage : BatchDecoder.Stage.values()) {
+      nanos += outcome.getNanos(stage);
+    }
+    String input = outcome.getInput().toString();
+    Exception error = outcome.getError();
+    String errorMessage = error == null ? null : error.toString();
+    StringBuilder records = new StringBuilder();
+    Result[] results = outcome.getResults();
+    if (results == null) {
+      appendRecord(records, input, null, nanos, errorMessage);
+    } else {
+      for (Result result : results) {
+        appendRecord(records, input, result, nanos, null);
+      }
+    }
+    synchronized (out) {
+      out.append(records);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.close();
+  }
+
+  private void appendRecord(StringBuilder record, String input, Result result, long nanos, String error) {
+    if (format == OutputFormat.JSON) {
+      appendJsonRecord(record, input, result, nanos, error);
+    } else {
+      appendCsvRecord(record, input, result, nanos, error);
+    }
+    record.append('\n');
+  }
+
+  private static void appendJsonRecord(StringBuilder record,
+                                       String input,
+                                       Result result,
+                                       long nanos,
+                                       String error) {
+    record.append("{\"input\":");
+    appendJsonString(record, input);
+    if (result != null) {
+      record.append(",\"format\":");
+      appendJsonString(record, result.getBarcodeFormat().name());
+      record.append(",\"text\":");
+      appendJsonString(record, result.getText());
+      record.append(",\"points\":[");
+      ResultPoint[] points = result.getResultPoints();
+      if (points != null) {
+        boolean first = true;
+        for (ResultPoint point : points) {
+          if (point != null) {
+            if (!first) {
+              record.append(',');
+            }
+            first = false;
+            record.append('[').append(point.getX()).append(',').append(point.getY()).append(']');
+          }
+        }
+      }
+      record.append(']');
+    }
+    record.append(",\"nanos\":").append(nanos);
+    if (result != null && result.getResultMetadata() != null) {
+      record.append(",\"metadata\":{");
+      boolean first = true;
+      for (Map.Entry<ResultMetadataType,Object> entry : result.getResultMetadata().entrySet()) {
+        Object value = entry.getValue();
+        if (entry.getKey() == ResultMetadataType.BYTE_SEGMENTS) {
+          value = toHex(value);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+          if (!first) {
+            record.append(',');
+          }
+          first = false;
+          appendJsonString(record, entry.getKey().name());
+          record.append(':');
+          if (value instanceof String) {
+            appendJsonString(record, (String) value);
+          } else {
+            record.append(value);
+          }
+        }
+      }
+      record.append('}');
+    }
+    if (error != null) {
+      record.append(",\"error\":");
+      appendJsonString(record, error);
+    }
+    record.append('}');
+  }
+
+  private static void appendCsvRecord(StringBuilder record,
+                                      String input,
+                                      Result result,
+                                      long nanos,
+                                      String error) {
+    appendCsvField(record, input);
+    record.append(',');
+    if (result != null) {
+      record.append(result.getBarcodeFormat().name()).append(',');
+      appendCsvField(record, result.getText());
+      record.append(',');
+      StringBuilder points = new StringBuilder();
+      if (result.getResultPoints() != null) {
+        for (ResultPoint point : result.getResultPoints()) {
+          if (point != null) {
+            if (points.length() > 0) {
+              points.append(' ');
+            }
+            points.append(point.getX()).append(';').append(point.getY());
+          }
+        }
+      }
+      appendCsvField(record, points.toString());
+    } else {
+      record.append(",,");
+    }
+    record.append(',').append(nanos).append(',');
+    if (result != null && result.getResultMetadata() != null) {
+      StringBuilder metadata = new StringBuilder();
+      for (Map.Entry<ResultMetadataType,Object> entry : result.getResultMetadata().entrySet()) {
+        Object value = entry.getValue();
+        if (entry.getKey() == ResultMetadataType.BYTE_SEGMENTS) {
+          value = toHex(value);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof String) {
+          if (metadata.length() > 0) {
+            metadata.append(' ');
+          }
+          metadata.append(entry.getKey().name()).append('=').append(value);
+        }
+      }
+      appendCsvField(record, metadata.toString());
+    }
+    record.append(',');
+    if (error != null) {
+      appendCsvField(record, error);
+    }
+  }
+
+  private static void appendJsonString(StringBuilder record, String value) {
+    record.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+          record.append("\\\"");
+          break;
+        case '\\':
+          record.append("\\\\");
+          break;
+        case '\n':
+          record.append("\\n");
+          break;
+        case '\r':
+          record.append("\\r");
+          break;
+        case '\t':
+          record.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            record.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0x0F]);
+          } else {
+            record.append(c);
+          }
+          break;
+      }
+    }
+    record.append('"');
+  }
+
+  private static void appendCsvField(StringBuilder record, String value) {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      record.append(value);
+      return;
+    }
+    record.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        record.append('"');
+      }
+      record.append(c);
+    }
+    record.append('"');
+  }
+
+  /**
+   * @return byte segments as space-separated hex strings, or null if not in the expected form
+   */
+  private static String toHex(Object byteSegments) {
+    if (!(byteSegments instanceof Iterable)) {
+      return null;
+    }
+    StringBuilder hex = new StringBuilder();
+    for (Object segment : (Iterable<?>) byteSegments) {
+      if (!(segment instanceof byte[])) {
+        return null;
+      }
+      if (hex.length() > 0) {
+        hex.append(' ');
+      }
+      for (byte b : (byte[]) segment) {
+        hex.append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+      }
+    }
+    return hex.toString();
+  }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.net.URI;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class BatchDecoderTestCase extends Assert {
+
+  @Test
+  public void testDecode() throws Exception {
+    Path dir = Files.createTempDirectory("batch");
+    try {
+      List<URI> inputs = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        BitMatrix matrix = new QRCodeWriter().encode("batch " + i, BarcodeFormat.QR_CODE, 100, 100);
+        Path path = dir.resolve(i + ".png");
+        MatrixToImageWriter.writeToPath(matrix, "png", path);
+        inputs.add(path.toUri());
+      }
+      Path blank = dir.resolve("blank.png");
+      MatrixToImageWriter.writeToPath(new BitMatrix(100, 100), "png", blank);
+      inputs.add(blank.toUri());
+      Path broken = dir.resolve("broken.png");
+      Files.write(broken, new byte[] {1, 2, 3});
+      inputs.add(broken.toUri());
+      inputs.add(dir.resolve("missing.png").toUri());
+
+      final Map<URI,BatchDecoder.Outcome> outcomes = new ConcurrentHashMap<>();
+      BatchDecoder decoder = new BatchDecoder(null, new BatchDecoder.Handler() {
+        @Override
+        public void handle(BatchDecoder.Outcome outcome) {
+          assertNull(outcomes.put(outcome.getInput(), outcome));
+        }
+      });
+      // Small queues and uneven thread counts make stages wait on each other
+      decoder.setQueueCapacity(1);
+      decoder.setThreads(BatchDecoder.Stage.READ, 1);
+      decoder.setThreads(BatchDecoder.Stage.IMAGE, 3);
+      decoder.setThreads(BatchDecoder.Stage.BINARIZE, 1);
+      decoder.setThreads(BatchDecoder.Stage.DECODE, 2);
+      assertEquals(20, decoder.decode(inputs));
+
+      assertEquals(inputs.size(), outcomes.size());
+      for (int i = 0; i < 20; i++) {
+        Result[] results = outcomes.get(inputs.get(i)).getResults();
+        assertEquals(1, results.length);
+        assertEquals("batch " + i, results[0].getText());
+      }
+      assertNull(outcomes.get(blank.toUri()).getResults());
+      assertNull(outcomes.get(blank.toUri()).getError());
+      assertNotNull(outcomes.get(broken.toUri()).getError());
+      assertNotNull(outcomes.get(dir.resolve("missing.png").toUri()).getError());
+
+      assertEquals(inputs.size(), decoder.getCount(BatchDecoder.Stage.READ));
+      assertEquals(22, decoder.getCount(BatchDecoder.Stage.IMAGE));
+      assertEquals(21, decoder.getCount(BatchDecoder.Stage.DECODE));
+    } finally {
+      try (DirectoryStream<Path> paths = Files.newDirectoryStream(dir)) {
+        for (Path path : paths) {
+          Files.delete(path);
+        }
+      }
+      Files.delete(dir);
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void testFailureStops() throws Exception {
+    List<URI> inputs = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      inputs.add(Paths.get("missing-" + i + ".png").toUri());
+    }
+    BatchDecoder decoder = new BatchDecoder(null, new BatchDecoder.Handler() {
+      @Override
+      public void handle(BatchDecoder.Outcome outcome) {
+        throw new Error("handler died");
+      }
+    });
+    // The only decode worker dies on the first input, leaving nothing to take the rest
+    decoder.setQueueCapacity(1);
+    decoder.setThreads(BatchDecoder.Stage.DECODE, 1);
+    try {
+      decoder.decode(inputs);
+      fail();
+    } catch (Error e) {
+      assertEquals("handler died", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testRawFrames() throws Exception {
+    // Y800 frames with a 3 byte header and rows padded to 128 bytes
+    BitMatrix matrix = new QRCodeWriter().encode("raw", BarcodeFormat.QR_CODE, 100, 100);
+    byte[] frame = new byte[3 + 128 * 100];
+    for (int y = 0; y < 100; y++) {
+      for (int x = 0; x < 100; x++) {
+        frame[3 + y * 128 + x] = (byte) (matrix.get(x, y) ? 0 : 255);
+      }
+    }
+    Path path = Files.createTempFile("frame", ".y800");
+    try {
+      Files.write(path, frame);
+      final List<BatchDecoder.Outcome> outcomes = new ArrayList<>();
+      BatchDecoder decoder = new BatchDecoder(null, new BatchDecoder.Handler() {
+        @Override
+        public synchronized void handle(BatchDecoder.Outcome outcome) {
+          outcomes.add(outcome);
+        }
+      });
+      decoder.setRawFrames(3, 128, 100, 100);
+      assertEquals(1, decoder.decode(Collections.singletonList(path.toUri())));
+      assertEquals("raw", outcomes.get(0).getResults()[0].getText());
+      assertNull(outcomes.get(0).getImage());
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testPyramid() throws Exception {
+    BitMatrix matrix = new QRCodeWriter().encode("pyramid", BarcodeFormat.QR_CODE, 400, 400);
+    byte[] frame = new byte[1600 * 1200];
+    Arrays.fill(frame, (byte) 255);
+    for (int y = 0; y < 400; y++) {
+      for (int x = 0; x < 400; x++) {
+        if (matrix.get(x, y)) {
+          frame[(700 + y) * 1600 + 1100 + x] = 0;
+        }
+      }
+    }
+    Path path = Files.createTempFile("frame", ".y800");
+    try {
+      Files.write(path, frame);
+      final List<BatchDecoder.Outcome> outcomes = new ArrayList<>();
+      BatchDecoder decoder = new BatchDecoder(null, new BatchDecoder.Handler() {
+        @Override
+        public synchronized void handle(BatchDecoder.Outcome outcome) {
+          outcomes.add(outcome);
+        }
+      });
+      decoder.setRawFrames(0, 1600, 1600, 1200);
+      decoder.setPyramid(true);
+      assertEquals(1, decoder.decode(Collections.singletonList(path.toUri())));
+      Result result = outcomes.get(0).getResults()[0];
+      assertEquals("pyramid", result.getText());
+      // In the coordinates of the whole frame, not of the shrunken copy
+      for (ResultPoint point : result.getResultPoints()) {
+        assertTrue(point.getX() > 1100 && point.getY() > 700);
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class BatchEncoderTestCase extends Assert {
+
+  @Test
+  public void testEncode() throws Exception {
+    List<String> inputs = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      inputs.add("http://example.com/label/" + i);
+    }
+    final Map<Long,BatchEncoder.Outcome> outcomes = new ConcurrentHashMap<>();
+    BatchEncoder encoder = new BatchEncoder(BarcodeFormat.QR_CODE, 0, 0,
+        Collections.<EncodeHintType,Object>emptyMap(), new BatchEncoder.Handler() {
+          @Override
+          public void handle(BatchEncoder.Outcome outcome) {
+            assertNull(outcomes.put(outcome.getIndex(), outcome));
+          }
+        });
+    encoder.setThreads(3);
+    encoder.setQueueCapacity(4);
+    encoder.setImageFormat("PNG", new MatrixToImageConfig());
+    assertEquals(200, encoder.encode(inputs));
+    assertEquals(200, encoder.getCount());
+    assertEquals(200, outcomes.size());
+
+    QRCodeWriter writer = new QRCodeWriter();
+    for (int i = 0; i < 200; i++) {
+      BatchEncoder.Outcome outcome = outcomes.get((long) i);
+      assertEquals(inputs.get(i), outcome.getContents());
+      assertNull(outcome.getError());
+      assertEquals(writer.encode(inputs.get(i), BarcodeFormat.QR_CODE, 0, 0), outcome.getMatrix());
+    }
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(outcomes.get(17L).getImage()));
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+    assertEquals(inputs.get(17), new MultiFormatReader().decode(bitmap).getText());
+  }
+
+  @Test
+  public void testErrors() throws Exception {
+    final List<BatchEncoder.Outcome> outcomes = Collections.synchronizedList(new ArrayList<BatchEncoder.Outcome>());
+    BatchEncoder encoder = new BatchEncoder(BarcodeFormat.EAN_13, 100, 50, null, new BatchEncoder.Handler() {
+      @Override
+      public void handle(BatchEncoder.Outcome outcome) {
+        outcomes.add(outcome);
+      }
+    });
+    encoder.setThreads(2);
+    assertEquals(1, encoder.encode(Arrays.asList("5901234123457", "not a number", "")));
+    assertEquals(3, outcomes.size());
+    for (BatchEncoder.Outcome outcome : outcomes) {
+      assertEquals(outcome.getIndex() == 0, outcome.getError() == null);
+      assertEquals(outcome.getIndex() == 0, outcome.getMatrix() != null);
+      // Without an image format, nothing is rendered
+      assertNull(outcome.getImage());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testHandlerFailure() throws Exception {
+    BatchEncoder encoder = new BatchEncoder(BarcodeFormat.QR_CODE, 0, 0, null, new BatchEncoder.Handler() {
+      @Override
+      public void handle(BatchEncoder.Outcome outcome) throws IOException {
+        throw new IOException("Disk full");
+      }
+    });
+    encoder.encode(Collections.nCopies(1000, "a"));
+  }
+
+  @Test(timeout = 10000)
+  public void testWorkersDie() throws Exception {
+    BatchEncoder encoder = new BatchEncoder(BarcodeFormat.QR_CODE, 0, 0, null, new BatchEncoder.Handler() {
+      @Override
+      public void handle(BatchEncoder.Outcome outcome) {
+        throw new Error("handler died");
+      }
+    });
+    // Both workers die on their first input, leaving nothing to take the rest
+    encoder.setThreads(2);
+    encoder.setQueueCapacity(1);
+    try {
+      encoder.encode(Collections.nCopies(1000, "a"));
+      fail();
+    } catch (Error e) {
+      assertEquals("handler died", e.getMessage());
+    }
+  }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.LuminanceMatrix;
+import com.google.zxing.LuminanceSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+public final class BufferedImageLuminanceSourceTestCase extends Assert {
+
+  private static final int WIDTH = 37;
+  private static final int HEIGHT = 23;
+
+  @Test
+  public void testIntRGB() {
+    doTest(BufferedImage.TYPE_INT_RGB);
+  }
+
+  @Test
+  public void testIntARGB() {
+    doTest(BufferedImage.TYPE_INT_ARGB);
+  }
+
+  @Test
+  public void test3ByteBGR() {
+    doTest(BufferedImage.TYPE_3BYTE_BGR);
+  }
+
+  @Test
+  public void test4ByteABGR() {
+    doTest(BufferedImage.TYPE_4BYTE_ABGR);
+  }
+
+  @Test
+  public void testIndexed() {
+    doTest(BufferedImage.TYPE_BYTE_INDEXED);
+  }
+
+  @Test
+  public void testBinary() {
+    doTest(BufferedImage.TYPE_BYTE_BINARY);
+  }
+
+  @Test
+  public void testOther() {
+    doTest(BufferedImage.TYPE_INT_BGR);
+  }
+
+  private static void doTest(int type) {
+    BufferedImage image = new BufferedImage(WIDTH, HEIGHT, type);
+    Random random = new Random(type);
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        int argb = random.nextInt();
+        if (random.nextInt(4) == 0) {
+          argb &= 0x00FFFFFF;
+        } else {
+          argb |= 0xFF000000;
+        }
+        image.setRGB(x, y, argb);
+      }
+    }
+    checkSource(image, 0, 0, WIDTH, HEIGHT);
+    checkSource(image, 3, 5, 20, 11);
+    // Subimages share the parent's pixels, offset within them
+    checkSource(image.getSubimage(4, 2, 30, 18), 1, 3, 25, 12);
+  }
+
+  private static void checkSource(BufferedImage image, int left, int top, int width, int height) {
+    LuminanceSource source = new BufferedImageLuminanceSource(image, left, top, width, height);
+    byte[] matrix = source.getMatrix();
+    for (int y = 0; y < height; y++) {
+      byte[] row = source.getRow(y, null);
+      for (int x = 0; x < width; x++) {
+        int expected = expectedLuminance(image.getRGB(left + x, top + y));
+        assertEquals(expected, row[x] & 0xFF);
+        assertEquals(expected, matrix[y * width + x] & 0xFF);
+      }
+    }
+    LuminanceSource crop = source.crop(2, 1, width - 4, height - 2);
+    assertEquals(expectedLuminance(image.getRGB(left + 2, top + 1)), crop.getRow(0, null)[0] & 0xFF);
+    checkView(source);
+    checkView(crop);
+  }
+
+  @Test
+  public void testGrayView() {
+    BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+    byte[] pixels = new byte[WIDTH * HEIGHT];
+    new Random(1).nextBytes(pixels);
+    image.getRaster().setDataElements(0, 0, WIDTH, HEIGHT, pixels);
+    // Gray images are used as they are, so views must find pixels within the subimage's parent
+    LuminanceSource source = new BufferedImageLuminanceSource(image.getSubimage(4, 2, 30, 18), 1, 3, 25, 12);
+    checkView(source);
+    checkView(source.crop(2, 1, 21, 10));
+    assertEquals(pixels[5 * WIDTH + 5], source.getMatrixView().getData()[source.getMatrixView().getOffset()]);
+  }
+
+  private static void checkView(LuminanceSource source) {
+    LuminanceMatrix view = source.getMatrixView();
+    for (int y = 0; y < source.getHeight(); y++) {
+      byte[] row = source.getRow(y, null);
+      for (int x = 0; x < source.getWidth(); x++) {
+        assertEquals(row[x], view.getData()[view.getOffset() + y * view.getRowStride() + x]);
+      }
+    }
+  }
+
+  private static int expectedLuminance(int argb) {
+    if ((argb & 0xFF000000) == 0) {
+      return 0xFF;
+    }
+    return (306 * ((argb >> 16) & 0xFF) + 601 * ((argb >> 8) & 0xFF) + 117 * (argb & 0xFF) + 0x200) >> 10;
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.common.BitMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public final class MatrixImageEncoderTestCase extends Assert {
+
+  @Test
+  public void testPNG() throws IOException {
+    doTest("PNG", new MatrixToImageConfig());
+    doTest("png", new MatrixToImageConfig(0xFF102030, 0xFF405060));
+    doTest("PNG", new MatrixToImageConfig(0x7F102030, 0x00405060));
+  }
+
+  @Test
+  public void testBMP() throws IOException {
+    doTest("BMP", new MatrixToImageConfig());
+    doTest("BMP", new MatrixToImageConfig(0xFF102030, 0xFF405060));
+  }
+
+  @Test
+  public void testPBM() throws IOException {
+    for (int scale = 1; scale <= 3; scale++) {
+      BitMatrix matrix = createMatrix(45, 7);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      MatrixImageEncoder.write(matrix, "PBM", scale, out, new MatrixToImageConfig());
+      byte[] bytes = out.toByteArray();
+      int width = 45 * scale;
+      String header = "P4\n" + width + ' ' + (7 * scale) + '\n';
+      assertEquals(header, new String(bytes, 0, header.length(), StandardCharsets.US_ASCII));
+      int rowBytes = (width + 7) / 8;
+      assertEquals(header.length() + rowBytes * 7 * scale, bytes.length);
+      for (int y = 0; y < 7 * scale; y++) {
+        for (int x = 0; x < width; x++) {
+          int b = bytes[header.length() + y * rowBytes + x / 8];
+          assertEquals(matrix.get(x / scale, y / scale), ((b >> (7 - x % 8)) & 1) != 0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testLarge() throws IOException {
+    // Ordinary ImageIO can read what is written in several IDAT chunks
+    BitMatrix matrix = createMatrix(1001, 1001);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MatrixImageEncoder.write(matrix, "PNG", out);
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    for (int y = 0; y < 1001; y += 7) {
+      for (int x = 0; x < 1001; x++) {
+        assertEquals(matrix.get(x, y) ? MatrixToImageConfig.BLACK : MatrixToImageConfig.WHITE, image.getRGB(x, y));
+      }
+    }
+  }
+
+  @Test
+  public void testIsSupported() {
+    assertTrue(MatrixImageEncoder.isSupported("png"));
+    assertTrue(MatrixImageEncoder.isSupported("PBM"));
+    assertFalse(MatrixImageEncoder.isSupported("JPEG"));
+  }
+
+  private static void doTest(String format, MatrixToImageConfig config) throws IOException {
+    // Widths which do and don't fill whole bytes and words
+    for (int[] size : new int[][] {{1, 1}, {8, 3}, {33, 17}, {64, 2}}) {
+      for (int scale = 1; scale <= 3; scale++) {
+        BitMatrix matrix = createMatrix(size[0], size[1]);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatrixImageEncoder.write(matrix, format, scale, out, config);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(size[0] * scale, image.getWidth());
+        assertEquals(size[1] * scale, image.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+          for (int x = 0; x < image.getWidth(); x++) {
+            int expected = matrix.get(x / scale, y / scale) ? config.getPixelOnColor() : config.getPixelOffColor();
+            int actual = image.getRGB(x, y);
+            if ("BMP".equals(format)) {
+              // No alpha in BMP
+              expected |= 0xFF000000;
+            }
+            assertEquals("At " + x + "," + y, Integer.toHexString(expected), Integer.toHexString(actual));
+          }
+        }
+      }
+    }
+  }
+
+  private static BitMatrix createMatrix(int width, int height) {
+    Random random = new Random(width * 31 + height);
+    BitMatrix matrix = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (random.nextBoolean()) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return matrix;
+  }
+
+}
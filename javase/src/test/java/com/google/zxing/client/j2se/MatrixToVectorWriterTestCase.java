@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class MatrixToVectorWriterTestCase extends Assert {
+
+  private static final Pattern SVG_RECTANGLE = Pattern.compile("M(\\d+),(\\d+)h(\\d+)v(\\d+)h-(\\d+)z");
+
+  @Test
+  public void testRectanglesCoverMatrix() throws IOException {
+    Random random = new Random(1234);
+    for (int i = 0; i < 20; i++) {
+      BitMatrix matrix = new BitMatrix(1 + random.nextInt(70), 1 + random.nextInt(20));
+      for (int y = 0; y < matrix.getHeight(); y++) {
+        for (int x = 0; x < matrix.getWidth(); x++) {
+          // Copy the row above often, so that rectangles get taller
+          boolean set = y > 0 && random.nextInt(4) != 0 ? matrix.get(x, y - 1) : random.nextBoolean();
+          if (set) {
+            matrix.set(x, y);
+          }
+        }
+      }
+      assertEquals(matrix, cover(matrix));
+    }
+  }
+
+  @Test
+  public void testScalingAddsNoRectangles() throws WriterException, IOException {
+    QRCodeWriter writer = new QRCodeWriter();
+    BitMatrix small = writer.encode("http://zxing.org", BarcodeFormat.QR_CODE, 0, 0);
+    BitMatrix large = writer.encode("http://zxing.org", BarcodeFormat.QR_CODE,
+        small.getWidth() * 7, small.getHeight() * 7);
+    assertEquals(small.getWidth() * 7, large.getWidth());
+    assertEquals(countRectangles(small), countRectangles(large));
+    // Runs of the same width on consecutive rows are merged
+    assertTrue(countRectangles(small) < countRuns(small));
+  }
+
+  @Test
+  public void testSVG() throws Exception {
+    BitMatrix matrix = new QRCodeWriter().encode("http://zxing.org", BarcodeFormat.QR_CODE, 0, 0);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MatrixToVectorWriter.writeToStream(matrix, "svg", out, new MatrixToImageConfig(0xFF102030, 0x80405060));
+    Document document = parse(out.toByteArray());
+    Element svg = document.getDocumentElement();
+    assertEquals("svg", svg.getTagName());
+    assertEquals(Integer.toString(matrix.getWidth()), svg.getAttribute("width"));
+    assertEquals("0 0 " + matrix.getWidth() + ' ' + matrix.getHeight(), svg.getAttribute("viewBox"));
+    Element background = (Element) svg.getElementsByTagName("rect").item(0);
+    assertEquals("#405060", background.getAttribute("fill"));
+    assertEquals("0.502", background.getAttribute("fill-opacity"));
+    Element path = (Element) svg.getElementsByTagName("path").item(0);
+    assertEquals("#102030", path.getAttribute("fill"));
+    assertEquals("", path.getAttribute("fill-opacity"));
+
+    BitMatrix drawn = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+    Matcher matcher = SVG_RECTANGLE.matcher(path.getAttribute("d"));
+    int end = 0;
+    while (matcher.find()) {
+      assertEquals(end, matcher.start());
+      end = matcher.end();
+      assertEquals(matcher.group(3), matcher.group(5));
+      drawn.setRegion(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+          Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)));
+    }
+    assertEquals(path.getAttribute("d").length(), end);
+    assertEquals(matrix, drawn);
+  }
+
+  @Test
+  public void testTransparentBackground() throws Exception {
+    BitMatrix matrix = new BitMatrix(3);
+    matrix.set(1, 1);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MatrixToVectorWriter.writeToStream(matrix, "SVG", out, new MatrixToImageConfig(0xFF000000, 0x00FFFFFF));
+    Element svg = parse(out.toByteArray()).getDocumentElement();
+    assertEquals(0, svg.getElementsByTagName("rect").getLength());
+    assertEquals("M1,1h1v1h-1z", ((Element) svg.getElementsByTagName("path").item(0)).getAttribute("d"));
+  }
+
+  @Test
+  public void testEPS() throws IOException {
+    BitMatrix matrix = new BitMatrix(4, 3);
+    matrix.setRegion(1, 0, 2, 2);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MatrixToVectorWriter.writeToStream(matrix, "EPS", out);
+    String eps = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    assertTrue(eps.startsWith("%!PS-Adobe-3.0 EPSF-3.0\n%%BoundingBox: 0 0 4 3\n"));
+    assertTrue(eps.contains("1.000 1.000 1.000 setrgbcolor\n0 0 4 3 rectfill\n"));
+    // The top two rows, measured from the bottom
+    assertTrue(eps.contains("0.000 0.000 0.000 setrgbcolor\n1 1 2 2 rectfill\n"));
+    assertTrue(eps.endsWith("%%EOF\n"));
+  }
+
+  @Test
+  public void testIsSupported() {
+    assertTrue(MatrixToVectorWriter.isSupported("svg"));
+    assertTrue(MatrixToVectorWriter.isSupported("EPS"));
+    assertFalse(MatrixToVectorWriter.isSupported("PNG"));
+  }
+
+  private static BitMatrix cover(BitMatrix matrix) throws IOException {
+    final BitMatrix covered = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+    MatrixToVectorWriter.forEachRectangle(matrix, new MatrixToVectorWriter.RectangleHandler() {
+      @Override
+      public void handle(int left, int top, int width, int height) {
+        for (int y = top; y < top + height; y++) {
+          for (int x = left; x < left + width; x++) {
+            assertFalse("Rectangles overlap", covered.get(x, y));
+            covered.set(x, y);
+          }
+        }
+      }
+    });
+    return covered;
+  }
+
+  private static int countRectangles(BitMatrix matrix) throws IOException {
+    final int[] count = new int[1];
+    MatrixToVectorWriter.forEachRectangle(matrix, new MatrixToVectorWriter.RectangleHandler() {
+      @Override
+      public void handle(int left, int top, int width, int height) {
+        count[0]++;
+      }
+    });
+    return count[0];
+  }
+
+  private static int countRuns(BitMatrix matrix) {
+    int runs = 0;
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        if (matrix.get(x, y) && (x == 0 || !matrix.get(x - 1, y))) {
+          runs++;
+        }
+      }
+    }
+    return runs;
+  }
+
+  private static Document parse(byte[] bytes) throws ParserConfigurationException, SAXException, IOException {
+    return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(bytes));
+  }
+
+}
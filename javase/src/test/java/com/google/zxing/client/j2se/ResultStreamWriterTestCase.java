@@ -0,0 +1,131 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class ResultStreamWriterTestCase extends Assert {
+
+  @Test
+  public void testJson() throws Exception {
+    String[] lines = decode(OutputFormat.JSON, "say \"hi\"\nthere");
+    assertEquals(2, lines.length);
+    String found = lines[0].contains("code.png") ? lines[0] : lines[1];
+    String missing = lines[0].contains("missing.png") ? lines[0] : lines[1];
+    assertTrue(found.startsWith("{\"input\":\"file:"));
+    assertTrue(found.contains(",\"format\":\"QR_CODE\",\"text\":\"say \\\"hi\\\"\\nthere\",\"points\":[["));
+    assertTrue(found.contains(",\"metadata\":{"));
+    assertTrue(found.endsWith("}"));
+    assertFalse(found.contains("\"error\""));
+    assertTrue(missing.contains(",\"error\":\""));
+    assertFalse(missing.contains("\"format\""));
+  }
+
+  @Test
+  public void testCsv() throws Exception {
+    String[] lines = decode(OutputFormat.CSV, "a,b");
+    assertEquals(3, lines.length);
+    assertEquals("input,format,text,points,nanos,metadata,error", lines[0]);
+    String found = lines[1].contains("code.png") ? lines[1] : lines[2];
+    String missing = lines[1].contains("missing.png") ? lines[1] : lines[2];
+    assertTrue(found.contains(",QR_CODE,\"a,b\","));
+    assertTrue(missing.contains(",,,,"));
+  }
+
+  @Test
+  public void testWriteFailureStopsRun() throws Exception {
+    Writer full = new Writer() {
+      @Override
+      public void write(char[] buffer, int offset, int length) throws IOException {
+        throw new IOException("Disk full");
+      }
+      @Override
+      public void flush() {
+        // nothing buffered
+      }
+      @Override
+      public void close() {
+        // nothing to close
+      }
+    };
+    ResultStreamWriter records = new ResultStreamWriter(full, OutputFormat.JSON);
+    BatchDecoder decoder = new BatchDecoder(null, new DecodeWorker(new DecoderConfig(), records));
+    List<URI> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(Paths.get("missing-" + i + ".png").toUri());
+    }
+    try {
+      decoder.decode(inputs);
+      fail();
+    } catch (IllegalStateException ise) {
+      assertEquals("Disk full", ise.getCause().getMessage());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testText() throws IOException {
+    new ResultStreamWriter(new StringWriter(), OutputFormat.TEXT);
+  }
+
+  /**
+   * Decodes a QR code with the given contents, then a missing file, and returns the lines written.
+   */
+  private static String[] decode(OutputFormat format, String contents) throws Exception {
+    Path dir = Files.createTempDirectory("records");
+    Path path = dir.resolve("code.png");
+    try {
+      BitMatrix matrix = new QRCodeWriter().encode(contents, BarcodeFormat.QR_CODE, 100, 100);
+      MatrixToImageWriter.writeToPath(matrix, "png", path);
+      List<URI> inputs = Arrays.asList(path.toUri(), dir.resolve("missing.png").toUri());
+
+      StringWriter out = new StringWriter();
+      final ResultStreamWriter records = new ResultStreamWriter(out, format);
+      BatchDecoder decoder = new BatchDecoder(null, new BatchDecoder.Handler() {
+        @Override
+        public void handle(BatchDecoder.Outcome outcome) {
+          try {
+            records.write(outcome);
+          } catch (IOException ioe) {
+            throw new IllegalStateException(ioe);
+          }
+        }
+      });
+      assertEquals(1, decoder.decode(inputs));
+      records.close();
+      return out.toString().split("\n");
+    } finally {
+      Files.deleteIfExists(path);
+      Files.delete(dir);
+    }
+  }
+
+}
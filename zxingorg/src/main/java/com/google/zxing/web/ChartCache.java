@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.web;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixImageEncoder;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Renders images for {@link ChartServlet}, and keeps the most recently used ones up to a total size
+ * so that popular images are encoded only once. Hit and miss counts are logged every
+ * {@value #STATS_LOG_INTERVAL} requests.
+ */
+final class ChartCache {
+
+  private static final Logger log = Logger.getLogger(ChartCache.class.getName());
+
+  private static final int STATS_LOG_INTERVAL = 10_000;
+
+  private final Cache<ChartServletRequestParameters,Chart> cache;
+  private final AtomicLong requests = new AtomicLong();
+
+  /**
+   * @param maxBytes approximate most memory the images kept may use
+   */
+  ChartCache(long maxBytes) {
+    cache = CacheBuilder.newBuilder()
+        .maximumWeight(maxBytes)
+        .weigher(new Weigher<ChartServletRequestParameters,Chart>() {
+          @Override
+          public int weigh(ChartServletRequestParameters parameters, Chart chart) {
+            return chart.data.length + 2 * parameters.getText().length();
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * @return the image for these parameters, rendered now or earlier
+   * @throws WriterException if the text can't be encoded with these parameters
+   */
+  Chart get(ChartServletRequestParameters parameters) throws WriterException {
+    Chart chart = cache.getIfPresent(parameters);
+    if (chart == null) {
+      // Two requests may both render a new image; either result will do
+      chart = render(parameters);
+      cache.put(parameters, chart);
+    }
+    if (requests.incrementAndGet() % STATS_LOG_INTERVAL == 0) {
+      log.info("Chart cache: " + cache.stats());
+    }
+    return chart;
+  }
+
+  CacheStats getStats() {
+    return cache.stats();
+  }
+
+  private static Chart render(ChartServletRequestParameters parameters) throws WriterException {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.MARGIN, parameters.getMargin());
+    if (!StandardCharsets.ISO_8859_1.equals(parameters.getOutputEncoding())) {
+      // Only set if not QR code default
+      hints.put(EncodeHintType.CHARACTER_SET, parameters.getOutputEncoding().name());
+    }
+    hints.put(EncodeHintType.ERROR_CORRECTION, parameters.getEcLevel());
+
+    BitMatrix matrix = new QRCodeWriter().encode(parameters.getText(),
+                                                 BarcodeFormat.QR_CODE,
+                                                 parameters.getWidth(),
+                                                 parameters.getHeight(),
+                                                 hints);
+
+    String imageFormat = parameters.getImageFormat();
+    String contentType;
+    switch (imageFormat) {
+      case "PNG":
+        contentType = "image/png";
+        break;
+      case "JPEG":
+        contentType = "image/jpeg";
+        break;
+      case "GIF":
+        contentType = "image/gif";
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown format " + imageFormat);
+    }
+
+    ByteArrayOutputStream imageOut = new ByteArrayOutputStream(1024);
+    try {
+      if (MatrixImageEncoder.isSupported(imageFormat)) {
+        MatrixImageEncoder.write(matrix, imageFormat, imageOut);
+      } else {
+        MatrixToImageWriter.writeToStream(matrix, imageFormat, imageOut);
+      }
+    } catch (IOException ioe) {
+      // Can't happen writing to memory
+      throw new IllegalStateException(ioe);
+    }
+    return new Chart(imageOut.toByteArray(), contentType);
+  }
+
+  /**
+   * A rendered image, and what's needed to serve it.
+   */
+  static final class Chart {
+
+    private final byte[] data;
+    private final String contentType;
+    private final String eTag;
+
+    Chart(byte[] data, String contentType) {
+      this.data = data;
+      this.contentType = contentType;
+      // Identical images get identical tags, whichever server rendered them
+      this.eTag = '"' + Hashing.murmur3_128().hashBytes(data).toString() + '"';
+    }
+
+    /**
+     * @return image data; do not modify
+     */
+    byte[] getData() {
+      return data;
+    }
+
+    String getContentType() {
+      return contentType;
+    }
+
+    String getETag() {
+      return eTag;
+    }
+
+    /**
+     * @param ifNoneMatch value of an If-None-Match header, or null
+     * @return true if the header lists this image's tag, compared weakly as RFC 7232 specifies for
+     *  this header, so that the client's copy is current
+     */
+    boolean isMatchedBy(String ifNoneMatch) {
+      if (ifNoneMatch == null) {
+        return false;
+      }
+      for (String candidate : ifNoneMatch.split(",")) {
+        candidate = candidate.trim();
+        if (candidate.startsWith("W/")) {
+          candidate = candidate.substring(2);
+        }
+        if ("*".equals(candidate) || eTag.equals(candidate)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+}
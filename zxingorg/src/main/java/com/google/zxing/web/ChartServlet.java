@@ -19,27 +19,19 @@ package com.google.zxing.web;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.io.CharStreams;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 
-import javax.servlet.ServletRequest;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
-import java.util.EnumMap;
 import java.util.Locale;
-import java.util.Map;
+import java.util.logging.Logger;
 
 /**
  * A reimplementation of the
@@ -53,10 +45,16 @@ import java.util.Map;
 @WebServlet({"/w/chart", "/w/chart.png", "/w/chart.gif", "/w/chart.jpg", "/w/chart.jpeg"})
 public final class ChartServlet extends HttpServlet {
 
+  private static final Logger log = Logger.getLogger(ChartServlet.class.getName());
+
   private static final int MAX_DIMENSION = 4096;
+  // Enough for thousands of typical images
+  private static final long MAX_CACHE_BYTES = 1L << 25;
   private static final Collection<Charset> SUPPORTED_OUTPUT_ENCODINGS = ImmutableSet.<Charset>builder()
       .add(StandardCharsets.UTF_8).add(StandardCharsets.ISO_8859_1).add(Charset.forName("Shift_JIS")).build();
 
+  private final ChartCache cache = new ChartCache(MAX_CACHE_BYTES);
+
   @Override
   protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     doEncode(request, response, false);
@@ -67,7 +65,12 @@ public final class ChartServlet extends HttpServlet {
     doEncode(request, response, true);
   }
 
-  private static void doEncode(HttpServletRequest request, HttpServletResponse response, boolean isPost)
+  @Override
+  public void destroy() {
+    log.info("Chart cache: " + cache.getStats());
+  }
+
+  private void doEncode(HttpServletRequest request, HttpServletResponse response, boolean isPost)
       throws IOException {
 
     ChartServletRequestParameters parameters;
@@ -78,65 +81,27 @@ public final class ChartServlet extends HttpServlet {
       return;
     }
 
-    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
-    hints.put(EncodeHintType.MARGIN, parameters.getMargin());
-    if (!StandardCharsets.ISO_8859_1.equals(parameters.getOutputEncoding())) {
-      // Only set if not QR code default
-      hints.put(EncodeHintType.CHARACTER_SET, parameters.getOutputEncoding().name());
-    }
-    hints.put(EncodeHintType.ERROR_CORRECTION, parameters.getEcLevel());
-
-    BitMatrix matrix;
+    ChartCache.Chart chart;
     try {
-      matrix = new QRCodeWriter().encode(parameters.getText(),
-                                         BarcodeFormat.QR_CODE,
-                                         parameters.getWidth(),
-                                         parameters.getHeight(),
-                                         hints);
+      chart = cache.get(parameters);
     } catch (WriterException we) {
       response.sendError(HttpServletResponse.SC_BAD_REQUEST, we.toString());
       return;
     }
 
-    String requestURI = request.getRequestURI();
-    int lastDot = requestURI.lastIndexOf('.');
-    String imageFormat;
-    if (lastDot > 0) {
-      imageFormat = requestURI.substring(lastDot + 1).toUpperCase(Locale.ROOT);
-      // Special-case jpg -> JPEG
-      if ("JPG".equals(imageFormat)) {
-        imageFormat = "JPEG";
-      }
-    } else {
-      imageFormat = "PNG";
-    }
-    
-    String contentType;
-    switch (imageFormat) {
-      case "PNG":
-        contentType = "image/png";
-        break;
-      case "JPEG":
-        contentType = "image/jpeg";
-        break;
-      case "GIF":
-        contentType = "image/gif";
-        break;
-      default:
-        throw new IllegalArgumentException("Unknown format " + imageFormat);
-    }
-    
-    ByteArrayOutputStream imageOut = new ByteArrayOutputStream(1024);
-    MatrixToImageWriter.writeToStream(matrix, imageFormat, imageOut);
-    byte[] imageData = imageOut.toByteArray();
-
-    response.setContentType(contentType);
-    response.setContentLength(imageData.length);
     response.setHeader("Cache-Control", "public");
-    response.getOutputStream().write(imageData);
+    response.setHeader("ETag", chart.getETag());
+    if (chart.isMatchedBy(request.getHeader("If-None-Match"))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
+    byte[] data = chart.getData();
+    response.setContentType(chart.getContentType());
+    response.setContentLength(data.length);
+    response.getOutputStream().write(data);
   }
 
-  private static ChartServletRequestParameters doParseParameters(ServletRequest request, boolean readBody)
+  private static ChartServletRequestParameters doParseParameters(HttpServletRequest request, boolean readBody)
       throws IOException {
 
     Preconditions.checkArgument("qr".equals(request.getParameter("cht")), "Bad type");
@@ -182,7 +147,20 @@ public final class ChartServlet extends HttpServlet {
     }
     Preconditions.checkArgument(text != null && !text.isEmpty(), "No input");
 
-    return new ChartServletRequestParameters(width, height, outputEncoding, ecLevel, margin, text);
+    String requestURI = request.getRequestURI();
+    int lastDot = requestURI.lastIndexOf('.');
+    String imageFormat;
+    if (lastDot > 0) {
+      imageFormat = requestURI.substring(lastDot + 1).toUpperCase(Locale.ROOT);
+      // Special-case jpg -> JPEG
+      if ("JPG".equals(imageFormat)) {
+        imageFormat = "JPEG";
+      }
+    } else {
+      imageFormat = "PNG";
+    }
+
+    return new ChartServletRequestParameters(width, height, outputEncoding, ecLevel, margin, text, imageFormat);
   }
 
 }
@@ -19,9 +19,11 @@ package com.google.zxing.web;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
 /**
- * Parameters parsed from request for {@link ChartServlet}.
+ * Parameters parsed from request for {@link ChartServlet}. Equal parameters describe the same image,
+ * so they also serve as keys of rendered images.
  *
  * @author Sean Owen
  */
@@ -33,19 +35,22 @@ final class ChartServletRequestParameters {
   private final ErrorCorrectionLevel ecLevel;
   private final int margin;
   private final String text;
+  private final String imageFormat;
 
   ChartServletRequestParameters(int width,
                                 int height,
                                 Charset outputEncoding,
                                 ErrorCorrectionLevel ecLevel,
                                 int margin,
-                                String text) {
+                                String text,
+                                String imageFormat) {
     this.width = width;
     this.height = height;
     this.outputEncoding = outputEncoding;
     this.ecLevel = ecLevel;
     this.margin = margin;
     this.text = text;
+    this.imageFormat = imageFormat;
   }
 
   int getWidth() {
@@ -72,4 +77,27 @@ final class ChartServletRequestParameters {
     return text;
   }
 
+  /**
+   * @return name of the image format to write, as understood by {@link javax.imageio.ImageIO}
+   */
+  String getImageFormat() {
+    return imageFormat;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof ChartServletRequestParameters)) {
+      return false;
+    }
+    ChartServletRequestParameters other = (ChartServletRequestParameters) o;
+    return width == other.width && height == other.height && margin == other.margin &&
+        outputEncoding.equals(other.outputEncoding) && ecLevel == other.ecLevel &&
+        text.equals(other.text) && imageFormat.equals(other.imageFormat);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(new Object[] {width, height, outputEncoding, ecLevel, margin, text, imageFormat});
+  }
+
 }
@@ -33,6 +33,7 @@ import com.google.zxing.common.GlobalHistogramBinarizer;
 import com.google.zxing.common.HybridBinarizer;
 import com.google.zxing.multi.GenericMultipleBarcodeReader;
 import com.google.zxing.multi.MultipleBarcodeReader;
+import com.google.zxing.multi.PyramidReader;
 
 import com.google.common.io.Resources;
 import com.google.common.net.HttpHeaders;
@@ -59,7 +60,6 @@ import java.util.EnumSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.ResourceBundle;
-import java.util.Timer;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -109,7 +109,6 @@ public final class DecodeServlet extends HttpServlet {
   }
 
   private Iterable<String> blockedURLSubstrings;
-  private Timer timer;
   private DoSTracker destHostTracker;
 
   @Override
@@ -130,15 +129,7 @@ public final class DecodeServlet extends HttpServlet {
       log.info("Blocking URIs containing: " + blockedURLSubstrings);
     }
 
-    timer = new Timer("DecodeServlet");
-    destHostTracker = new DoSTracker(timer, 500, TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES), 10_000);
-  }
-
-  @Override
-  public void destroy() {
-    if (timer != null) {
-      timer.cancel();
-    }
+    destHostTracker = new DoSTracker(500, TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES), 10_000);
   }
 
   @Override
@@ -370,15 +361,26 @@ public final class DecodeServlet extends HttpServlet {
       Reader reader = new MultiFormatReader();
       ReaderException savedException = null;
       try {
-        // Look for multiple barcodes
-        MultipleBarcodeReader multiReader = new GenericMultipleBarcodeReader(reader);
-        Result[] theResults = multiReader.decodeMultiple(bitmap, HINTS);
-        if (theResults != null) {
-          results.addAll(Arrays.asList(theResults));
-        }
+        // Look for barcodes in shrunken copies of large images first, which is much faster
+        Result[] theResults =
+            new PyramidReader(reader, PyramidReader.DEFAULT_MIN_LEVEL_PIXELS, false).decodeMultiple(source, HINTS);
+        results.addAll(Arrays.asList(theResults));
       } catch (ReaderException re) {
         savedException = re;
       }
+
+      if (results.isEmpty()) {
+        try {
+          // Look for multiple barcodes
+          MultipleBarcodeReader multiReader = new GenericMultipleBarcodeReader(reader);
+          Result[] theResults = multiReader.decodeMultiple(bitmap, HINTS);
+          if (theResults != null) {
+            results.addAll(Arrays.asList(theResults));
+          }
+        } catch (ReaderException re) {
+          savedException = re;
+        }
+      }
   
       if (results.isEmpty()) {
         try {
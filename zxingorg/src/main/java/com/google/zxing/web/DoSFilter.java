@@ -45,7 +45,7 @@ public final class DoSFilter implements Filter {
   @Override
   public void init(FilterConfig filterConfig) {
     timer = new Timer("DoSFilter");
-    sourceAddrTracker = new DoSTracker(timer, 500, TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES), 10_000);
+    sourceAddrTracker = new DoSTracker(500, TimeUnit.MILLISECONDS.convert(5, TimeUnit.MINUTES), 10_000);
     timer.scheduleAtFixedRate(
         new TimerTask() {
           @Override
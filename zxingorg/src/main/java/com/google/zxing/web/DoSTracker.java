@@ -16,65 +16,83 @@
 
 package com.google.zxing.web;
 
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
  * Simple class which tracks a number of actions that happen per time and can flag when an action has
  * happened too frequently recently. This can be used for example to track and temporarily block access
  * from certain IPs or to certain hosts.
+ *
+ * Each event has a leaky bucket which every action adds one to, and which drains continuously at
+ * {@code maxAccessesPerTime} per {@code accessTimeMS}. Actions are refused while the bucket holds more
+ * than {@code maxAccessesPerTime}, and refused actions still count, so a sender that keeps on
+ * stays blocked. Buckets are drained as they are used rather than by a periodic sweep.
+ *
+ * Buckets are spread over independently locked stripes, each of which holds a share of
+ * {@code maxEntries} and forgets its least recently used buckets when full, so callers for
+ * different events rarely wait on each other.
  */
 final class DoSTracker {
 
   private static final Logger log = Logger.getLogger(DoSTracker.class.getName());
 
   private final long maxAccessesPerTime;
-  private final Map<String,AtomicLong> numRecentAccesses;
+  private final double drainPerNano;
+  private final Map<String,Bucket>[] stripes;
 
-  DoSTracker(Timer timer, final int maxAccessesPerTime, long accessTimeMS, int maxEntries) {
+  DoSTracker(int maxAccessesPerTime, long accessTimeMS, int maxEntries) {
     this.maxAccessesPerTime = maxAccessesPerTime;
-    this.numRecentAccesses = new LRUMap<>(maxEntries);
-    timer.scheduleAtFixedRate(new TimerTask() {
-      @Override
-      public void run() {
-        synchronized (numRecentAccesses) {
-          Iterator<Map.Entry<String,AtomicLong>> accessIt = numRecentAccesses.entrySet().iterator();
-          while (accessIt.hasNext()) {
-            Map.Entry<String,AtomicLong> entry = accessIt.next();
-            AtomicLong count = entry.getValue();
-            // If number of accesses is below the threshold, remove it entirely
-            if (count.get() <= maxAccessesPerTime) {
-              accessIt.remove();
-            } else {
-              // Else it exceeded the max, so log it (again)
-              log.warning("Blocking " + entry.getKey() + " (" + count + " outstanding)");
-              // Reduce count of accesses held against the IP
-              count.getAndAdd(-maxAccessesPerTime);
-            }
-          }
-        }
-      }
-    }, accessTimeMS, accessTimeMS);
-
+    this.drainPerNano = (double) maxAccessesPerTime / TimeUnit.MILLISECONDS.toNanos(accessTimeMS);
+    int numStripes = Integer.highestOneBit(Math.min(maxEntries, 4 * Runtime.getRuntime().availableProcessors()));
+    @SuppressWarnings("unchecked")
+    Map<String,Bucket>[] newStripes = new Map[Math.max(1, numStripes)];
+    for (int i = 0; i < newStripes.length; i++) {
+      newStripes[i] = new LRUMap<>(Math.max(1, maxEntries / newStripes.length));
+    }
+    stripes = newStripes;
   }
 
   boolean isBanned(String event) {
+    return isBanned(event, System.nanoTime());
+  }
+
+  boolean isBanned(String event, long nowNanos) {
     if (event == null) {
       return true;
     }
-    AtomicLong count;
-    synchronized (numRecentAccesses) {
-      count = numRecentAccesses.get(event);
-      if (count == null) {
-        count = new AtomicLong();
-        numRecentAccesses.put(event, count);
+    int hash = event.hashCode();
+    Map<String,Bucket> stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    double level;
+    double previousLevel;
+    synchronized (stripe) {
+      Bucket bucket = stripe.get(event);
+      if (bucket == null) {
+        bucket = new Bucket(nowNanos);
+        stripe.put(event, bucket);
       }
+      previousLevel = Math.max(0.0, bucket.level - (nowNanos - bucket.lastNanos) * drainPerNano);
+      level = previousLevel + 1.0;
+      bucket.level = level;
+      bucket.lastNanos = nowNanos;
     }
-    return count.incrementAndGet() > maxAccessesPerTime;
+    boolean banned = level > maxAccessesPerTime;
+    if (banned && previousLevel <= maxAccessesPerTime) {
+      log.warning("Blocking " + event);
+    }
+    return banned;
+  }
+
+  private static final class Bucket {
+
+    private double level;
+    private long lastNanos;
+
+    Bucket(long lastNanos) {
+      this.lastNanos = lastNanos;
+    }
+
   }
 
 }
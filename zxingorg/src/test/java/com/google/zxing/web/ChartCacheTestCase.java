@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.web;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests {@link ChartCache}.
+ */
+public final class ChartCacheTestCase extends Assert {
+
+  @Test
+  public void testCache() throws WriterException {
+    ChartCache cache = new ChartCache(1 << 20);
+    ChartCache.Chart chart = cache.get(parameters("hello", "PNG"));
+    assertEquals(0, cache.getStats().hitCount());
+    assertEquals(1, cache.getStats().missCount());
+
+    // Equal parameters, parsed from another request
+    assertSame(chart, cache.get(parameters("hello", "PNG")));
+    assertEquals(1, cache.getStats().hitCount());
+
+    ChartCache.Chart gif = cache.get(parameters("hello", "GIF"));
+    assertNotSame(chart, gif);
+    assertNotEquals(chart.getETag(), gif.getETag());
+    assertNotEquals(chart.getETag(), cache.get(parameters("world", "PNG")).getETag());
+    assertEquals(3, cache.getStats().missCount());
+
+    // The same image rendered again has the same tag
+    assertEquals(chart.getETag(), new ChartCache(1 << 20).get(parameters("hello", "PNG")).getETag());
+    assertArrayEquals(chart.getData(), new ChartCache(1 << 20).get(parameters("hello", "PNG")).getData());
+  }
+
+  @Test
+  public void testEviction() throws WriterException {
+    ChartCache cache = new ChartCache(1);
+    cache.get(parameters("hello", "PNG"));
+    cache.get(parameters("hello", "PNG"));
+    // Nothing fits, so nothing is kept
+    assertEquals(0, cache.getStats().hitCount());
+    assertEquals(2, cache.getStats().missCount());
+  }
+
+  @Test
+  public void testIsMatchedBy() {
+    ChartCache.Chart chart = new ChartCache.Chart(new byte[] {1, 2, 3}, "image/png");
+    String eTag = chart.getETag();
+    assertFalse(chart.isMatchedBy(null));
+    assertTrue(chart.isMatchedBy(eTag));
+    assertTrue(chart.isMatchedBy("W/" + eTag));
+    assertTrue(chart.isMatchedBy("\"xyz\", " + eTag));
+    assertTrue(chart.isMatchedBy("*"));
+    assertFalse(chart.isMatchedBy("\"xyz\""));
+    assertFalse(chart.isMatchedBy(eTag.substring(1, eTag.length() - 1)));
+  }
+
+  private static ChartServletRequestParameters parameters(String text, String imageFormat) {
+    return new ChartServletRequestParameters(
+        100, 100, StandardCharsets.UTF_8, ErrorCorrectionLevel.L, 4, new String(text), imageFormat);
+  }
+
+}
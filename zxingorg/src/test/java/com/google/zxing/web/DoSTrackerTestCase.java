@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.web;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests {@link DoSTracker}.
+ */
+public final class DoSTrackerTestCase extends Assert {
+
+  private static final long PERIOD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void testBanAndRecover() {
+    DoSTracker tracker = new DoSTracker(10, 1000, 100);
+    for (int i = 0; i < 10; i++) {
+      assertFalse(tracker.isBanned("a", 0));
+    }
+    assertTrue(tracker.isBanned("a", 0));
+    assertFalse(tracker.isBanned("b", 0));
+    // A tenth of a period drains one access, but the refused access counted too
+    assertTrue(tracker.isBanned("a", PERIOD_NANOS / 10));
+    assertFalse(tracker.isBanned("a", PERIOD_NANOS));
+    assertTrue(tracker.isBanned(null, 0));
+  }
+
+  @Test
+  public void testPersistentSenderStaysBanned() {
+    DoSTracker tracker = new DoSTracker(10, 1000, 100);
+    for (int i = 0; i < 40; i++) {
+      tracker.isBanned("a", 0);
+    }
+    // Draining 10 per period, 40 accesses keep it banned for 3 periods
+    assertTrue(tracker.isBanned("a", 2 * PERIOD_NANOS));
+    assertFalse(tracker.isBanned("a", 4 * PERIOD_NANOS));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedForgotten() {
+    DoSTracker tracker = new DoSTracker(1, 1000, 1);
+    tracker.isBanned("a", 0);
+    assertTrue(tracker.isBanned("a", 0));
+    tracker.isBanned("b", 0);
+    // Only one entry is kept, so "a" starts afresh
+    assertFalse(tracker.isBanned("a", 0));
+  }
+
+  @Test
+  public void testConcurrentAccess() throws InterruptedException {
+    final DoSTracker tracker = new DoSTracker(1000, 1000, 10_000);
+    final AtomicInteger allowed = new AtomicInteger();
+    Collection<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 500; i++) {
+            for (int event = 0; event < 10; event++) {
+              if (!tracker.isBanned(Integer.toString(event), 0)) {
+                allowed.incrementAndGet();
+              }
+            }
+          }
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // Each of the 10 events was tried 4000 times, and exactly 1000 of those were allowed
+    assertEquals(10 * 1000, allowed.get());
+  }
+
+}